@@ -3,9 +3,11 @@ package com.dtao.seminarbooking;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableAsync;  // <-- import this
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableAsync  // <-- add this annotation
+@EnableScheduling // email outbox dispatcher
 public class SeminarBookingApplication {
 
     public static void main(String[] args) {
@@ -3,6 +3,7 @@ package com.dtao.seminarbooking.config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
@@ -35,6 +36,145 @@ public class AsyncConfig implements AsyncConfigurer {
         return executor;
     }
 
+    /**
+     * Threads for parallel Brevo calls from the outbox dispatcher. Sized to the
+     * adaptive limiter's ceiling; the dispatcher never submits more than the limiter allows.
+     */
+    @Bean(name = "mailSendExecutor")
+    public ThreadPoolTaskExecutor mailSendExecutor(@Value("${app.mail.brevo.max-concurrency:16}") int maxConcurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrency);
+        executor.setMaxPoolSize(maxConcurrency);
+        executor.setQueueCapacity(maxConcurrency);
+        executor.setKeepAliveSeconds(60);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("mail-send-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Password-reset codes only. Kept apart from the notification pools so a booking
+     * backlog can never delay an OTP. When it is full the submission is refused rather
+     * than run on the request thread; the OTP is then marked FAILED so the user can ask again.
+     */
+    @Bean(name = "otpMailExecutor")
+    public ThreadPoolTaskExecutor otpMailExecutor(@Value("${app.otp.mail-threads:2}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(100);
+        executor.setKeepAliveSeconds(60);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadPriority(Thread.NORM_PRIORITY + 1);
+        executor.setThreadNamePrefix("otp-mail-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * BCrypt work (login verification, password encoding). Bounded to the CPU count so a
+     * burst of logins queues here instead of occupying every request thread; when the
+     * queue is full callers are refused and should answer 503.
+     */
+    @Bean(name = "passwordHashExecutor")
+    public ThreadPoolTaskExecutor passwordHashExecutor(
+            @Value("${app.auth.hashing.threads:0}") int threads,
+            @Value("${app.auth.hashing.queue-capacity:200}") int queueCapacity) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setKeepAliveSeconds(60);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("pwd-hash-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * BCrypt for bulk user imports, kept apart from {@code passwordHashExecutor} so an
+     * import never makes logins wait or get refused. Half the CPUs by default; the queue
+     * holds one full import.
+     */
+    @Bean(name = "bulkHashExecutor")
+    public ThreadPoolTaskExecutor bulkHashExecutor(
+            @Value("${app.users.bulk.hashing-threads:0}") int threads,
+            @Value("${app.users.bulk.max-rows:500}") int maxRows) {
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setQueueCapacity(maxRows);
+        executor.setKeepAliveSeconds(60);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadPriority(Thread.NORM_PRIORITY - 1);
+        executor.setThreadNamePrefix("bulk-hash-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * On-demand photo resizing for hall media. Half the CPUs at most, with a short queue:
+     * when it is full variant requests get a 503 instead of image decoding crowding out
+     * request handling.
+     */
+    @Bean(name = "mediaExecutor")
+    public ThreadPoolTaskExecutor mediaExecutor(
+            @Value("${app.media.threads:0}") int threads,
+            @Value("${app.media.queue-capacity:100}") int queueCapacity) {
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setKeepAliveSeconds(60);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadPriority(Thread.NORM_PRIORITY - 1);
+        executor.setThreadNamePrefix("media-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Per-hall availability lookups for the hall recommender. Small and short-lived
+     * queries; when the pool and queue are full a lookup is rejected and the recommender
+     * treats that hall as not free, so the request thread never runs one itself.
+     */
+    @Bean(name = "availabilityExecutor")
+    public ThreadPoolTaskExecutor availabilityExecutor(@Value("${app.halls.recommend.threads:8}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(200);
+        executor.setKeepAliveSeconds(60);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("hall-avail-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Long-running maintenance jobs (usage rollup rebuild, seminar archiving). Their cron
+     * triggers only hand the work over, so the scheduler threads that also drive token
+     * revocation refresh, the outbox and the audit flush are never tied up by them.
+     * One job at a time; a trigger that finds the queue full is skipped.
+     */
+    @Bean(name = "maintenanceExecutor")
+    public ThreadPoolTaskExecutor maintenanceExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(2);
+        executor.setKeepAliveSeconds(60);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadPriority(Thread.NORM_PRIORITY - 1);
+        executor.setThreadNamePrefix("maintenance-");
+        executor.initialize();
+        return executor;
+    }
+
     /**
      * Optional: catch uncaught exceptions thrown from @Async void methods.
      * Useful to log why a background email failed when not returning CompletableFuture.
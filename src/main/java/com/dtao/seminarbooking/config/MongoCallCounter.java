@@ -0,0 +1,21 @@
+package com.dtao.seminarbooking.config;
+
+/**
+ * Counts Mongo commands issued by the current thread (fed by the command listener in
+ * {@link MongoMetricsConfig}). Take {@link #current()} before and after a block of
+ * work to know how many database round trips it made.
+ */
+public final class MongoCallCounter {
+
+    private static final ThreadLocal<int[]> CALLS = ThreadLocal.withInitial(() -> new int[1]);
+
+    private MongoCallCounter() {}
+
+    static void increment() {
+        CALLS.get()[0]++;
+    }
+
+    public static int current() {
+        return CALLS.get()[0];
+    }
+}
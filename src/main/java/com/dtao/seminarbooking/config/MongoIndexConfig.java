@@ -0,0 +1,77 @@
+package com.dtao.seminarbooking.config;
+
+import com.dtao.seminarbooking.model.EmailOutbox;
+import com.dtao.seminarbooking.model.HallUsageRollup;
+import com.dtao.seminarbooking.model.OperatorDigestEvent;
+import com.dtao.seminarbooking.model.OtpToken;
+import com.dtao.seminarbooking.model.RevokedToken;
+import com.dtao.seminarbooking.model.Seminar;
+import com.dtao.seminarbooking.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Creates the indexes declared with @Indexed / @CompoundIndex on the entities below.
+ * Spring Boot keeps auto-index-creation off, so collections that rely on unique or
+ * TTL indexes are listed here explicitly. Runs in the background after startup so a
+ * slow or unreachable Mongo does not block the app from serving.
+ */
+@Configuration
+public class MongoIndexConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexConfig.class);
+
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(
+            EmailOutbox.class,
+            HallUsageRollup.class,
+            OperatorDigestEvent.class,
+            OtpToken.class,
+            RevokedToken.class,
+            Seminar.class,
+            User.class
+    );
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+
+    public MongoIndexConfig(MongoTemplate mongoTemplate, MongoMappingContext mappingContext) {
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexesOnStartup() {
+        CompletableFuture.runAsync(this::ensureIndexes);
+    }
+
+    void ensureIndexes() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        for (Class<?> entity : INDEXED_ENTITIES) {
+            IndexOperations indexOps = mongoTemplate.indexOps(entity);
+            int ensured = 0;
+            // one failing index (e.g. a unique index over legacy duplicates) must not block the others
+            for (IndexDefinition index : resolver.resolveIndexFor(entity)) {
+                try {
+                    indexOps.createIndex(index);
+                    ensured++;
+                } catch (Exception ex) {
+                    log.error("[MongoIndexConfig] could not ensure index {} for {}: {}",
+                            index.getIndexKeys().toJson(), entity.getSimpleName(), ex.getMessage());
+                }
+            }
+            log.info("[MongoIndexConfig] {} index(es) ensured for {}", ensured, entity.getSimpleName());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.dtao.seminarbooking.config;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mongo driver metrics that Boot does not publish by default:
+ * <ul>
+ *   <li>{@code mongodb.driver.pool.checkout.wait} - time a thread waited for a pooled connection</li>
+ *   <li>{@code mongodb.driver.pool.checkout.failed} - checkouts that timed out or failed</li>
+ *   <li>per-thread command counting for {@link MongoCallCounter}</li>
+ * </ul>
+ */
+@Configuration
+public class MongoMetricsConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoPoolWaitMetrics(MeterRegistry registry) {
+        Timer checkoutWait = Timer.builder("mongodb.driver.pool.checkout.wait")
+                .description("Time spent waiting to check a connection out of the Mongo pool")
+                .publishPercentileHistogram()
+                .register(registry);
+        Counter checkoutFailed = Counter.builder("mongodb.driver.pool.checkout.failed")
+                .description("Connection checkouts that failed (e.g. wait queue timeout)")
+                .register(registry);
+
+        ConnectionPoolListener poolListener = new ConnectionPoolListener() {
+            @Override
+            public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+                checkoutWait.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+                checkoutFailed.increment();
+            }
+        };
+        // the sync driver notifies on the calling thread, so a thread-local counter works
+        CommandListener commandCounter = new CommandListener() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                MongoCallCounter.increment();
+            }
+        };
+
+        return builder -> builder
+                .applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(poolListener))
+                .addCommandListener(commandCounter);
+    }
+}
@@ -3,6 +3,7 @@ package com.dtao.seminarbooking.config;
 import com.dtao.seminarbooking.security.CustomUserDetailsService;
 import com.dtao.seminarbooking.security.JwtAuthenticationEntryPoint;
 import com.dtao.seminarbooking.security.JwtAuthenticationFilter;
+import com.dtao.seminarbooking.security.RateLimitFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -40,6 +41,9 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
     @Value("${cors.allowed-origins:http://localhost:3000}")
     private String corsAllowedOrigins;
 
@@ -99,9 +103,14 @@ public class SecurityConfig {
 
                         // ✅ Public endpoints
                         .requestMatchers("/api/health").permitAll()
+                        // actuator only listens on the private management port
+                        .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/prometheus").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/users/login").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/users").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/users/directory").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/users/bulk").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
 
                         // ✅ Seminar endpoints (added both /api/seminars and /api/seminars/**)
@@ -132,6 +141,8 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.DELETE, "/api/departments/**").hasRole("ADMIN")
 
                         // ✅ Halls
+                        // hall photos: content-hashed URLs loaded by <img> tags, which cannot send a JWT
+                        .requestMatchers(HttpMethod.GET, "/api/halls/*/media/*").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/halls").hasAnyRole("ADMIN", "DEPARTMENT")
                         .requestMatchers(HttpMethod.GET, "/api/halls/**").hasAnyRole("ADMIN", "DEPARTMENT")
                         .requestMatchers(HttpMethod.POST, "/api/halls/**").hasRole("ADMIN")
@@ -139,6 +150,12 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.PUT, "/api/halls/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/halls/**").hasRole("ADMIN")
 
+                        // ✅ Utilization analytics
+                        .requestMatchers("/api/analytics/**").hasRole("ADMIN")
+
+                        // ✅ Booking audit trail
+                        .requestMatchers("/api/audit/**").hasRole("ADMIN")
+
                         // ✅ Any other request must be authenticated
                         .anyRequest().authenticated()
                 );
@@ -146,6 +163,9 @@ public class SecurityConfig {
         // ✅ Add JWT filter before username/password filter
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
+        // ✅ Rate limiting runs first, so throttled calls cost no JWT or BCrypt work
+        http.addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class);
+
         // ✅ Use custom DAO provider
         http.authenticationProvider(authProvider());
 
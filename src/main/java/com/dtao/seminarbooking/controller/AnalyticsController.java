@@ -0,0 +1,51 @@
+package com.dtao.seminarbooking.controller;
+
+import com.dtao.seminarbooking.service.HallUsageService;
+import com.dtao.seminarbooking.service.HallUsageService.UsageRow;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private final HallUsageService usageService;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    public AnalyticsController(HallUsageService usageService) {
+        this.usageService = usageService;
+    }
+
+    // e.g. /api/analytics/utilization?from=2025-09-01&to=2025-11-30&groupBy=department&period=month
+    @GetMapping("/utilization")
+    public ResponseEntity<List<UsageRow>> utilization(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "hall") String groupBy,
+            @RequestParam(defaultValue = "week") String period) {
+        return ResponseEntity.ok(usageService.report(from, to, groupBy, period));
+    }
+
+    // recompute every rollup from the bookings; runs in the background
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<?> rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return ResponseEntity.status(409).body(Map.of("error", "A rebuild is already running"));
+        }
+        try {
+            usageService.rebuildInBackground().whenComplete((r, ex) -> rebuilding.set(false));
+        } catch (RejectedExecutionException ex) {
+            rebuilding.set(false);
+            return ResponseEntity.status(503).body(Map.of("error", "Maintenance jobs are busy, try again later"));
+        }
+        return ResponseEntity.accepted().body(Map.of("message", "Rollup rebuild started"));
+    }
+}
@@ -0,0 +1,38 @@
+package com.dtao.seminarbooking.controller;
+
+import com.dtao.seminarbooking.model.BookingAuditEvent;
+import com.dtao.seminarbooking.service.BookingAuditService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/audit")
+public class AuditController {
+
+    private final BookingAuditService auditService;
+
+    public AuditController(BookingAuditService auditService) {
+        this.auditService = auditService;
+    }
+
+    // every state transition of one booking, oldest first
+    @GetMapping("/bookings/{id}")
+    public ResponseEntity<List<BookingAuditEvent>> bookingHistory(@PathVariable String id) {
+        return ResponseEntity.ok(auditService.history(id));
+    }
+
+    // e.g. /api/audit/activity?from=2025-10-01T00:00:00Z&to=2025-10-08T00:00:00Z&role=ADMIN
+    @GetMapping("/activity")
+    public ResponseEntity<List<BookingAuditEvent>> activity(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String actor,
+            @RequestParam(required = false) String role,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(auditService.activity(from, to, actor, role, limit));
+    }
+}
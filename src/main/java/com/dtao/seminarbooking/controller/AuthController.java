@@ -2,6 +2,8 @@ package com.dtao.seminarbooking.controller;
 
 import com.dtao.seminarbooking.security.CustomUserDetailsService;
 import com.dtao.seminarbooking.security.JwtTokenProvider;
+import com.dtao.seminarbooking.security.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import com.dtao.seminarbooking.service.OtpService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,6 +14,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -29,19 +32,33 @@ public class AuthController {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     // ========================
     // 🔐 PASSWORD RECOVERY FLOW
     // ========================
     @PostMapping("/forgot-password")
     public ResponseEntity<?> forgotPassword(@RequestBody Map<String, String> req) {
         String email = req.get("email");
-        if (otpService.generateOtp(email)) {
-            // Neutral message to prevent user enumeration
-            return ResponseEntity.ok(Map.of("message", "OTP sent to email if account exists."));
+        Optional<String> requestId = otpService.generateOtp(email);
+        if (requestId.isPresent()) {
+            // Neutral message to prevent user enumeration; the mail goes out in the background
+            return ResponseEntity.accepted().body(Map.of(
+                    "message", "OTP sent to email if account exists.",
+                    "requestId", requestId.get()));
         }
         return ResponseEntity.badRequest().body(Map.of("error", "Email not found"));
     }
 
+    /** Delivery of the OTP mail started by forgot-password: QUEUED, SENT or FAILED. */
+    @GetMapping("/otp-status/{requestId}")
+    public ResponseEntity<?> otpStatus(@PathVariable String requestId) {
+        return otpService.deliveryStatus(requestId)
+                .<ResponseEntity<?>>map(status -> ResponseEntity.ok(Map.of("requestId", requestId, "status", status)))
+                .orElse(ResponseEntity.status(404).body(Map.of("error", "Unknown or expired OTP request")));
+    }
+
     @PostMapping("/verify-otp")
     public ResponseEntity<?> verifyOtp(@RequestBody Map<String, String> req) {
         String email = req.get("email");
@@ -52,6 +69,7 @@ public class AuthController {
             case "VALID" -> ResponseEntity.ok(Map.of("message", "OTP verified. You can reset password now."));
             case "EXPIRED" -> ResponseEntity.badRequest().body(Map.of("error", "OTP expired. Please request a new one."));
             case "INVALID" -> ResponseEntity.badRequest().body(Map.of("error", "Invalid OTP. Please try again."));
+            case "LOCKED" -> ResponseEntity.badRequest().body(Map.of("error", "Too many wrong attempts. Please request a new OTP."));
             case "NO_TOKEN" -> ResponseEntity.badRequest().body(Map.of("error", "No active OTP found. Please request again."));
             case "USER_NOT_FOUND" -> ResponseEntity.badRequest().body(Map.of("error", "No account found for this email."));
             default -> ResponseEntity.badRequest().body(Map.of("error", "Verification failed."));
@@ -109,4 +127,31 @@ public class AuthController {
             return ResponseEntity.status(500).body(Map.of("error", "Server error during token refresh"));
         }
     }
+
+    // ==============
+    // 🚪 LOGOUT
+    // ==============
+    /**
+     * Revokes the presented token so it stops working before its expiry.
+     * Calling it with an already invalid or revoked token is a no-op.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String header) {
+        String token = header != null && header.startsWith("Bearer ") ? header.substring(7) : null;
+        if (token == null || token.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Missing token"));
+        }
+        Optional<Claims> claims = jwtTokenProvider.parseVerified(token);
+        if (claims.isEmpty()) {
+            return ResponseEntity.ok(Map.of("message", "Logged out"));
+        }
+        try {
+            tokenRevocationService.revoke(claims.get());
+            log.info("Token revoked on logout for user={}", claims.get().getSubject());
+            return ResponseEntity.ok(Map.of("message", "Logged out"));
+        } catch (Exception ex) {
+            log.error("logout failed: {}", ex.getMessage(), ex);
+            return ResponseEntity.status(500).body(Map.of("error", "Server error during logout"));
+        }
+    }
 }
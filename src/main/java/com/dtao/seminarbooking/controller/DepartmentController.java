@@ -5,8 +5,10 @@ import com.dtao.seminarbooking.model.Seminar;
 import com.dtao.seminarbooking.payload.CalendarDaySummary;
 import com.dtao.seminarbooking.service.DepartmentService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -25,9 +27,12 @@ public class DepartmentController {
         return ResponseEntity.ok(service.addDepartment(d));
     }
 
+    // conditional: clients holding the current ETag get a 304
     @GetMapping
-    public ResponseEntity<List<Department>> getAll() {
-        return ResponseEntity.ok(service.getAllDepartments());
+    public ResponseEntity<List<Department>> getAll(WebRequest webRequest) {
+        String etag = service.departmentsEtag();
+        if (webRequest.checkNotModified(etag)) return null;
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(service.getAllDepartments());
     }
 
     @PutMapping("/{id}")
@@ -29,29 +29,26 @@ public class RequestController {
      * - /api/requests              → all seminars
      * - /api/requests?status=PENDING  → only pending
      * - /api/requests?status=APPROVED → only approved
+     * - /api/requests?includeArchived=true → also long-past (archived) seminars
      */
     @GetMapping
-    public ResponseEntity<List<Seminar>> getRequests(@RequestParam(required = false) String status) {
-        List<Seminar> all = seminarService.getAllSeminars();
-
+    public ResponseEntity<List<Seminar>> getRequests(@RequestParam(required = false) String status,
+                                                     @RequestParam(defaultValue = "false") boolean includeArchived) {
         if (status != null && !status.isBlank()) {
-            String normalized = status.trim().toUpperCase();
-            List<Seminar> filtered = all.stream()
-                    .filter(s -> s.getStatus() != null && s.getStatus().toUpperCase().equals(normalized))
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(filtered);
+            return ResponseEntity.ok(seminarService.getByStatus(status.trim(), includeArchived));
         }
 
         // Default: return all seminars (all statuses)
-        return ResponseEntity.ok(all);
+        return ResponseEntity.ok(seminarService.getAllSeminars(includeArchived));
     }
 
     /**
      * ✅ Get one seminar by ID (works same as /api/seminars/{id})
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Seminar> getRequestById(@PathVariable String id) {
-        return seminarService.getById(id)
+    public ResponseEntity<Seminar> getRequestById(@PathVariable String id,
+                                                  @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return seminarService.getById(id, includeArchived)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -1,11 +1,35 @@
 package com.dtao.seminarbooking.controller;
 
+import com.dtao.seminarbooking.model.HallPhoto;
 import com.dtao.seminarbooking.model.SeminarHall;
+import com.dtao.seminarbooking.service.HallMediaService;
+import com.dtao.seminarbooking.service.HallMediaService.MediaObject;
+import com.dtao.seminarbooking.service.HallRecommendationService;
+import com.dtao.seminarbooking.service.HallRecommendationService.HallRecommendation;
 import com.dtao.seminarbooking.service.SeminarHallService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Principal;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/halls")
@@ -14,6 +38,21 @@ public class SeminarHallController {
     @Autowired
     private SeminarHallService service;
 
+    @Autowired
+    private HallMediaService mediaService;
+
+    @Autowired
+    private HallRecommendationService recommendationService;
+
+    // Tomcat's sendfile hand-off (see org.apache.catalina.Globals)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // media URLs embed the content hash, so a response never goes stale
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
     // Add Hall (now accepts capacity too)
     @PostMapping
     public ResponseEntity<SeminarHall> addHall(@RequestBody SeminarHall hall) {
@@ -22,8 +61,21 @@ public class SeminarHallController {
 
     // Get All Halls
     @GetMapping
-    public ResponseEntity<List<SeminarHall>> getAll() {
-        return ResponseEntity.ok(service.getAllHalls());
+    public ResponseEntity<List<SeminarHall>> getAll(WebRequest webRequest) {
+        String etag = service.hallsEtag();
+        if (webRequest.checkNotModified(etag)) return null;
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(service.getAllHalls());
+    }
+
+    // Free halls that fit the head count, smallest sufficient first
+    // e.g. /api/halls/recommend?attendees=60&date=2025-11-03&startTime=10:00&endTime=12:00
+    @GetMapping("/recommend")
+    public ResponseEntity<List<HallRecommendation>> recommend(@RequestParam int attendees,
+                                                              @RequestParam String date,
+                                                              @RequestParam(required = false) String startTime,
+                                                              @RequestParam(required = false) String endTime,
+                                                              @RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(recommendationService.recommend(attendees, date, startTime, endTime, limit));
     }
 
     // Get Single Hall
@@ -44,4 +96,80 @@ public class SeminarHallController {
         service.deleteHall(id);
         return ResponseEntity.noContent().build();
     }
+
+    // -------------------- media --------------------
+
+    // Upload a photo as the raw request body (Content-Type: image/*); streamed, never buffered
+    @PutMapping(value = "/{id}/media", consumes = "image/*")
+    public ResponseEntity<HallPhoto> uploadRaw(@PathVariable String id, HttpServletRequest request, Principal principal) throws IOException {
+        try (InputStream in = request.getInputStream()) {
+            return uploaded(id, mediaService.upload(id, in, principal == null ? null : principal.getName()));
+        }
+    }
+
+    // Same, as multipart/form-data with a "file" part
+    @PutMapping(value = "/{id}/media", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<HallPhoto> uploadMultipart(@PathVariable String id, @RequestParam("file") MultipartFile file, Principal principal) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return uploaded(id, mediaService.upload(id, in, principal == null ? null : principal.getName()));
+        }
+    }
+
+    /**
+     * Serve a photo, or a variant of it with ?w=320&fmt=jpg|png|webp (made on first request
+     * and cached). Local files without a Range header go out through Tomcat sendfile;
+     * ranged requests are answered from a FileSystemResource, which Spring turns into 206.
+     */
+    @GetMapping("/{id}/media/{hash}")
+    public ResponseEntity<Resource> getMedia(@PathVariable String id, @PathVariable String hash,
+                                             @RequestParam(required = false) Integer w,
+                                             @RequestParam(required = false) String fmt,
+                                             HttpServletRequest request, HttpServletResponse response) {
+        MediaObject media = mediaService.locate(id, hash, w, fmt);
+
+        if (media.etag().equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(media.etag()).cacheControl(IMMUTABLE).build();
+        }
+        if (media.publicUrl().isPresent()) {
+            return ResponseEntity.status(HttpStatus.FOUND).location(URI.create(media.publicUrl().get())).cacheControl(IMMUTABLE).build();
+        }
+
+        Path file = media.localPath().filter(Files::isReadable)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Photo not found"));
+
+        if (request.getHeader(HttpHeaders.RANGE) == null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            try {
+                long length = Files.size(file);
+                response.setStatus(HttpStatus.OK.value());
+                response.setContentType(media.contentType());
+                response.setContentLengthLong(length);
+                response.setHeader(HttpHeaders.ETAG, media.etag());
+                response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE.getHeaderValue());
+                response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+                request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, length);
+                return null;
+            } catch (IOException ex) {
+                // fall through to the regular copy path
+            }
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(media.contentType()))
+                .eTag(media.etag())
+                .cacheControl(IMMUTABLE)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .body(new FileSystemResource(file));
+    }
+
+    @DeleteMapping("/{id}/media/{hash}")
+    public ResponseEntity<Void> deleteMedia(@PathVariable String id, @PathVariable String hash) {
+        mediaService.delete(id, hash);
+        return ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<HallPhoto> uploaded(String hallId, HallPhoto photo) {
+        return ResponseEntity.created(URI.create("/api/halls/" + hallId + "/media/" + photo.getHash())).body(photo);
+    }
 }
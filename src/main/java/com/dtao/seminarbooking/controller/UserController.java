@@ -3,9 +3,19 @@ package com.dtao.seminarbooking.controller;
 import com.dtao.seminarbooking.model.User;
 import com.dtao.seminarbooking.payload.LoginRequest;
 import com.dtao.seminarbooking.service.EmailService;
+import com.dtao.seminarbooking.service.UserImportService;
 import com.dtao.seminarbooking.service.UserService;
+import com.dtao.seminarbooking.service.UserValidationException;
+import com.dtao.seminarbooking.security.CustomUserDetails;
 import com.dtao.seminarbooking.security.JwtTokenProvider;
+import com.dtao.seminarbooking.security.PasswordHashingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -13,13 +23,19 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
+    private static final Logger log = LoggerFactory.getLogger(UserController.class);
+
     @Autowired
     private UserService userService;
 
@@ -32,6 +48,12 @@ public class UserController {
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
+    @Autowired
+    private PasswordHashingService passwordHashing;
+
+    @Autowired
+    private UserImportService userImportService;
+
     @PostMapping
     public ResponseEntity<?> createUser(@RequestBody User user) {
         try {
@@ -46,7 +68,7 @@ public class UserController {
             }
 
             return ResponseEntity.ok(toResponse(saved));
-        } catch (RuntimeException e) {
+        } catch (UserValidationException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -54,61 +76,62 @@ public class UserController {
         }
     }
 
+    /**
+     * Password check runs on the bounded hashing pool and the request thread is released
+     * meanwhile. The authenticated principal already carries the user record, so no
+     * second lookup is made. Admins load the user list from {@code /api/users/directory}.
+     */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
-        try {
-            if (loginRequest == null || loginRequest.getEmail() == null || loginRequest.getPassword() == null) {
-                return ResponseEntity.badRequest().body(Map.of("error", "Email and password required"));
-            }
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest loginRequest) {
+        if (loginRequest == null || loginRequest.getEmail() == null || loginRequest.getPassword() == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of("error", "Email and password required")));
+        }
 
-            Authentication authentication;
-            try {
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(loginRequest.getEmail().trim().toLowerCase(), loginRequest.getPassword());
-                authentication = authenticationManager.authenticate(authToken);
-            } catch (AuthenticationException ae) {
-                return ResponseEntity.status(401).body(Map.of("error", "Invalid credentials"));
-            }
+        UsernamePasswordAuthenticationToken authToken =
+                new UsernamePasswordAuthenticationToken(loginRequest.getEmail().trim().toLowerCase(), loginRequest.getPassword());
+        boolean rememberMe = loginRequest.isRememberMe();
 
-            boolean rememberMe = loginRequest.isRememberMe();
-            String jwt = jwtTokenProvider.generateToken(authentication, rememberMe);
-            long expiresIn = jwtTokenProvider.getExpiresInSeconds(rememberMe);
+        return passwordHashing.submit("login", () -> authenticationManager.authenticate(authToken))
+                .<ResponseEntity<?>>thenApply(authentication -> loginResponse(authentication, rememberMe))
+                .exceptionally(this::loginFailure);
+    }
 
-            Optional<User> maybeUser = userService.getUserByEmail(loginRequest.getEmail().trim().toLowerCase());
-            if (maybeUser.isEmpty()) {
-                return ResponseEntity.status(500).body(Map.of("error", "User record not found after authentication"));
-            }
-            User user = maybeUser.get();
+    /** Bulk provisioning from a JSON array of users (ADMIN). */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> bulkCreateUsers(@RequestBody List<User> users, Principal principal) {
+        return bulkImport(() -> users, principal);
+    }
 
-            Map<String, Object> resp = new HashMap<>();
-            resp.put("token", jwt);
-            resp.put("expiresIn", expiresIn);
-            resp.put("user", toResponse(user));
-            String normalizedRole = user.getRole() == null ? "DEPARTMENT" : user.getRole();
-            resp.put("role", normalizedRole);
-
-            if ("ADMIN".equalsIgnoreCase(normalizedRole)) {
-                List<Map<String, Object>> usersForDashboard = userService.getAllUsers()
-                        .stream()
-                        .map(u -> {
-                            Map<String, Object> m = new HashMap<>();
-                            m.put("id", u.getId());
-                            m.put("name", u.getName());
-                            m.put("email", u.getEmail());
-                            m.put("department", u.getDepartment());
-                            m.put("role", u.getRole());
-                            return m;
-                        })
-                        .collect(Collectors.toList());
-                resp.put("users", usersForDashboard);
-            }
+    /** Bulk provisioning from CSV with a header row: name,email,phone,department,role,password (ADMIN). */
+    @PostMapping(value = "/bulk", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<?> bulkCreateUsersCsv(@RequestBody String csv, Principal principal) {
+        return bulkImport(() -> userImportService.parseCsv(csv), principal);
+    }
 
-            return ResponseEntity.ok(resp);
-        } catch (Exception e) {
-            e.printStackTrace();
-            String errMsg = e.getMessage() != null ? e.getMessage() : "Server error during login";
-            return ResponseEntity.status(500).body(Map.of("error", errMsg));
-        }
+    /** Paginated user list for the admin dashboard (previously embedded in the login response). */
+    @GetMapping("/directory")
+    public ResponseEntity<?> getUserDirectory(@RequestParam(defaultValue = "0") int page,
+                                              @RequestParam(defaultValue = "50") int size) {
+        Page<User> result = userService.getUserDirectory(page, size);
+        List<Map<String, Object>> users = result.getContent().stream()
+                .map(u -> {
+                    Map<String, Object> m = new HashMap<>();
+                    m.put("id", u.getId());
+                    m.put("name", u.getName());
+                    m.put("email", u.getEmail());
+                    m.put("department", u.getDepartment());
+                    m.put("role", u.getRole());
+                    return m;
+                })
+                .collect(Collectors.toList());
+
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("users", users);
+        resp.put("page", result.getNumber());
+        resp.put("size", result.getSize());
+        resp.put("totalElements", result.getTotalElements());
+        resp.put("totalPages", result.getTotalPages());
+        return ResponseEntity.ok(resp);
     }
 
     @GetMapping("/{id}")
@@ -147,12 +170,65 @@ public class UserController {
             return userService.updateUser(id, user)
                     .map(u -> ResponseEntity.ok(toResponse(u)))
                     .orElse(ResponseEntity.notFound().build());
+        } catch (UserValidationException e) {
+            // duplicate email or phone
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("[UserController] update of user {} failed: {}", id, e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of("error", "Failed to update user"));
         }
     }
 
+    private ResponseEntity<?> bulkImport(Supplier<List<User>> rows, Principal principal) {
+        try {
+            String createdBy = principal == null ? "admin" : principal.getName();
+            UserImportService.ImportResult result = userImportService.importUsers(rows.get(), createdBy);
+
+            Map<String, Object> resp = new HashMap<>();
+            resp.put("created", result.created().stream().map(this::toResponse).collect(Collectors.toList()));
+            resp.put("errors", result.errors());
+            resp.put("createdCount", result.created().size());
+            resp.put("errorCount", result.errors().size());
+            return ResponseEntity.ok(resp);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception ex) {
+            log.error("[UserController] bulk import failed: {}", ex.getMessage(), ex);
+            return ResponseEntity.status(500).body(Map.of("error", "Server error"));
+        }
+    }
+
+    private ResponseEntity<?> loginResponse(Authentication authentication, boolean rememberMe) {
+        if (!(authentication.getPrincipal() instanceof CustomUserDetails principal) || principal.getUser() == null) {
+            return ResponseEntity.status(500).body(Map.of("error", "User record not found after authentication"));
+        }
+        User user = principal.getUser();
+
+        String jwt = jwtTokenProvider.generateToken(authentication, rememberMe);
+        long expiresIn = jwtTokenProvider.getExpiresInSeconds(rememberMe);
+
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("token", jwt);
+        resp.put("expiresIn", expiresIn);
+        resp.put("user", toResponse(user));
+        resp.put("role", user.getRole() == null ? "DEPARTMENT" : user.getRole());
+        return ResponseEntity.ok(resp);
+    }
+
+    private ResponseEntity<?> loginFailure(Throwable ex) {
+        Throwable cause = PasswordHashingService.rootCause(ex);
+        if (cause instanceof AuthenticationException) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid credentials"));
+        }
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "2")
+                    .body(Map.of("error", "Too many logins right now, please retry in a moment"));
+        }
+        log.error("[UserController] login failed: {}", cause.getMessage(), cause);
+        return ResponseEntity.status(500).body(Map.of("error", "Server error during login"));
+    }
+
     private Map<String, Object> toResponse(User u) {
         if (u == null) return null;
         Map<String, Object> r = new HashMap<>();
@@ -0,0 +1,107 @@
+package com.dtao.seminarbooking.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One booking state transition (created, updated, cancel requested, deleted), appended to
+ * the booking_audit time-series collection by {@code BookingAuditService}. Events are never
+ * updated; the booking's history is the sequence of its events ordered by {@link #at}.
+ */
+@Document(collection = "booking_audit")
+@TimeSeries(timeField = "at", metaField = "meta", granularity = Granularity.SECONDS)
+public class BookingAuditEvent {
+
+    @Id
+    private String id;
+
+    private Instant at;
+
+    // time-series meta field: Mongo buckets events by it, so per-booking and per-actor queries stay cheap
+    private Meta meta = new Meta();
+
+    private String action;      // CREATED, UPDATED, CANCEL_REQUESTED, DELETED
+    private String fromStatus;
+    private String toStatus;
+    private String hallName;
+    private List<FieldChange> changes = new ArrayList<>();
+
+    public static class Meta {
+        private String seminarId;
+        private String actor;       // user email, or "system" outside a request
+        private String actorRole;
+
+        public Meta() {}
+
+        public Meta(String seminarId, String actor, String actorRole) {
+            this.seminarId = seminarId;
+            this.actor = actor;
+            this.actorRole = actorRole;
+        }
+
+        public String getSeminarId() { return seminarId; }
+        public void setSeminarId(String seminarId) { this.seminarId = seminarId; }
+
+        public String getActor() { return actor; }
+        public void setActor(String actor) { this.actor = actor; }
+
+        public String getActorRole() { return actorRole; }
+        public void setActorRole(String actorRole) { this.actorRole = actorRole; }
+    }
+
+    public static class FieldChange {
+        private String field;
+        private String from;
+        private String to;
+
+        public FieldChange() {}
+
+        public FieldChange(String field, String from, String to) {
+            this.field = field;
+            this.from = from;
+            this.to = to;
+        }
+
+        public String getField() { return field; }
+        public void setField(String field) { this.field = field; }
+
+        public String getFrom() { return from; }
+        public void setFrom(String from) { this.from = from; }
+
+        public String getTo() { return to; }
+        public void setTo(String to) { this.to = to; }
+    }
+
+    public BookingAuditEvent() {}
+
+    // getters & setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public Instant getAt() { return at; }
+    public void setAt(Instant at) { this.at = at; }
+
+    public Meta getMeta() { return meta; }
+    public void setMeta(Meta meta) { this.meta = meta; }
+
+    public String getAction() { return action; }
+    public void setAction(String action) { this.action = action; }
+
+    public String getFromStatus() { return fromStatus; }
+    public void setFromStatus(String fromStatus) { this.fromStatus = fromStatus; }
+
+    public String getToStatus() { return toStatus; }
+    public void setToStatus(String toStatus) { this.toStatus = toStatus; }
+
+    public String getHallName() { return hallName; }
+    public void setHallName(String hallName) { this.hallName = hallName; }
+
+    public List<FieldChange> getChanges() { return changes; }
+    public void setChanges(List<FieldChange> changes) { this.changes = changes; }
+}
@@ -0,0 +1,121 @@
+package com.dtao.seminarbooking.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Durable queue entry for one notification (one or more personalised messages
+ * that go out in a single Brevo request).
+ *
+ * Lifecycle: PENDING -> SENDING (leased by a dispatcher) -> SENT, or back to PENDING
+ * with a later nextAttemptAt on failure, or DEAD once attempts are exhausted.
+ * SENT / DEAD entries get an expireAt so the TTL index removes them.
+ */
+@Document(collection = "email_outbox")
+@CompoundIndex(name = "status_next_attempt", def = "{'status': 1, 'nextAttemptAt': 1}")
+public class EmailOutbox {
+
+    public static final String PENDING = "PENDING";
+    public static final String SENDING = "SENDING";
+    public static final String SENT = "SENT";
+    public static final String DEAD = "DEAD";
+
+    @Id
+    private String id;
+
+    // same notification enqueued twice (request retry, double click) maps to the same key
+    @Indexed(unique = true)
+    private String dedupKey;
+
+    private List<OutboxMessage> messages = new ArrayList<>();
+
+    private String status = PENDING;
+    private int attempts;
+    private Instant nextAttemptAt;
+    private String lockedBy;
+    private Instant lockedUntil;
+    private String lastError;
+    private Instant createdAt;
+    private Instant sentAt;
+
+    @Indexed(name = "expire_at_ttl", expireAfter = "0s")
+    private Instant expireAt;
+
+    public EmailOutbox() {}
+
+    public EmailOutbox(String dedupKey, List<OutboxMessage> messages) {
+        Instant now = Instant.now();
+        this.dedupKey = dedupKey;
+        this.messages = messages;
+        this.status = PENDING;
+        this.createdAt = now;
+        this.nextAttemptAt = now;
+    }
+
+    // Single rendered message (recipients + subject + html)
+    public static class OutboxMessage {
+        private List<String> to = new ArrayList<>();
+        private String subject;
+        private String htmlContent;
+
+        public OutboxMessage() {}
+
+        public OutboxMessage(List<String> to, String subject, String htmlContent) {
+            this.to = to;
+            this.subject = subject;
+            this.htmlContent = htmlContent;
+        }
+
+        public List<String> getTo() { return to; }
+        public void setTo(List<String> to) { this.to = to; }
+
+        public String getSubject() { return subject; }
+        public void setSubject(String subject) { this.subject = subject; }
+
+        public String getHtmlContent() { return htmlContent; }
+        public void setHtmlContent(String htmlContent) { this.htmlContent = htmlContent; }
+    }
+
+    // getters & setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getDedupKey() { return dedupKey; }
+    public void setDedupKey(String dedupKey) { this.dedupKey = dedupKey; }
+
+    public List<OutboxMessage> getMessages() { return messages; }
+    public void setMessages(List<OutboxMessage> messages) { this.messages = messages; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public Instant getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(Instant nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public String getLockedBy() { return lockedBy; }
+    public void setLockedBy(String lockedBy) { this.lockedBy = lockedBy; }
+
+    public Instant getLockedUntil() { return lockedUntil; }
+    public void setLockedUntil(Instant lockedUntil) { this.lockedUntil = lockedUntil; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    public Instant getSentAt() { return sentAt; }
+    public void setSentAt(Instant sentAt) { this.sentAt = sentAt; }
+
+    public Instant getExpireAt() { return expireAt; }
+    public void setExpireAt(Instant expireAt) { this.expireAt = expireAt; }
+}
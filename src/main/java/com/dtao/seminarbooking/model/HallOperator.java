@@ -23,6 +23,9 @@ public class HallOperator {
 
     private String phone;
 
+    // true: booking events are collected and mailed as one summary per digest window
+    private Boolean digestEnabled;
+
     public HallOperator() {}
 
     public HallOperator(List<String> hallIds, List<String> hallNames, String headName, String headEmail, String phone) {
@@ -50,4 +53,9 @@ public class HallOperator {
 
     public String getPhone() { return phone; }
     public void setPhone(String phone) { this.phone = phone; }
+
+    public Boolean getDigestEnabled() { return digestEnabled; }
+    public void setDigestEnabled(Boolean digestEnabled) { this.digestEnabled = digestEnabled; }
+
+    public boolean wantsDigest() { return Boolean.TRUE.equals(digestEnabled); }
 }
@@ -0,0 +1,46 @@
+package com.dtao.seminarbooking.model;
+
+import java.time.Instant;
+
+/**
+ * A photo of a seminar hall, embedded in {@link SeminarHall}. Identified by the SHA-256
+ * of its bytes, so its URLs never change meaning and can be cached forever.
+ */
+public class HallPhoto {
+
+    private String hash;
+    private String contentType;
+    private String extension;
+    private long sizeBytes;
+    private Integer width;
+    private Integer height;
+    private Instant uploadedAt;
+    private String uploadedBy;
+
+    public HallPhoto() {}
+
+    // getters & setters
+    public String getHash() { return hash; }
+    public void setHash(String hash) { this.hash = hash; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public String getExtension() { return extension; }
+    public void setExtension(String extension) { this.extension = extension; }
+
+    public long getSizeBytes() { return sizeBytes; }
+    public void setSizeBytes(long sizeBytes) { this.sizeBytes = sizeBytes; }
+
+    public Integer getWidth() { return width; }
+    public void setWidth(Integer width) { this.width = width; }
+
+    public Integer getHeight() { return height; }
+    public void setHeight(Integer height) { this.height = height; }
+
+    public Instant getUploadedAt() { return uploadedAt; }
+    public void setUploadedAt(Instant uploadedAt) { this.uploadedAt = uploadedAt; }
+
+    public String getUploadedBy() { return uploadedBy; }
+    public void setUploadedBy(String uploadedBy) { this.uploadedBy = uploadedBy; }
+}
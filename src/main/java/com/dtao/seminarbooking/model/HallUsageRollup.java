@@ -0,0 +1,72 @@
+package com.dtao.seminarbooking.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Booked time of one hall by one department in one ISO week, maintained incrementally
+ * by {@code HallUsageService}. Reports read these instead of the seminars collection, so
+ * their cost depends on the weeks asked for, not on how much history exists.
+ *
+ * Id: {@code <hallId>|<department>|<week>}, e.g. {@code 65f...|CSE|2025-W42}.
+ */
+@Document(collection = "hall_usage_rollups")
+@CompoundIndex(name = "week_hall", def = "{'weekStart': 1, 'hallId': 1}")
+public class HallUsageRollup {
+
+    @Id
+    private String id;
+
+    private String hallId;
+    private String hallName;
+    private String department;
+
+    private String week;        // ISO week, e.g. 2025-W42
+    private String weekStart;   // Monday of that week, yyyy-MM-dd (range queries)
+
+    private long bookedMinutes;
+    private long bookings;
+
+    // yyyy-MM-dd -> booked minutes, so months and arbitrary ranges split weeks exactly
+    private Map<String, Long> dayMinutes = new HashMap<>();
+
+    private Instant updatedAt;
+
+    public HallUsageRollup() {}
+
+    // getters & setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getHallId() { return hallId; }
+    public void setHallId(String hallId) { this.hallId = hallId; }
+
+    public String getHallName() { return hallName; }
+    public void setHallName(String hallName) { this.hallName = hallName; }
+
+    public String getDepartment() { return department; }
+    public void setDepartment(String department) { this.department = department; }
+
+    public String getWeek() { return week; }
+    public void setWeek(String week) { this.week = week; }
+
+    public String getWeekStart() { return weekStart; }
+    public void setWeekStart(String weekStart) { this.weekStart = weekStart; }
+
+    public long getBookedMinutes() { return bookedMinutes; }
+    public void setBookedMinutes(long bookedMinutes) { this.bookedMinutes = bookedMinutes; }
+
+    public long getBookings() { return bookings; }
+    public void setBookings(long bookings) { this.bookings = bookings; }
+
+    public Map<String, Long> getDayMinutes() { return dayMinutes; }
+    public void setDayMinutes(Map<String, Long> dayMinutes) { this.dayMinutes = dayMinutes; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
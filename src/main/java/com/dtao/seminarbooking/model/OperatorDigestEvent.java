@@ -0,0 +1,94 @@
+package com.dtao.seminarbooking.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * One booking event buffered for a hall operator who receives digests.
+ * Booking details are copied in, so the summary still reads correctly if the
+ * seminar is edited or deleted before the window closes.
+ */
+@Document(collection = "operator_digest_events")
+@CompoundIndex(name = "window_operator", def = "{'windowStart': 1, 'operatorId': 1}")
+public class OperatorDigestEvent {
+
+    @Id
+    private String id;
+
+    private String operatorId;
+    private String operatorEmail;
+    private String operatorName;
+
+    // start of the digest window the event belongs to
+    private Instant windowStart;
+
+    private String event;
+    private String seminarId;
+    private String hallName;
+    private String date;
+    private String startTime;
+    private String endTime;
+    private String slotTitle;
+    private String bookingName;
+    private String bookingEmail;
+    private String reason;
+
+    // safety net: events that were never flushed are dropped after a week
+    @Indexed(name = "created_at_ttl", expireAfter = "7d")
+    private Instant createdAt;
+
+    public OperatorDigestEvent() {}
+
+    // getters & setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getOperatorId() { return operatorId; }
+    public void setOperatorId(String operatorId) { this.operatorId = operatorId; }
+
+    public String getOperatorEmail() { return operatorEmail; }
+    public void setOperatorEmail(String operatorEmail) { this.operatorEmail = operatorEmail; }
+
+    public String getOperatorName() { return operatorName; }
+    public void setOperatorName(String operatorName) { this.operatorName = operatorName; }
+
+    public Instant getWindowStart() { return windowStart; }
+    public void setWindowStart(Instant windowStart) { this.windowStart = windowStart; }
+
+    public String getEvent() { return event; }
+    public void setEvent(String event) { this.event = event; }
+
+    public String getSeminarId() { return seminarId; }
+    public void setSeminarId(String seminarId) { this.seminarId = seminarId; }
+
+    public String getHallName() { return hallName; }
+    public void setHallName(String hallName) { this.hallName = hallName; }
+
+    public String getDate() { return date; }
+    public void setDate(String date) { this.date = date; }
+
+    public String getStartTime() { return startTime; }
+    public void setStartTime(String startTime) { this.startTime = startTime; }
+
+    public String getEndTime() { return endTime; }
+    public void setEndTime(String endTime) { this.endTime = endTime; }
+
+    public String getSlotTitle() { return slotTitle; }
+    public void setSlotTitle(String slotTitle) { this.slotTitle = slotTitle; }
+
+    public String getBookingName() { return bookingName; }
+    public void setBookingName(String bookingName) { this.bookingName = bookingName; }
+
+    public String getBookingEmail() { return bookingEmail; }
+    public void setBookingEmail(String bookingEmail) { this.bookingEmail = bookingEmail; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -1,20 +1,41 @@
 package com.dtao.seminarbooking.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 
+/**
+ * A password-reset code. Only an HMAC-SHA256 of the code is stored; at most one
+ * unused token exists per user, and Mongo deletes tokens once they expire.
+ */
 @Document(collection = "otp_tokens")
+@CompoundIndex(name = "one_active_per_user", def = "{'userId': 1}", unique = true,
+        partialFilter = "{ 'used': false }")
 public class OtpToken {
     @Id
     private String id;
 
     private String userId;
     private String otpHash;
+
+    @Indexed(name = "expires_at_ttl", expireAfter = "0s")
     private Instant expiresAt;
+
     private boolean used = false;
 
+    // wrong guesses against this token
+    private int attempts = 0;
+
+    // handle returned by forgot-password so the client can poll delivery
+    @Indexed(name = "request_id")
+    private String requestId;
+
+    // QUEUED -> SENT | FAILED
+    private String deliveryStatus;
+
     public OtpToken() {}
 
     public OtpToken(String userId, String otpHash, Instant expiresAt) {
@@ -35,4 +56,10 @@ public class OtpToken {
     public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
     public boolean isUsed() { return used; }
     public void setUsed(boolean used) { this.used = used; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public String getRequestId() { return requestId; }
+    public void setRequestId(String requestId) { this.requestId = requestId; }
+    public String getDeliveryStatus() { return deliveryStatus; }
+    public void setDeliveryStatus(String deliveryStatus) { this.deliveryStatus = deliveryStatus; }
 }
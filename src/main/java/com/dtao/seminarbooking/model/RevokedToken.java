@@ -0,0 +1,80 @@
+package com.dtao.seminarbooking.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * A JWT revocation. Two kinds share the collection:
+ * <ul>
+ *   <li>TOKEN - one token, keyed by its jti (logout)</li>
+ *   <li>SUBJECT - every token of a user issued before {@code revokedAt}
+ *       (password reset, account deletion)</li>
+ * </ul>
+ * Entries are removed by Mongo once the tokens they cover would have expired anyway.
+ */
+@Document(collection = "revoked_tokens")
+public class RevokedToken {
+
+    public static final String TOKEN = "TOKEN";
+    public static final String SUBJECT = "SUBJECT";
+
+    // "jti:<jti>" or "sub:<email>"; re-revoking a subject overwrites its cutoff
+    @Id
+    private String id;
+
+    private String kind;
+    private String jti;
+    private String subject;
+
+    // instances poll for entries newer than the last one they have seen
+    @Indexed(name = "revoked_at")
+    private Instant revokedAt;
+
+    @Indexed(name = "expires_at_ttl", expireAfter = "0s")
+    private Instant expiresAt;
+
+    public RevokedToken() {}
+
+    public static RevokedToken forToken(String jti, String subject, Instant expiresAt) {
+        RevokedToken r = new RevokedToken();
+        r.id = "jti:" + jti;
+        r.kind = TOKEN;
+        r.jti = jti;
+        r.subject = subject;
+        r.revokedAt = Instant.now();
+        r.expiresAt = expiresAt;
+        return r;
+    }
+
+    public static RevokedToken forSubject(String subject, Instant expiresAt) {
+        RevokedToken r = new RevokedToken();
+        r.id = "sub:" + subject;
+        r.kind = SUBJECT;
+        r.subject = subject;
+        r.revokedAt = Instant.now();
+        r.expiresAt = expiresAt;
+        return r;
+    }
+
+    // getters & setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+
+    public String getJti() { return jti; }
+    public void setJti(String jti) { this.jti = jti; }
+
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+
+    public Instant getRevokedAt() { return revokedAt; }
+    public void setRevokedAt(Instant revokedAt) { this.revokedAt = revokedAt; }
+
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -1,6 +1,8 @@
 package com.dtao.seminarbooking.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Map;
@@ -10,13 +12,21 @@ import java.util.Map;
  *
  * New: supports per-day time map `daySlots` where key = "YYYY-MM-DD" and value = DaySlot (startTime/endTime).
  * A null value in the map indicates the day is a full-day booking.
+ *
+ * The hall is referenced by {@code hallId}; {@code hallName} is a denormalized copy for
+ * display and mails, kept in step when a hall is renamed.
  */
 @Document(collection = "seminars")
+@CompoundIndexes({
+        @CompoundIndex(name = "hall_date", def = "{'hallId': 1, 'date': 1}"),
+        @CompoundIndex(name = "hall_range", def = "{'hallId': 1, 'startDate': 1, 'endDate': 1}")
+})
 public class Seminar {
     @Id
     private String id;
 
-    private String hallName;
+    private String hallId;
+    private String hallName;    // display copy of the hall's name
     private String slot;        // Morning, Afternoon, Full Day or "Custom"
     private String slotTitle;   // Event Name
     private String bookingName; // Faculty Name
@@ -34,6 +44,7 @@ public class Seminar {
     private String status = "APPROVED"; // Admin adds directly by default
     private String remarks;     // free-text remarks from requests/approval
     private String appliedAt;
+    private String updatedAt;   // ISO instant of the last write; identifies the revision a notification is about
     private String cancellationReason;
     private String createdBy;
 
@@ -62,6 +73,7 @@ public class Seminar {
 
     // Getters
     public String getId() { return id; }
+    public String getHallId() { return hallId; }
     public String getHallName() { return hallName; }
     public String getSlot() { return slot; }
     public String getSlotTitle() { return slotTitle; }
@@ -77,12 +89,14 @@ public class Seminar {
     public String getStatus() { return status; }
     public String getRemarks() { return remarks; }
     public String getAppliedAt() { return appliedAt; }
+    public String getUpdatedAt() { return updatedAt; }
     public String getCancellationReason() { return cancellationReason; }
     public String getCreatedBy() { return createdBy; }
     public Map<String, DaySlot> getDaySlots() { return daySlots; }
 
     // Setters
     public void setId(String id) { this.id = id; }
+    public void setHallId(String hallId) { this.hallId = hallId; }
     public void setHallName(String hallName) { this.hallName = hallName; }
     public void setSlot(String slot) { this.slot = slot; }
     public void setSlotTitle(String slotTitle) { this.slotTitle = slotTitle; }
@@ -98,6 +112,7 @@ public class Seminar {
     public void setStatus(String status) { this.status = status; }
     public void setRemarks(String remarks) { this.remarks = remarks; }
     public void setAppliedAt(String appliedAt) { this.appliedAt = appliedAt; }
+    public void setUpdatedAt(String updatedAt) { this.updatedAt = updatedAt; }
     public void setCancellationReason(String cancellationReason) { this.cancellationReason = cancellationReason; }
     public void setCreatedBy(String createdBy) { this.createdBy = createdBy; }
     public void setDaySlots(Map<String, DaySlot> daySlots) { this.daySlots = daySlots; }
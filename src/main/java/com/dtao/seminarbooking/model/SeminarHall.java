@@ -3,6 +3,9 @@ package com.dtao.seminarbooking.model;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Document(collection = "seminar_halls")
 public class SeminarHall {
 
@@ -14,6 +17,9 @@ public class SeminarHall {
     // NEW: capacity
     private Integer capacity;
 
+    // photos, managed through HallMediaService
+    private List<HallPhoto> photos = new ArrayList<>();
+
     public SeminarHall() {}
 
     public SeminarHall(String name, Integer capacity) {
@@ -30,4 +36,7 @@ public class SeminarHall {
 
     public Integer getCapacity() { return capacity; }
     public void setCapacity(Integer capacity) { this.capacity = capacity; }
+
+    public List<HallPhoto> getPhotos() { return photos; }
+    public void setPhotos(List<HallPhoto> photos) { this.photos = photos; }
 }
@@ -1,11 +1,19 @@
 package com.dtao.seminarbooking.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 
 @Document(collection = "users")
+@CompoundIndexes({
+        // stored normalized (see UserService.normalizeEmail / normalizePhone); users without a phone are exempt
+        @CompoundIndex(name = "email_unique", def = "{'email': 1}", unique = true),
+        @CompoundIndex(name = "phone_unique", def = "{'phone': 1}", unique = true,
+                partialFilter = "{ 'phone': { '$type': 'string' } }")
+})
 public class User {
     @Id
     private String id;
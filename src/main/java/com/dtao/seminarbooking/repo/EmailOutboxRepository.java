@@ -0,0 +1,9 @@
+package com.dtao.seminarbooking.repo;
+
+import com.dtao.seminarbooking.model.EmailOutbox;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EmailOutboxRepository extends MongoRepository<EmailOutbox, String> {
+}
@@ -0,0 +1,15 @@
+package com.dtao.seminarbooking.repo;
+
+import com.dtao.seminarbooking.model.OperatorDigestEvent;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface OperatorDigestEventRepository extends MongoRepository<OperatorDigestEvent, String> {
+
+    // events of windows that have already closed, oldest first, one operator's events together
+    List<OperatorDigestEvent> findTop2000ByWindowStartLessThanOrderByWindowStartAscOperatorIdAscIdAsc(Instant windowStart);
+}
@@ -3,9 +3,11 @@ package com.dtao.seminarbooking.repo;
 import com.dtao.seminarbooking.model.OtpToken;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
-import java.util.List;
+import java.util.Optional;
 
 public interface OtpTokenRepository extends MongoRepository<OtpToken, String> {
-    // return list (there may be multiple un-used tokens); service will pick latest
-    List<OtpToken> findByUserIdAndUsedIsFalse(String userId);
+    // a unique partial index keeps this to at most one unused token per user
+    Optional<OtpToken> findFirstByUserIdAndUsedIsFalseOrderByExpiresAtDesc(String userId);
+
+    Optional<OtpToken> findByRequestId(String requestId);
 }
@@ -0,0 +1,18 @@
+package com.dtao.seminarbooking.repo;
+
+import com.dtao.seminarbooking.model.RevokedToken;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends MongoRepository<RevokedToken, String> {
+
+    // incremental refresh: everything revoked since the given instant, oldest first
+    List<RevokedToken> findByRevokedAtGreaterThanEqualOrderByRevokedAtAsc(Instant since);
+
+    // full rebuild: every revocation that still covers live tokens
+    List<RevokedToken> findByExpiresAtGreaterThan(Instant now);
+}
@@ -2,6 +2,7 @@
 package com.dtao.seminarbooking.repo;
 
 import com.dtao.seminarbooking.model.Seminar;
+import org.springframework.data.domain.Range;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -56,4 +57,31 @@ public interface SeminarRepository extends MongoRepository<Seminar, String> {
     );
     List<Seminar> findByStatusIgnoreCase(String status);
 
+    // --- hallId-keyed lookups (indexes hall_date / hall_range) ---
+    List<Seminar> findByHallIdAndDate(String hallId, String date);
+
+    // plain-value "Between" is exclusive ($gt/$lt); pass Range.closed(...) to include both ends
+    List<Seminar> findByHallIdAndDateBetween(String hallId, Range<String> dates);
+
+    List<Seminar> findByHallIdAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
+            String hallId,
+            String startDate,
+            String endDate
+    );
+
+    List<Seminar> findByHallIdAndDaySlotsIsNotNull(String hallId);
+
+    // --- bookings not linked to a hall id yet, matched by (case-insensitive) hall name ---
+    List<Seminar> findByHallIdIsNullAndHallNameIgnoreCaseAndDate(String hallName, String date);
+
+    List<Seminar> findByHallIdIsNullAndHallNameIgnoreCaseAndDateBetween(String hallName, Range<String> dates);
+
+    List<Seminar> findByHallIdIsNullAndHallNameIgnoreCaseAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
+            String hallName,
+            String startDate,
+            String endDate
+    );
+
+    List<Seminar> findByHallIdIsNullAndHallNameIgnoreCaseAndDaySlotsIsNotNull(String hallName);
+
 }
@@ -1,9 +1,14 @@
 package com.dtao.seminarbooking.repo;
 
 import com.dtao.seminarbooking.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,5 +16,17 @@ public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByEmail(String email);
     Optional<User> findByEmailAndPassword(String email, String password);
     Optional<User> findByPhone(String phone);
+
+    // sign-up clash check in one round trip; only the compared fields are loaded
+    @Query(value = "{ '$or': [ { 'email': ?0 }, { 'phone': ?1 } ] }", fields = "{ 'email': 1, 'phone': 1 }")
+    List<User> findEmailOrPhoneClashes(String email, String phone);
+
+    // bulk import: every existing user holding one of the given emails or phones
+    @Query(value = "{ '$or': [ { 'email': { '$in': ?0 } }, { 'phone': { '$in': ?1 } } ] }", fields = "{ 'email': 1, 'phone': 1 }")
+    List<User> findEmailOrPhoneClashesIn(Collection<String> emails, Collection<String> phones);
+
+    // admin directory: only the columns the dashboard shows, never the password hash
+    @Query(value = "{}", fields = "{ 'name': 1, 'email': 1, 'department': 1, 'role': 1, 'active': 1 }")
+    Page<User> findDirectoryPage(Pageable pageable);
 }
 
@@ -0,0 +1,62 @@
+package com.dtao.seminarbooking.security;
+
+import com.dtao.seminarbooking.model.User;
+import com.dtao.seminarbooking.repo.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Short-lived cache of the account facts the JWT filter needs on every request
+ * (exists, active, role), so authenticated requests do not query the users collection.
+ * UserService / OtpService invalidate entries when an account changes; the TTL bounds
+ * staleness for changes made elsewhere (another instance, direct DB edits).
+ */
+@Component
+public class AuthUserCache {
+
+    /** Minimal, immutable view of a user for authorization checks. */
+    public record AuthUser(String id, String email, String role, boolean active) {
+
+        static AuthUser of(User u) {
+            String role = u.getRole() == null || u.getRole().isBlank() ? "DEPARTMENT" : u.getRole().trim().toUpperCase(Locale.ROOT);
+            return new AuthUser(u.getId(), u.getEmail(), role, u.isActive());
+        }
+    }
+
+    // cached "no such user" so a deleted account's token does not cause a query per request
+    private static final AuthUser MISSING = new AuthUser(null, null, null, false);
+
+    private final UserRepository userRepository;
+    private final Cache<String, AuthUser> users;
+
+    public AuthUserCache(UserRepository userRepository,
+                         @Value("${app.auth.user-cache-ttl-seconds:30}") long ttlSeconds,
+                         @Value("${app.auth.user-cache-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.users = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public Optional<AuthUser> lookup(String email) {
+        if (email == null) return Optional.empty();
+        AuthUser user = users.get(normalize(email), key ->
+                userRepository.findByEmail(key).map(AuthUser::of).orElse(MISSING));
+        return user == MISSING ? Optional.empty() : Optional.of(user);
+    }
+
+    public void invalidate(String email) {
+        if (email != null) users.invalidate(normalize(email));
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
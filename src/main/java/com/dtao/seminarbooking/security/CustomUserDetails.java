@@ -50,4 +50,16 @@ public class CustomUserDetails implements UserDetails {
     public User getUser() {
         return user;
     }
+
+    /**
+     * Principal for a request authenticated by JWT: built from the verified claims and
+     * the cached account facts, without loading the full user (no password hash).
+     */
+    public static CustomUserDetails fromToken(String userId, String email, String role) {
+        User user = new User();
+        user.setId(userId);
+        user.setEmail(email);
+        user.setRole(role);
+        return new CustomUserDetails(user, email);
+    }
 }
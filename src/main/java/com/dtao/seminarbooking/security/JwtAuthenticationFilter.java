@@ -1,5 +1,9 @@
 package com.dtao.seminarbooking.security;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,10 +19,13 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Validates incoming requests for Authorization: Bearer <token> header,
- * loads user details and sets SecurityContext if token is valid.
+ * Validates incoming requests for Authorization: Bearer <token> header and sets the
+ * SecurityContext from the token's claims. The account itself is only checked against
+ * {@link AuthUserCache}, so a typical request does no auth-related database I/O.
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -29,7 +36,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtTokenProvider tokenProvider;
 
     @Autowired
-    private CustomUserDetailsService customUserDetailsService;
+    private AuthUserCache authUserCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer validTokenTimer;
+    private Timer invalidTokenTimer;
+
+    @PostConstruct
+    void initMetrics() {
+        validTokenTimer = jwtTimer("valid");
+        invalidTokenTimer = jwtTimer("invalid");
+    }
+
+    private Timer jwtTimer(String result) {
+        return Timer.builder("security.jwt.validation")
+                .description("Signature/expiry check and subject extraction of the bearer token")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -51,10 +78,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
 
             if (token != null && !token.isBlank()) {
-                if (tokenProvider.validateToken(token)) {
-                    String username = tokenProvider.getUsernameFromToken(token);
+                // one verification per request (and none for a recently seen token)
+                long started = System.nanoTime();
+                Optional<Claims> claims = tokenProvider.parseVerified(token);
+                String username = claims.map(Claims::getSubject).orElse(null);
+                (claims.isPresent() ? validTokenTimer : invalidTokenTimer).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
+                if (claims.isPresent()) {
                     if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                        UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
+                        UserDetails userDetails = principalFor(username, claims.get());
+                        if (userDetails == null) {
+                            filterChain.doFilter(request, response);
+                            return;
+                        }
                         UsernamePasswordAuthenticationToken authToken =
                                 new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                         authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -76,4 +112,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Principal from the verified claims. The account is only checked against the
+     * short-TTL cache: deleted or deactivated accounts, and tokens whose role no longer
+     * matches the account, are not authenticated.
+     */
+    private UserDetails principalFor(String username, Claims claims) {
+        Optional<AuthUserCache.AuthUser> account = authUserCache.lookup(username);
+        if (account.isEmpty() || !account.get().active()) {
+            LOGGER.debug("JWT for missing/inactive account '{}' ignored", username);
+            return null;
+        }
+        Object claimRole = claims.get("role");
+        String role = claimRole == null ? account.get().role() : claimRole.toString().trim().toUpperCase();
+        if (!role.equals(account.get().role())) {
+            LOGGER.debug("JWT role {} no longer matches account role for '{}'", role, username);
+            return null;
+        }
+        return CustomUserDetails.fromToken(account.get().id(), username, role);
+    }
 }
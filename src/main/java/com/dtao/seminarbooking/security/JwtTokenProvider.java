@@ -1,7 +1,15 @@
 package com.dtao.seminarbooking.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
@@ -11,7 +19,9 @@ import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.util.Date;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * ✅ Secure JWT Provider
@@ -19,10 +29,14 @@ import java.util.UUID;
  * - Includes role, issuer, audience, and unique ID (jti)
  * - Handles remember-me token lifetime
  * - Backward compatible with old 2-arg generateToken()
+ * - Key and parser built once; verified claims cached per token until expiry
+ * - Revoked tokens (logout, password reset, deletion) rejected via TokenRevocationService
  */
 @Component
 public class JwtTokenProvider {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtTokenProvider.class);
+
     @Value("${jwt.secret:change_this_secret_at_least_32_chars}")
     private String jwtSecret;
 
@@ -36,8 +50,51 @@ public class JwtTokenProvider {
     @Value("${jwt.audience:dtao-seminar-frontend}")
     private String audience;
 
+    @Value("${jwt.claims-cache-size:10000}")
+    private long claimsCacheSize;
+
+    @Autowired
+    private TokenRevocationService revocationService;
+
+    // built once; both are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // token SHA-256 -> verified claims, each entry dropped when its token expires
+    private Cache<String, Claims> verifiedClaims;
+
+    @PostConstruct
+    void init() {
+        signingKey = buildSigningKey();
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .requireAudience(audience)
+                .requireIssuer(issuer)
+                .build();
+        verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        long ms = claims.getExpiration() == null ? 0 : claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(ms, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     /** 🔒 Create secure HMAC key (32-byte minimum) */
-    private SecretKey getSigningKey() {
+    private SecretKey buildSigningKey() {
         try {
             byte[] keyBytes = jwtSecret == null ? new byte[0] : jwtSecret.getBytes(StandardCharsets.UTF_8);
             if (keyBytes.length < 32) {
@@ -55,11 +112,7 @@ public class JwtTokenProvider {
         String username = authentication.getName();
         if (username != null) username = username.trim().toLowerCase();
 
-        long expMs = jwtExpirationMs;
-        if (rememberMe) {
-            long weekMs = 7L * 24L * 60L * 60L * 1000L; // 1 week
-            expMs = Math.min(jwtExpirationMs * 7L, weekMs * 4L); // max 4 weeks
-        }
+        long expMs = lifetimeMs(jwtExpirationMs, rememberMe);
 
         Date now = new Date();
         Date expiry = new Date(now.getTime() + expMs);
@@ -75,7 +128,7 @@ public class JwtTokenProvider {
                         "role", role,
                         "rememberMe", rememberMe
                 ))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
 
         System.out.printf("[JwtTokenProvider] Token created for user=%s, role=%s, expiresIn=%dmin%n",
@@ -95,56 +148,78 @@ public class JwtTokenProvider {
         return generateToken(authentication, rememberMe, role);
     }
 
-    /** ✅ Extract username safely */
-    public String getUsernameFromToken(String token) {
+    /**
+     * ✅ Verify a token once and return its claims (empty if invalid, expired or revoked).
+     * Verified claims are cached by token digest until the token expires, so repeat
+     * requests with the same token skip signature checking and JSON parsing.
+     * The returned claims are shared: treat them as read-only.
+     */
+    public Optional<Claims> parseVerified(String token) {
+        if (token == null || token.isBlank()) return Optional.empty();
+
+        String key = DigestUtils.sha256Hex(token);
+        Claims cached = verifiedClaims.getIfPresent(key);
+        if (cached != null) {
+            // the cache timer is coarse; never hand out claims past their exp
+            if (cached.getExpiration() == null || cached.getExpiration().after(new Date())) return notRevoked(cached);
+            verifiedClaims.invalidate(key);
+            return Optional.empty();
+        }
+
         try {
-            return getClaims(token).getSubject();
-        } catch (Exception e) {
-            return null;
+            Claims claims = getClaims(token);
+            verifiedClaims.put(key, claims);
+            return notRevoked(claims);
+        } catch (ExpiredJwtException ex) {
+            System.err.println("⚠️ JWT expired: " + ex.getMessage());
+        } catch (JwtException | IllegalArgumentException ex) {
+            System.err.println("❌ Invalid JWT: " + ex.getMessage());
         }
+        return Optional.empty();
+    }
+
+    // in-memory check; revocations are not cached with the claims
+    private Optional<Claims> notRevoked(Claims claims) {
+        if (revocationService.isRevoked(claims)) {
+            log.debug("[JwtTokenProvider] revoked token rejected: jti={}", claims.getId());
+            return Optional.empty();
+        }
+        return Optional.of(claims);
+    }
+
+    /** ✅ Extract username safely */
+    public String getUsernameFromToken(String token) {
+        return parseVerified(token).map(Claims::getSubject).orElse(null);
     }
 
     /** ✅ Extract role safely */
     public String getRoleFromToken(String token) {
-        try {
-            Object role = getClaims(token).get("role");
-            return role == null ? null : role.toString().toUpperCase();
-        } catch (Exception e) {
-            return null;
-        }
+        return parseVerified(token)
+                .map(c -> c.get("role"))
+                .map(role -> role.toString().toUpperCase())
+                .orElse(null);
     }
 
-    /** ✅ Common claims parser */
+    /** ✅ Common claims parser (signature, issuer, audience and expiry checked) */
     private Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .requireAudience(audience)
-                .requireIssuer(issuer)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     /** ✅ Validate token integrity and expiration */
     public boolean validateToken(String token) {
-        if (token == null || token.isBlank()) return false;
-        try {
-            getClaims(token); // parse + validate
-            return true;
-        } catch (ExpiredJwtException ex) {
-            System.err.println("⚠️ JWT expired: " + ex.getMessage());
-        } catch (JwtException | IllegalArgumentException ex) {
-            System.err.println("❌ Invalid JWT: " + ex.getMessage());
-        }
-        return false;
+        return parseVerified(token).isPresent();
     }
 
     /** ✅ Get expiration in seconds */
     public long getExpiresInSeconds(boolean rememberMe) {
-        long ms = jwtExpirationMs;
-        if (rememberMe)
-            ms = Math.min(jwtExpirationMs * 7L, 4L * 7L * 24L * 60L * 60L * 1000L);
-        return ms / 1000L;
+        return lifetimeMs(jwtExpirationMs, rememberMe) / 1000L;
+    }
+
+    /** Token lifetime: the configured expiry, or 7x that (max 4 weeks) with remember-me. */
+    static long lifetimeMs(long jwtExpirationMs, boolean rememberMe) {
+        if (!rememberMe) return jwtExpirationMs;
+        long weekMs = 7L * 24L * 60L * 60L * 1000L; // 1 week
+        return Math.max(jwtExpirationMs, Math.min(jwtExpirationMs * 7L, weekMs * 4L)); // max 4 weeks
     }
 
     /** ✅ Validate that token role matches required */
@@ -0,0 +1,112 @@
+package com.dtao.seminarbooking.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt work on the bounded {@code passwordHashExecutor}.
+ *
+ * Login is fully asynchronous ({@link #submit}); the request thread is released while
+ * the hash is checked. Encoding during sign-up / password changes blocks the caller but
+ * still shares the same bounded pool, so hashing never uses more than its cores.
+ * Bulk imports hash on their own {@code bulkHashExecutor} and never compete with logins.
+ * Queue wait and hashing time are published as {@code security.password.hash.*}.
+ */
+@Component
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolTaskExecutor executor;
+    private final ThreadPoolTaskExecutor bulkExecutor;
+    private final MeterRegistry meterRegistry;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Qualifier("passwordHashExecutor") ThreadPoolTaskExecutor executor,
+                                  @Qualifier("bulkHashExecutor") ThreadPoolTaskExecutor bulkExecutor,
+                                  MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        this.executor = executor;
+        this.bulkExecutor = bulkExecutor;
+        this.meterRegistry = meterRegistry;
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), "passwordHash", List.of()).bindTo(meterRegistry);
+        new ExecutorServiceMetrics(bulkExecutor.getThreadPoolExecutor(), "passwordHashBulk", List.of()).bindTo(meterRegistry);
+    }
+
+    /**
+     * Run password work on the hashing pool.
+     * The future fails with {@link RejectedExecutionException} when the queue is full.
+     */
+    public <T> CompletableFuture<T> submit(String operation, Supplier<T> work) {
+        return submit(executor, operation, work);
+    }
+
+    private <T> CompletableFuture<T> submit(ThreadPoolTaskExecutor pool, String operation, Supplier<T> work) {
+        Timer queueWait = timer("security.password.hash.queue.wait", operation);
+        Timer run = timer("security.password.hash", operation);
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return run.record(work);
+            }, pool);
+        } catch (RejectedExecutionException ex) {
+            meterRegistry.counter("security.password.hash.rejected", "operation", operation).increment();
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /** Encode on the hashing pool and wait for the result. */
+    public String encode(String rawPassword) {
+        return await(encodeAsync(rawPassword));
+    }
+
+    /** Encode on the login pool without waiting. */
+    public CompletableFuture<String> encodeAsync(String rawPassword) {
+        return submit("encode", () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /** Encode on the bulk-import pool; lets an import hash many passwords in parallel. */
+    public CompletableFuture<String> encodeBulkAsync(String rawPassword) {
+        return submit(bulkExecutor, "encode-bulk", () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /** Verify on the hashing pool and wait for the result. */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return await(submit("verify", () -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    /** Unwraps the failure of a hashing future (CompletionException -> cause). */
+    public static Throwable rootCause(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            Throwable cause = rootCause(ex);
+            if (cause instanceof RejectedExecutionException) throw new RuntimeException("Server busy, please retry shortly");
+            if (cause instanceof RuntimeException re) throw re;
+            throw ex;
+        }
+    }
+
+    private Timer timer(String name, String operation) {
+        return Timer.builder(name)
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
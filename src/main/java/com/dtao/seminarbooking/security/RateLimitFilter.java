@@ -0,0 +1,240 @@
+package com.dtao.seminarbooking.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Per-endpoint token buckets keyed by client IP and by account email, applied before
+ * the JWT filter. Buckets live in memory (one set per instance) and are evicted after
+ * sitting idle, so the key space stays bounded. Rejected requests get 429 + Retry-After.
+ *
+ * The account key is the "email" field of the JSON body on the auth endpoints and the
+ * bearer token's subject on bookings.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    // bodies of the rate-limited auth calls are tiny; never buffer more than this
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+
+    /** capacity requests per period for one key; capacity <= 0 disables the dimension. */
+    record Limit(int capacity, Duration period) {
+        boolean enabled() { return capacity > 0; }
+    }
+
+    enum AccountKey { BODY_EMAIL, TOKEN_SUBJECT }
+
+    record Rule(String name, String method, String path, Limit perIp, Limit perAccount, AccountKey accountKey) {}
+
+    private final List<Rule> rules;
+    private final boolean enabled;
+    private final JwtTokenProvider tokenProvider;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Cache<String, TokenBucket> buckets;
+
+    public RateLimitFilter(JwtTokenProvider tokenProvider, MeterRegistry meterRegistry,
+                           @Value("${app.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${app.rate-limit.max-keys:100000}") long maxKeys,
+                           @Value("${app.rate-limit.login.per-ip:30}") int loginPerIp,
+                           @Value("${app.rate-limit.login.per-email:10}") int loginPerEmail,
+                           @Value("${app.rate-limit.forgot-password.per-ip:10}") int forgotPerIp,
+                           @Value("${app.rate-limit.forgot-password.per-email:3}") int forgotPerEmail,
+                           @Value("${app.rate-limit.verify-otp.per-ip:20}") int verifyPerIp,
+                           @Value("${app.rate-limit.verify-otp.per-email:10}") int verifyPerEmail,
+                           @Value("${app.rate-limit.booking.per-ip:60}") int bookingPerIp,
+                           @Value("${app.rate-limit.booking.per-account:20}") int bookingPerAccount) {
+        this.tokenProvider = tokenProvider;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        Duration minute = Duration.ofMinutes(1);
+        Duration quarterHour = Duration.ofMinutes(15);
+        this.rules = List.of(
+                new Rule("login", "POST", "/api/users/login",
+                        new Limit(loginPerIp, minute), new Limit(loginPerEmail, minute), AccountKey.BODY_EMAIL),
+                new Rule("forgot-password", "POST", "/api/auth/forgot-password",
+                        new Limit(forgotPerIp, quarterHour), new Limit(forgotPerEmail, quarterHour), AccountKey.BODY_EMAIL),
+                new Rule("verify-otp", "POST", "/api/auth/verify-otp",
+                        new Limit(verifyPerIp, quarterHour), new Limit(verifyPerEmail, quarterHour), AccountKey.BODY_EMAIL),
+                new Rule("booking", "POST", "/api/seminars",
+                        new Limit(bookingPerIp, minute), new Limit(bookingPerAccount, minute), AccountKey.TOKEN_SUBJECT));
+
+        // a bucket left alone for its longest period is full again, so dropping it loses nothing
+        Duration idle = rules.stream()
+                .flatMap(r -> Stream.of(r.perIp().period(), r.perAccount().period()))
+                .max(Duration::compareTo).orElse(minute);
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(idle)
+                .maximumSize(maxKeys)
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || ruleFor(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Rule rule = ruleFor(request);
+        HttpServletRequest req = request;
+        long now = System.nanoTime();
+
+        long waitNanos = 0;
+        String limitedBy = null;
+        if (rule.perIp().enabled()) {
+            waitNanos = take(rule, "ip", request.getRemoteAddr(), rule.perIp(), now);
+            if (waitNanos > 0) limitedBy = "ip";
+        }
+        if (waitNanos == 0 && rule.perAccount().enabled()) {
+            String account;
+            if (rule.accountKey() == AccountKey.BODY_EMAIL) {
+                long length = request.getContentLengthLong();
+                if (length >= 0 && length <= MAX_BODY_BYTES) {
+                    CachedBodyRequest cached = new CachedBodyRequest(request);
+                    req = cached;
+                    account = emailFrom(cached.body);
+                } else {
+                    account = null; // unknown or oversized body: left to the IP limit
+                }
+            } else {
+                account = tokenSubject(request);
+            }
+            if (account != null) {
+                waitNanos = take(rule, "account", account, rule.perAccount(), now);
+                if (waitNanos > 0) limitedBy = "account";
+            }
+        }
+
+        if (waitNanos > 0) {
+            reject(response, rule, limitedBy, waitNanos);
+            return;
+        }
+        filterChain.doFilter(req, response);
+    }
+
+    // -------------------- internals --------------------
+    private Rule ruleFor(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        String context = request.getContextPath();
+        if (context != null && !context.isEmpty() && path.startsWith(context)) path = path.substring(context.length());
+        if (path.length() > 1 && path.endsWith("/")) path = path.substring(0, path.length() - 1);
+        for (Rule r : rules) {
+            if (r.method().equalsIgnoreCase(request.getMethod()) && r.path().equals(path)) return r;
+        }
+        return null;
+    }
+
+    private long take(Rule rule, String dimension, String key, Limit limit, long now) {
+        TokenBucket bucket = buckets.get(rule.name() + "|" + dimension + "|" + key,
+                k -> new TokenBucket(limit.capacity(), limit.period().toNanos(), now));
+        return bucket.tryConsume(now);
+    }
+
+    private void reject(HttpServletResponse response, Rule rule, String limitedBy, long waitNanos) throws IOException {
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        meterRegistry.counter("http.ratelimit.rejected", "rule", rule.name(), "key", limitedBy).increment();
+        log.debug("[RateLimitFilter] {} limited by {} (retry after {}s)", rule.name(), limitedBy, retryAfter);
+
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                Map.of("error", "Too many requests. Please try again in " + retryAfter + " seconds."));
+    }
+
+    private String emailFrom(byte[] body) {
+        if (body.length == 0) return null;
+        try {
+            JsonNode email = objectMapper.readTree(body).get("email");
+            return email == null || !email.isTextual() || email.asText().isBlank()
+                    ? null : email.asText().trim().toLowerCase(Locale.ROOT);
+        } catch (IOException ex) {
+            return null; // malformed body: the controller will reject it, IP limit still applies
+        }
+    }
+
+    private String tokenSubject(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) return null;
+        // verified claims are cached, so this does not add a second signature check
+        return tokenProvider.parseVerified(header.substring(7).trim()).map(Claims::getSubject).orElse(null);
+    }
+
+    /** Reads the (small, length-checked) body once so it can be inspected here and read again by the controller. */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override public boolean isFinished() { return in.available() == 0; }
+                @Override public boolean isReady() { return true; }
+                // the whole body is already in memory: it is available at once and then fully read
+                @Override public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException ex) {
+                        listener.onError(ex);
+                    }
+                }
+                @Override public int read() { return in.read(); }
+                @Override public int read(byte[] b, int off, int len) { return in.read(b, off, len); }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+
+        @Override
+        public int getContentLength() { return body.length; }
+
+        @Override
+        public long getContentLengthLong() { return body.length; }
+    }
+}
@@ -0,0 +1,33 @@
+package com.dtao.seminarbooking.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: the whole state is one "theoretical arrival
+ * time" updated with a CAS, so concurrent requests on the same key never block.
+ * A bucket of {@code capacity} tokens refills one token every {@code period / capacity}.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;   // time to earn one token
+    private final long burstNanos;      // how far ahead of "now" the arrival time may run
+    private final AtomicLong tat;
+
+    TokenBucket(int capacity, long periodNanos, long nowNanos) {
+        int c = Math.max(capacity, 1);
+        this.intervalNanos = Math.max(periodNanos / c, 1);
+        this.burstNanos = intervalNanos * c;
+        this.tat = new AtomicLong(nowNanos);
+    }
+
+    /** @return 0 if a token was taken, otherwise nanoseconds until one is available */
+    long tryConsume(long nowNanos) {
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long ahead = next - nowNanos;
+            if (ahead > burstNanos) return ahead - burstNanos;
+            if (tat.compareAndSet(current, next)) return 0;
+        }
+    }
+}
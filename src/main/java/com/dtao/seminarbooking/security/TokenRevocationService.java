@@ -0,0 +1,182 @@
+package com.dtao.seminarbooking.security;
+
+import com.dtao.seminarbooking.model.RevokedToken;
+import com.dtao.seminarbooking.repo.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Early invalidation of JWTs (logout, password reset, account deletion).
+ *
+ * Revocations are stored in {@code revoked_tokens} and mirrored in memory as a Bloom
+ * filter in front of exact maps. The common case - a token that was never revoked -
+ * is answered by the filter alone, lock-free and without touching Mongo. Other
+ * instances pick up new revocations through an incremental poll; a periodic rebuild
+ * drops expired entries, which a Bloom filter cannot remove in place.
+ */
+@Component
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    // re-read a little before the watermark to tolerate clock skew between instances
+    private static final Duration REFRESH_OVERLAP = Duration.ofSeconds(5);
+
+    private final RevokedTokenRepository repository;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+    private final long maxTokenLifetimeMs;
+
+    private volatile Snapshot snapshot;
+    private volatile Instant watermark = Instant.EPOCH;
+
+    public TokenRevocationService(RevokedTokenRepository repository,
+                                  @Value("${app.auth.revocation.expected-entries:10000}") int expectedEntries,
+                                  @Value("${app.auth.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                                  @Value("${jwt.expiration-ms:3600000}") long jwtExpirationMs) {
+        this.repository = repository;
+        this.expectedEntries = Math.max(expectedEntries, 100);
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxTokenLifetimeMs = JwtTokenProvider.lifetimeMs(jwtExpirationMs, true);
+        this.snapshot = new Snapshot(this.expectedEntries, falsePositiveRate);
+    }
+
+    /** True if the token was revoked individually or issued before its subject's cutoff. */
+    public boolean isRevoked(Claims claims) {
+        Snapshot s = snapshot;
+        String jti = claims.getId();
+        String subject = claims.getSubject();
+        boolean maybeToken = jti != null && s.bloom.mightContain(tokenKey(jti));
+        boolean maybeSubject = subject != null && s.bloom.mightContain(subjectKey(subject));
+        if (!maybeToken && !maybeSubject) return false;
+
+        if (maybeToken && s.tokens.containsKey(jti)) return true;
+        if (maybeSubject) {
+            Instant cutoff = s.subjects.get(subject);
+            // iat has second precision: a token from the cutoff's own second is revoked too
+            return cutoff != null && (claims.getIssuedAt() == null
+                    || !claims.getIssuedAt().toInstant().isAfter(cutoff.truncatedTo(ChronoUnit.SECONDS)));
+        }
+        return false;
+    }
+
+    /** Revoke a single token (logout). */
+    public void revoke(Claims claims) {
+        if (claims.getId() == null) throw new IllegalArgumentException("Token has no jti");
+        Instant expiresAt = claims.getExpiration() == null
+                ? Instant.now().plusMillis(maxTokenLifetimeMs)
+                : claims.getExpiration().toInstant();
+        RevokedToken entry = repository.save(RevokedToken.forToken(claims.getId(), claims.getSubject(), expiresAt));
+        snapshot.add(entry);
+    }
+
+    /**
+     * Revoke every token issued to the user so far (password reset, deletion).
+     * Failures are logged rather than thrown so the account change itself still succeeds.
+     */
+    public boolean revokeAllFor(String email) {
+        if (email == null || email.isBlank()) return false;
+        String subject = email.trim().toLowerCase(Locale.ROOT);
+        try {
+            RevokedToken entry = repository.save(RevokedToken.forSubject(subject, Instant.now().plusMillis(maxTokenLifetimeMs)));
+            snapshot.add(entry);
+            log.info("[TokenRevocationService] all tokens revoked for {}", subject);
+            return true;
+        } catch (Exception ex) {
+            log.error("[TokenRevocationService] could not revoke tokens for {}: {}", subject, ex.getMessage());
+            return false;
+        }
+    }
+
+    /** Pull revocations made by other instances since the last poll. */
+    @Scheduled(fixedDelayString = "${app.auth.revocation.refresh-ms:5000}")
+    public synchronized void refresh() {
+        try {
+            Instant since = watermark.equals(Instant.EPOCH) ? Instant.EPOCH : watermark.minus(REFRESH_OVERLAP);
+            List<RevokedToken> fresh = repository.findByRevokedAtGreaterThanEqualOrderByRevokedAtAsc(since);
+            Snapshot s = snapshot;
+            for (RevokedToken r : fresh) s.add(r);
+            if (!fresh.isEmpty()) {
+                Instant latest = fresh.get(fresh.size() - 1).getRevokedAt();
+                if (latest != null && latest.isAfter(watermark)) watermark = latest;
+                log.debug("[TokenRevocationService] {} revocation(s) applied", fresh.size());
+            }
+        } catch (Exception ex) {
+            log.warn("[TokenRevocationService] revocation refresh failed: {}", ex.getMessage());
+        }
+    }
+
+    /** Replace the filter and maps with only the revocations that still cover live tokens. */
+    @Scheduled(fixedDelayString = "${app.auth.revocation.rebuild-ms:3600000}",
+            initialDelayString = "${app.auth.revocation.rebuild-ms:3600000}")
+    public synchronized void rebuild() {
+        try {
+            Instant started = Instant.now();
+            List<RevokedToken> live = repository.findByExpiresAtGreaterThan(started);
+            Snapshot fresh = new Snapshot(Math.max(expectedEntries, live.size() * 2), falsePositiveRate);
+            for (RevokedToken r : live) fresh.add(r);
+            // entries revoked locally while the query ran are still in the old maps
+            Snapshot previous = snapshot;
+            previous.tokens.forEach((jti, exp) -> { if (exp.isAfter(started)) fresh.addToken(jti, exp); });
+            previous.subjects.forEach((subject, cutoff) -> {
+                if (cutoff.plusMillis(maxTokenLifetimeMs).isAfter(started)) fresh.addSubject(subject, cutoff);
+            });
+            snapshot = fresh;
+            log.info("[TokenRevocationService] rebuilt revocation filter: {} token(s), {} subject cutoff(s)",
+                    fresh.tokens.size(), fresh.subjects.size());
+        } catch (Exception ex) {
+            log.warn("[TokenRevocationService] revocation rebuild failed: {}", ex.getMessage());
+        }
+    }
+
+    public int size() {
+        Snapshot s = snapshot;
+        return s.tokens.size() + s.subjects.size();
+    }
+
+    // -------------------- internals --------------------
+    private static String tokenKey(String jti) { return "jti:" + jti; }
+
+    private static String subjectKey(String subject) { return "sub:" + subject; }
+
+    /** Bloom filter plus exact sets; entries are added before their filter bits so readers never miss them. */
+    private static final class Snapshot {
+        final BloomFilter bloom;
+        final Map<String, Instant> tokens = new ConcurrentHashMap<>();    // jti -> token expiry
+        final Map<String, Instant> subjects = new ConcurrentHashMap<>();  // subject -> cutoff
+
+        Snapshot(int expected, double fpp) {
+            this.bloom = new BloomFilter(expected, fpp);
+        }
+
+        void add(RevokedToken r) {
+            if (RevokedToken.SUBJECT.equals(r.getKind())) {
+                if (r.getSubject() != null && r.getRevokedAt() != null) addSubject(r.getSubject(), r.getRevokedAt());
+            } else if (r.getJti() != null) {
+                addToken(r.getJti(), r.getExpiresAt() == null ? Instant.MAX : r.getExpiresAt());
+            }
+        }
+
+        void addToken(String jti, Instant expiresAt) {
+            tokens.put(jti, expiresAt);
+            bloom.add(tokenKey(jti));
+        }
+
+        void addSubject(String subject, Instant cutoff) {
+            subjects.merge(subject, cutoff, (a, b) -> a.isAfter(b) ? a : b);
+            bloom.add(subjectKey(subject));
+        }
+    }
+}
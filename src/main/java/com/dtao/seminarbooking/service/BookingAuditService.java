@@ -0,0 +1,238 @@
+package com.dtao.seminarbooking.service;
+
+import com.dtao.seminarbooking.model.BookingAuditEvent;
+import com.dtao.seminarbooking.model.BookingAuditEvent.FieldChange;
+import com.dtao.seminarbooking.model.BookingAuditEvent.Meta;
+import com.dtao.seminarbooking.model.Seminar;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Append-only audit trail of booking state transitions in the booking_audit time-series
+ * collection.
+ *
+ * {@link #record} only builds the event (field diff, acting user) and puts it in a bounded
+ * in-memory buffer; a background flush inserts the buffer in batches, so auditing adds no
+ * Mongo round trip to a booking request. When the buffer is full (Mongo down for a long
+ * time) further events are dropped and counted in {@code booking.audit.dropped}.
+ */
+@Service
+public class BookingAuditService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingAuditService.class);
+
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+    public static final String CANCEL_REQUESTED = "CANCEL_REQUESTED";
+    public static final String DELETED = "DELETED";
+
+    private static final int MAX_ACTIVITY_RESULTS = 5000;
+
+    private final MongoTemplate mongoTemplate;
+    private final LinkedBlockingQueue<BookingAuditEvent> buffer;
+    private final int batchSize;
+    private final Counter dropped;
+
+    // set once the time-series collection exists; until then events stay buffered
+    private volatile boolean ready;
+
+    public BookingAuditService(MongoTemplate mongoTemplate, MeterRegistry meterRegistry,
+                               @Value("${app.audit.buffer-capacity:10000}") int bufferCapacity,
+                               @Value("${app.audit.batch-size:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.buffer = new LinkedBlockingQueue<>(Math.max(1, bufferCapacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.dropped = Counter.builder("booking.audit.dropped")
+                .description("Audit events dropped because the buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("booking.audit.buffered", buffer, LinkedBlockingQueue::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepareCollectionOnStartup() {
+        CompletableFuture.runAsync(this::prepareCollection);
+    }
+
+    /**
+     * Time-series collections must be created explicitly (an insert would create a plain
+     * one), so nothing is written before this succeeds. Servers without time-series support
+     * get a plain collection with the same indexes.
+     */
+    synchronized void prepareCollection() {
+        if (ready) return;
+        try {
+            if (!mongoTemplate.collectionExists(BookingAuditEvent.class)) {
+                try {
+                    mongoTemplate.createCollection(BookingAuditEvent.class);
+                } catch (Exception ex) {
+                    // another instance won the race, or the server cannot do time-series
+                    if (!mongoTemplate.collectionExists(BookingAuditEvent.class)) {
+                        log.warn("[BookingAuditService] time-series collection not created ({}), using a plain collection", ex.getMessage());
+                    }
+                }
+            }
+            IndexOperations indexOps = mongoTemplate.indexOps(BookingAuditEvent.class);
+            indexOps.createIndex(new Index().on("meta.seminarId", Sort.Direction.ASC).on("at", Sort.Direction.ASC).named("seminar_at"));
+            indexOps.createIndex(new Index().on("meta.actor", Sort.Direction.ASC).on("at", Sort.Direction.ASC).named("actor_at"));
+            ready = true;
+        } catch (Exception ex) {
+            // Mongo unreachable: events stay buffered and the next flush tries again
+            log.warn("[BookingAuditService] could not prepare booking_audit: {}", ex.getMessage());
+        }
+    }
+
+    // -------------------- recording --------------------
+    /** Capture the audited fields of a booking before it is changed. */
+    public Map<String, String> snapshot(Seminar s) {
+        return s == null ? Map.of() : fields(s);
+    }
+
+    /**
+     * Buffer one transition. {@code before} is a {@link #snapshot} taken before the change
+     * (empty for a new booking); {@code after} is the saved booking, or null once deleted.
+     * Never throws.
+     */
+    public void record(String action, String seminarId, Map<String, String> before, Seminar after) {
+        try {
+            Map<String, String> now = after == null ? Map.of() : fields(after);
+            BookingAuditEvent e = new BookingAuditEvent();
+            e.setAt(Instant.now());
+            e.setMeta(currentActor(seminarId));
+            e.setAction(action);
+            e.setFromStatus(before.get("status"));
+            e.setToStatus(now.get("status"));
+            e.setHallName(now.getOrDefault("hallName", before.get("hallName")));
+            if (after != null) e.setChanges(diff(before, now));
+
+            if (!buffer.offer(e)) {
+                dropped.increment();
+                log.warn("[BookingAuditService] audit buffer full, dropped {} event for {}", action, seminarId);
+            }
+        } catch (Exception ex) {
+            log.error("[BookingAuditService] could not record {} for {}: {}", action, seminarId, ex.getMessage());
+        }
+    }
+
+    // -------------------- background writer --------------------
+    @Scheduled(fixedDelayString = "${app.audit.flush-interval-ms:1000}",
+            initialDelayString = "${app.audit.flush-interval-ms:1000}")
+    public void flush() {
+        if (buffer.isEmpty()) return;
+        if (!ready) prepareCollection();
+        if (!ready) return;
+        List<BookingAuditEvent> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            try {
+                mongoTemplate.insert(batch, BookingAuditEvent.class);
+            } catch (Exception ex) {
+                // put the batch back (as far as it fits) and retry on the next tick
+                int requeued = (int) batch.stream().filter(buffer::offer).count();
+                if (requeued < batch.size()) dropped.increment(batch.size() - requeued);
+                log.warn("[BookingAuditService] audit flush failed, {} event(s) kept for retry: {}", requeued, ex.getMessage());
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        if (!buffer.isEmpty()) flush();
+    }
+
+    // -------------------- queries --------------------
+    /** Every recorded transition of one booking, oldest first. */
+    public List<BookingAuditEvent> history(String seminarId) {
+        Query q = Query.query(Criteria.where("meta.seminarId").is(seminarId)).with(Sort.by("at"));
+        return mongoTemplate.find(q, BookingAuditEvent.class);
+    }
+
+    /** Transitions in [from, to), newest first, optionally by one user and/or role. */
+    public List<BookingAuditEvent> activity(Instant from, Instant to, String actor, String role, int limit) {
+        if (from == null || to == null || !to.isAfter(from)) throw new ResponseStatusException(BAD_REQUEST, "from must be before to");
+        Criteria c = Criteria.where("at").gte(from).lt(to);
+        if (actor != null && !actor.isBlank()) c = c.and("meta.actor").is(actor.trim().toLowerCase());
+        if (role != null && !role.isBlank()) c = c.and("meta.actorRole").is(role.trim().toUpperCase());
+        Query q = Query.query(c).with(Sort.by(Sort.Direction.DESC, "at"))
+                .limit(Math.max(1, Math.min(limit, MAX_ACTIVITY_RESULTS)));
+        return mongoTemplate.find(q, BookingAuditEvent.class);
+    }
+
+    // -------------------- helpers --------------------
+    static Map<String, String> fields(Seminar s) {
+        Map<String, String> m = new LinkedHashMap<>();
+        m.put("hallId", s.getHallId());
+        m.put("hallName", s.getHallName());
+        m.put("date", s.getDate());
+        m.put("startDate", s.getStartDate());
+        m.put("endDate", s.getEndDate());
+        m.put("startTime", s.getStartTime());
+        m.put("endTime", s.getEndTime());
+        m.put("slot", s.getSlot());
+        m.put("slotTitle", s.getSlotTitle());
+        m.put("bookingName", s.getBookingName());
+        m.put("email", s.getEmail());
+        m.put("department", s.getDepartment());
+        m.put("phone", s.getPhone());
+        m.put("status", s.getStatus());
+        m.put("remarks", s.getRemarks());
+        m.put("cancellationReason", s.getCancellationReason());
+        m.put("daySlots", s.getDaySlots() == null ? null : new TreeMap<>(s.getDaySlots()).entrySet().stream()
+                .map(d -> d.getKey() + " " + d.getValue().getStartTime() + "-" + d.getValue().getEndTime())
+                .collect(Collectors.joining(", ")));
+        return m;
+    }
+
+    static List<FieldChange> diff(Map<String, String> before, Map<String, String> after) {
+        List<FieldChange> changes = new ArrayList<>();
+        for (Map.Entry<String, String> e : after.entrySet()) {
+            String old = before.get(e.getKey());
+            if (!Objects.equals(old, e.getValue())) changes.add(new FieldChange(e.getKey(), old, e.getValue()));
+        }
+        return changes;
+    }
+
+    private static Meta currentActor(String seminarId) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth.getName() == null || "anonymousUser".equals(auth.getName())) {
+            return new Meta(seminarId, "system", null);
+        }
+        String role = auth.getAuthorities().stream().findFirst()
+                .map(a -> a.getAuthority().replace("ROLE_", "").toUpperCase())
+                .orElse(null);
+        return new Meta(seminarId, auth.getName().trim().toLowerCase(), role);
+    }
+}
@@ -0,0 +1,136 @@
+package com.dtao.seminarbooking.service;
+
+import com.dtao.seminarbooking.model.HallOperator;
+import com.dtao.seminarbooking.model.Seminar;
+import com.dtao.seminarbooking.service.BrevoClient.MessageVersion;
+import com.dtao.seminarbooking.service.EmailService.BookingView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Builds the full set of emails for one booking event (requester + every hall operator)
+ * and queues them as a single outbox entry, so a fan-out to N operators costs
+ * one Brevo request instead of N+1. The booking's detail rows are rendered once per
+ * event and reused for every recipient. Operators with digest mode enabled are
+ * skipped here; {@link OperatorDigestService} mails them a periodic summary instead.
+ */
+@Service
+public class BookingNotificationService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingNotificationService.class);
+
+    private final EmailService emailService;
+    private final HallOperatorService hallOperatorService;
+    private final OperatorDigestService digestService;
+
+    public BookingNotificationService(EmailService emailService, HallOperatorService hallOperatorService,
+                                      OperatorDigestService digestService) {
+        this.emailService = emailService;
+        this.hallOperatorService = hallOperatorService;
+        this.digestService = digestService;
+    }
+
+    /** New booking: "received" mail to requester and operators, plus APPROVED mails when admin auto-approved it. */
+    public CompletableFuture<Boolean> bookingCreated(Seminar saved) {
+        List<HallOperator> heads = headsFor(saved);
+        BookingView view = emailService.bookingView(saved);
+        List<MessageVersion> batch = new ArrayList<>();
+        emailService.bookingCreatedMessage(view).ifPresent(batch::add);
+        addForHeads(batch, heads, saved, "CREATED", null, head -> emailService.hallHeadBookingCreatedMessage(head, view));
+
+        String status = saved.getStatus() == null ? "" : saved.getStatus().toUpperCase();
+        if ("APPROVED".equals(status)) {
+            String adminReason = "Approved & applied by admin";
+            emailService.statusNotificationMessage(saved.getEmail(), view, "APPROVED", adminReason).ifPresent(batch::add);
+            addForHeads(batch, heads, saved, "APPROVED", adminReason, head -> emailService.hallHeadBookingApprovedMessage(head, view, adminReason));
+        }
+        return send(batch, "bookingCreated", saved);
+    }
+
+    /** Status transition made by admin (APPROVED / REJECTED / CANCEL_REQUESTED / CANCELLED). */
+    public CompletableFuture<Boolean> statusChanged(Seminar seminar, String status, String reason) {
+        BookingView view = emailService.bookingView(seminar);
+        List<MessageVersion> batch = new ArrayList<>();
+        emailService.statusNotificationMessage(seminar.getEmail(), view, status, reason).ifPresent(batch::add);
+
+        Function<HallOperator, Optional<MessageVersion>> headMessage = switch (status) {
+            case "APPROVED" -> head -> emailService.hallHeadBookingApprovedMessage(head, view, reason);
+            case "REJECTED" -> head -> emailService.hallHeadBookingRejectedMessage(head, view, reason);
+            case "CANCEL_REQUESTED" -> head -> emailService.hallHeadBookingCreatedMessage(head, view);
+            case "CANCELLED" -> head -> emailService.hallHeadBookingCancelledMessage(head, view, reason);
+            default -> null;
+        };
+        if (headMessage != null) addForHeads(batch, headsFor(seminar), seminar, status, reason, headMessage);
+        return send(batch, "statusChanged(" + status + ")", seminar);
+    }
+
+    /** Booking deleted from the portal. */
+    public CompletableFuture<Boolean> seminarRemoved(Seminar seminar) {
+        BookingView view = emailService.bookingView(seminar);
+        List<MessageVersion> batch = new ArrayList<>();
+        emailService.seminarRemovedMessage(view).ifPresent(batch::add);
+        addForHeads(batch, headsFor(seminar), seminar, "REMOVED", "Booking removed from portal",
+                head -> emailService.hallHeadBookingCancelledMessage(head, view, "Booking removed from portal"));
+        return send(batch, "seminarRemoved", seminar);
+    }
+
+    /** Requester asked for a cancellation. */
+    public CompletableFuture<Boolean> cancelRequested(Seminar seminar, String cancellationReason) {
+        BookingView view = emailService.bookingView(seminar);
+        List<MessageVersion> batch = new ArrayList<>();
+        emailService.statusNotificationMessage(seminar.getEmail(), view, "CANCEL_REQUESTED", cancellationReason).ifPresent(batch::add);
+        addForHeads(batch, headsFor(seminar), seminar, "CANCEL_REQUESTED", cancellationReason,
+                head -> emailService.hallHeadBookingCreatedMessage(head, view));
+        return send(batch, "cancelRequested", seminar);
+    }
+
+    // -------------------- helpers --------------------
+    private List<HallOperator> headsFor(Seminar seminar) {
+        if (seminar == null || seminar.getHallName() == null) return List.of();
+        try {
+            return hallOperatorService.findByHallName(seminar.getHallName());
+        } catch (Exception ex) {
+            log.error("[BookingNotificationService] Error while finding hall operators for hall={} : {}",
+                    seminar.getHallName(), ex.getMessage(), ex);
+            return List.of();
+        }
+    }
+
+    // digest operators get the event buffered for their next summary instead of a mail now
+    private void addForHeads(List<MessageVersion> batch, List<HallOperator> heads, Seminar seminar,
+                             String event, String reason, Function<HallOperator, Optional<MessageVersion>> render) {
+        for (HallOperator head : heads) {
+            try {
+                if (head != null && head.wantsDigest()) {
+                    try {
+                        digestService.record(head, seminar, event, reason);
+                        continue;
+                    } catch (Exception ex) {
+                        // could not buffer: fall back to an immediate mail rather than losing the event
+                        log.warn("[BookingNotificationService] digest buffer failed for head={} : {}",
+                                head.getHeadEmail(), ex.getMessage());
+                    }
+                }
+                render.apply(head).ifPresent(batch::add);
+            } catch (Exception ex) {
+                log.error("[BookingNotificationService] Failed to render hall-head email for head={} : {}",
+                        head == null ? "null" : head.getHeadEmail(), ex.getMessage(), ex);
+            }
+        }
+    }
+
+    private CompletableFuture<Boolean> send(List<MessageVersion> batch, String operation, Seminar seminar) {
+        if (batch.isEmpty()) {
+            log.warn("[BookingNotificationService] {} produced no deliverable messages", operation);
+            return CompletableFuture.completedFuture(false);
+        }
+        return emailService.enqueueBatch(operation + ":" + EmailService.revisionKey(seminar), batch);
+    }
+}
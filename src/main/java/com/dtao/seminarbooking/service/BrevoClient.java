@@ -1,32 +1,96 @@
 package com.dtao.seminarbooking.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Minimal Brevo (Sendinblue) API client for sending transactional emails.
- * Uses the /smtp/email endpoint.
+ * Uses the /smtp/email endpoint. Every call goes through {@link BrevoSendGuard}
+ * (adaptive concurrency + circuit breaker) and is bounded by {@code brevo.api.timeout-ms}.
  */
 @Component
 public class BrevoClient {
     private static final Logger log = LoggerFactory.getLogger(BrevoClient.class);
 
+    // Brevo accepts at most 1000 messageVersions per /smtp/email request
+    static final int MAX_VERSIONS_PER_REQUEST = 1000;
+
+    /**
+     * One personalised message inside a batched send (Brevo "messageVersions").
+     * Every version carries its own recipients, subject and rendered HTML.
+     */
+    public record MessageVersion(List<String> to, String subject, String htmlContent) {
+        public MessageVersion {
+            to = to == null ? List.of() : List.copyOf(to);
+        }
+    }
+
+    /** Outcome of a guarded send. */
+    public record SendResult(Status status, Duration retryAfter, String detail) {
+
+        public enum Status {
+            SENT,
+            /** refused locally (circuit open / concurrency limit); nothing was sent */
+            DEFERRED,
+            /** Brevo answered 429 */
+            THROTTLED,
+            /** 4xx other than 429; retrying the same payload will not help */
+            REJECTED,
+            /** 5xx, timeout or I/O error */
+            FAILED,
+            NOT_CONFIGURED
+        }
+
+        public boolean ok() {
+            return status == Status.SENT;
+        }
+
+        /** Refused for now (circuit open, 429) rather than failed; worth another try later. */
+        public boolean retryable() {
+            return status == Status.DEFERRED || status == Status.THROTTLED;
+        }
+
+        static SendResult of(Status status, String detail) {
+            return new SendResult(status, Duration.ZERO, detail);
+        }
+    }
+
     private final WebClient webClient;
     private final String apiKey;
+    private final Duration timeout;
+    private final BrevoSendGuard guard;
+    private final MeterRegistry meterRegistry;
 
     public BrevoClient(WebClient.Builder webClientBuilder,
                        @Value("${brevo.api.key:}") String apiKey,
-                       @Value("${brevo.api.base:https://api.brevo.com/v3}") String baseUrl) {
+                       @Value("${brevo.api.base:https://api.brevo.com/v3}") String baseUrl,
+                       @Value("${brevo.api.timeout-ms:10000}") long timeoutMs,
+                       BrevoSendGuard guard,
+                       MeterRegistry meterRegistry) {
         this.apiKey = apiKey == null ? "" : apiKey.trim();
         this.webClient = webClientBuilder.baseUrl(baseUrl).build();
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.guard = guard;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
@@ -37,7 +101,8 @@ public class BrevoClient {
      * @param to         recipient list (one or more)
      * @param subject    subject line
      * @param htmlBody   html content
-     * @return true if Brevo reported success (HTTP 2xx)
+     * @return true if Brevo reported success (HTTP 2xx); false also when the call was
+     * refused because Brevo is currently unhealthy (see {@link BrevoSendGuard})
      */
     public boolean sendEmail(String senderName, String from, List<String> to, String subject, String htmlBody) {
         if (apiKey == null || apiKey.isBlank()) {
@@ -49,30 +114,173 @@ public class BrevoClient {
             return false;
         }
 
+        Map<String, Object> payload = Map.of(
+                "sender", Map.of("name", senderName == null ? "" : senderName, "email", from),
+                "to", to.stream().map(email -> Map.of("email", email)).toList(),
+                "subject", subject,
+                "htmlContent", htmlBody
+        );
+        SendResult result = post(payload, "sendEmail", false);
+        return result.ok();
+    }
+
+    /**
+     * Send one message on the priority lane: it may use the guard's reserved headroom
+     * above the adaptive limit, so queued notifications cannot crowd it out. Still
+     * refused while the circuit is open.
+     */
+    public SendResult sendPriority(String senderName, String from, MessageVersion message) {
+        if (apiKey == null || apiKey.isBlank()) {
+            log.warn("Brevo API key missing — cannot send via Brevo");
+            return SendResult.of(SendResult.Status.NOT_CONFIGURED, "Brevo API key missing");
+        }
+        if (message == null || message.to().isEmpty()) {
+            return SendResult.of(SendResult.Status.REJECTED, "no recipients");
+        }
+        Map<String, Object> payload = Map.of(
+                "sender", Map.of("name", senderName == null ? "" : senderName, "email", from),
+                "to", message.to().stream().map(email -> Map.of("email", email)).toList(),
+                "subject", message.subject(),
+                "htmlContent", message.htmlContent()
+        );
+        return post(payload, "sendPriority", true);
+    }
+
+    /**
+     * Send many personalised emails with as few HTTP calls as possible.
+     * All versions are packed into Brevo's messageVersions array, so a fan-out to
+     * N recipients costs one request (chunked at {@link #MAX_VERSIONS_PER_REQUEST}).
+     *
+     * @return true if Brevo reported success (HTTP 2xx) for every chunk
+     */
+    public boolean sendBatch(String senderName, String from, List<MessageVersion> versions) {
+        return send(senderName, from, versions).ok();
+    }
+
+    /**
+     * Like {@link #sendBatch} but reports why a send did not happen, so the outbox can
+     * defer (circuit open, 429) instead of burning a retry attempt.
+     *
+     * @param senderName friendly name for sender (company)
+     * @param from       from email (must be configured / validated in Brevo)
+     * @param versions   one entry per distinct message
+     */
+    public SendResult send(String senderName, String from, List<MessageVersion> versions) {
+        if (apiKey == null || apiKey.isBlank()) {
+            log.warn("Brevo API key missing — cannot send via Brevo");
+            return SendResult.of(SendResult.Status.NOT_CONFIGURED, "Brevo API key missing");
+        }
+        List<MessageVersion> valid = versions == null ? List.of() : versions.stream()
+                .filter(v -> v != null && !v.to().isEmpty())
+                .toList();
+        if (valid.isEmpty()) {
+            log.warn("No recipients provided for Brevo batch send");
+            return SendResult.of(SendResult.Status.REJECTED, "no recipients");
+        }
+
+        SendResult result = SendResult.of(SendResult.Status.SENT, null);
+        for (int i = 0; i < valid.size() && result.ok(); i += MAX_VERSIONS_PER_REQUEST) {
+            List<MessageVersion> chunk = valid.subList(i, Math.min(valid.size(), i + MAX_VERSIONS_PER_REQUEST));
+            result = post(batchPayload(senderName, from, chunk), "sendBatch (" + chunk.size() + " versions)", false);
+        }
+        return result;
+    }
+
+    public BrevoSendGuard guard() {
+        return guard;
+    }
+
+    // one guarded POST /smtp/email, timed as brevo.send{status=...}
+    private SendResult post(Map<String, Object> payload, String operation, boolean priority) {
+        long started = System.nanoTime();
+        SendResult result = call(payload, operation, priority);
+        Timer.builder("brevo.send")
+                .description("Brevo /smtp/email calls by outcome")
+                .tag("status", result.status().name())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    private SendResult call(Map<String, Object> payload, String operation, boolean priority) {
+        BrevoSendGuard.Permit permit = guard.tryAcquire(priority);
+        if (permit == null) {
+            log.debug("[BrevoClient] {} deferred: circuit {} , limit {}", operation, guard.state(), guard.limit());
+            return new SendResult(SendResult.Status.DEFERRED, guard.retryDelay(), "Brevo circuit " + guard.state());
+        }
+
         try {
-            Map<String, Object> payload = Map.of(
-                    "sender", Map.of("name", senderName == null ? "" : senderName, "email", from),
-                    "to", to.stream().map(email -> Map.of("email", email)).toList(),
-                    "subject", subject,
-                    "htmlContent", htmlBody
-            );
-
-            // call Brevo
-            Mono<Map> resp = webClient.post()
+            Map result = webClient.post()
                     .uri("/smtp/email")
                     .contentType(MediaType.APPLICATION_JSON)
                     .accept(MediaType.APPLICATION_JSON)
                     .header("api-key", apiKey)
                     .bodyValue(payload)
                     .retrieve()
-                    .bodyToMono(Map.class);
-
-            Map result = resp.block();
-            log.info("[BrevoClient] sendEmail result: {}", result);
-            return true;
+                    .bodyToMono(Map.class)
+                    .block(timeout);
+            guard.release(permit, BrevoSendGuard.Signal.SUCCESS, null);
+            log.info("[BrevoClient] {} result: {}", operation, result);
+            return SendResult.of(SendResult.Status.SENT, null);
+        } catch (WebClientResponseException ex) {
+            HttpStatusCode code = ex.getStatusCode();
+            if (code.value() == 429) {
+                Duration retryAfter = retryAfter(ex.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+                guard.release(permit, BrevoSendGuard.Signal.THROTTLED, retryAfter);
+                log.warn("[BrevoClient] {} throttled by Brevo (retry after {})", operation, retryAfter);
+                Duration wait = retryAfter.isZero() ? guard.retryDelay() : retryAfter;
+                return new SendResult(SendResult.Status.THROTTLED, wait, "429 Too Many Requests");
+            }
+            if (code.is4xxClientError()) {
+                guard.release(permit, BrevoSendGuard.Signal.REJECTED, null);
+                log.error("[BrevoClient] {} rejected by Brevo: {} {}", operation, code.value(), ex.getResponseBodyAsString());
+                return SendResult.of(SendResult.Status.REJECTED, code.value() + " " + ex.getResponseBodyAsString());
+            }
+            guard.release(permit, BrevoSendGuard.Signal.FAILURE, null);
+            log.error("[BrevoClient] {} failed: {}", operation, ex.getMessage());
+            return SendResult.of(SendResult.Status.FAILED, ex.getMessage());
         } catch (Exception ex) {
-            log.error("[BrevoClient] Failed to send email via Brevo: {}", ex.getMessage(), ex);
-            return false;
+            // I/O errors and block(timeout) expiry
+            guard.release(permit, BrevoSendGuard.Signal.FAILURE, null);
+            log.error("[BrevoClient] {} failed via Brevo: {}", operation, ex.getMessage(), ex);
+            return SendResult.of(SendResult.Status.FAILED, ex.getMessage());
         }
     }
+
+    // Retry-After is either delta-seconds or an HTTP date
+    private static Duration retryAfter(String header) {
+        if (header == null || header.isBlank()) return Duration.ZERO;
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(header.trim())));
+        } catch (NumberFormatException ignored) {
+            try {
+                Instant at = ZonedDateTime.parse(header.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                Duration wait = Duration.between(Instant.now(), at);
+                return wait.isNegative() ? Duration.ZERO : wait;
+            } catch (Exception ex) {
+                return Duration.ZERO;
+            }
+        }
+    }
+
+    private Map<String, Object> batchPayload(String senderName, String from, List<MessageVersion> chunk) {
+        // top-level subject/htmlContent are mandatory; each version overrides them
+        MessageVersion first = chunk.get(0);
+        List<Map<String, Object>> messageVersions = new ArrayList<>(chunk.size());
+        for (MessageVersion v : chunk) {
+            Map<String, Object> mv = new LinkedHashMap<>();
+            mv.put("to", v.to().stream().map(email -> Map.of("email", email)).toList());
+            mv.put("subject", v.subject());
+            mv.put("htmlContent", v.htmlContent());
+            messageVersions.add(mv);
+        }
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("sender", Map.of("name", senderName == null ? "" : senderName, "email", from));
+        payload.put("subject", first.subject());
+        payload.put("htmlContent", first.htmlContent());
+        payload.put("messageVersions", messageVersions);
+        return payload;
+    }
 }
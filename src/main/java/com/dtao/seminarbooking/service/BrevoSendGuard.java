@@ -0,0 +1,179 @@
+package com.dtao.seminarbooking.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Protects the booking pipeline from a slow or throttling Brevo.
+ *
+ * <ul>
+ *   <li>Adaptive concurrency (AIMD): the number of parallel Brevo calls grows by one per
+ *       "round" of fast successes and is halved on a 429, a failure or a call slower than
+ *       {@code app.mail.brevo.latency-target-ms}.</li>
+ *   <li>Circuit breaker: after {@code failure-threshold} consecutive failures (or a 429
+ *       carrying Retry-After) calls are refused immediately until the open period ends;
+ *       then a single half-open probe decides whether to close again.</li>
+ * </ul>
+ * Callers that are refused get a retry delay and should defer the work instead of waiting.
+ */
+@Component
+public class BrevoSendGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(BrevoSendGuard.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** Result of one guarded call, reported back through {@link #release}. */
+    public enum Signal { SUCCESS, THROTTLED, FAILURE, REJECTED }
+
+    /** Taken before a call; must be released exactly once. */
+    public record Permit(long startedNanos, boolean probe) {}
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetMs;
+    private final int failureThreshold;
+    private final long openMs;
+
+    // extra slots above the adaptive limit that only priority mail (OTP) may use, so a
+    // dispatcher using the whole limit for notifications never delays a reset code
+    @Value("${app.mail.brevo.priority-headroom:2}")
+    private int priorityHeadroom = 2;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean probing = new AtomicBoolean();
+
+    private volatile double limit;
+    private volatile State state = State.CLOSED;
+    private volatile long openUntilMs;
+
+    public BrevoSendGuard(@Value("${app.mail.brevo.min-concurrency:1}") int minLimit,
+                          @Value("${app.mail.brevo.max-concurrency:16}") int maxLimit,
+                          @Value("${app.mail.brevo.initial-concurrency:4}") int initialLimit,
+                          @Value("${app.mail.brevo.latency-target-ms:2000}") long latencyTargetMs,
+                          @Value("${app.mail.brevo.breaker.failure-threshold:5}") int failureThreshold,
+                          @Value("${app.mail.brevo.breaker.open-ms:30000}") long openMs) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.latencyTargetMs = latencyTargetMs;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMs = openMs;
+    }
+
+    /** @return a permit, or null when the circuit is open or the concurrency limit is reached */
+    public Permit tryAcquire() {
+        return tryAcquire(false);
+    }
+
+    /** @param priority allow up to {@code priority-headroom} calls beyond the current limit */
+    public Permit tryAcquire(boolean priority) {
+        switch (currentState()) {
+            case OPEN:
+                return null;
+            case HALF_OPEN:
+                if (!probing.compareAndSet(false, true)) return null;
+                inFlight.incrementAndGet();
+                return new Permit(System.nanoTime(), true);
+            default:
+                int cap = (int) limit + (priority ? priorityHeadroom : 0);
+                while (true) {
+                    int n = inFlight.get();
+                    if (n >= cap) return null;
+                    if (inFlight.compareAndSet(n, n + 1)) return new Permit(System.nanoTime(), false);
+                }
+        }
+    }
+
+    public void release(Permit permit, Signal signal, Duration retryAfter) {
+        inFlight.decrementAndGet();
+        long latencyMs = (System.nanoTime() - permit.startedNanos()) / 1_000_000;
+
+        switch (signal) {
+            case SUCCESS, REJECTED -> {
+                // a 4xx other than 429 is a bad message, not an unhealthy provider
+                consecutiveFailures.set(0);
+                if (latencyMs > latencyTargetMs) decrease(0.9);
+                else increase();
+                if (permit.probe()) close();
+            }
+            case THROTTLED -> {
+                decrease(0.5);
+                if (retryAfter != null && !retryAfter.isZero()) open(retryAfter.toMillis(), "429 with Retry-After");
+                else onFailure(permit);
+            }
+            case FAILURE -> {
+                decrease(0.5);
+                onFailure(permit);
+            }
+        }
+        if (permit.probe()) probing.set(false);
+    }
+
+    /** Non-priority calls that may start right now (0 while the circuit is open). */
+    public int available() {
+        return switch (currentState()) {
+            case OPEN -> 0;
+            case HALF_OPEN -> probing.get() ? 0 : 1;
+            case CLOSED -> Math.max(0, (int) limit - inFlight.get());
+        };
+    }
+
+    /** How long a refused caller should wait before trying again. */
+    public Duration retryDelay() {
+        long untilOpenEnds = openUntilMs - System.currentTimeMillis();
+        return Duration.ofMillis(Math.max(untilOpenEnds, 1000));
+    }
+
+    public State state() { return currentState(); }
+
+    public int limit() { return (int) limit; }
+
+    public int inFlight() { return inFlight.get(); }
+
+    // -------------------- internals --------------------
+    private State currentState() {
+        if (state == State.OPEN && System.currentTimeMillis() >= openUntilMs) {
+            synchronized (this) {
+                if (state == State.OPEN && System.currentTimeMillis() >= openUntilMs) {
+                    state = State.HALF_OPEN;
+                    log.info("[BrevoSendGuard] circuit half-open, probing Brevo");
+                }
+            }
+        }
+        return state;
+    }
+
+    private void onFailure(Permit permit) {
+        if (permit.probe() || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            open(openMs, consecutiveFailures.get() + " consecutive failures");
+        }
+    }
+
+    private synchronized void open(long forMs, String why) {
+        openUntilMs = Math.max(openUntilMs, System.currentTimeMillis() + forMs);
+        if (state != State.OPEN) log.warn("[BrevoSendGuard] circuit OPEN for {} ms ({})", forMs, why);
+        state = State.OPEN;
+    }
+
+    private synchronized void close() {
+        if (state != State.CLOSED) log.info("[BrevoSendGuard] circuit CLOSED, Brevo healthy again");
+        state = State.CLOSED;
+        consecutiveFailures.set(0);
+    }
+
+    private synchronized void increase() {
+        limit = Math.min(maxLimit, limit + 1.0 / Math.max(limit, 1.0));
+    }
+
+    private synchronized void decrease(double factor) {
+        limit = Math.max(minLimit, limit * factor);
+    }
+}
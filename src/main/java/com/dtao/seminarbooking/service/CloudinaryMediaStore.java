@@ -0,0 +1,93 @@
+package com.dtao.seminarbooking.service;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Keeps media in Cloudinary (configured by {@code CLOUDINARY_URL}); clients are
+ * redirected to the CDN URL instead of streaming through the app.
+ */
+@Component
+@ConditionalOnProperty(name = "app.media.store", havingValue = "cloudinary")
+public class CloudinaryMediaStore implements MediaStore {
+
+    private final Cloudinary cloudinary;
+
+    public CloudinaryMediaStore(@Value("${app.media.cloudinary-url:${CLOUDINARY_URL:}}") String cloudinaryUrl) {
+        if (cloudinaryUrl == null || cloudinaryUrl.isBlank()) {
+            throw new IllegalStateException("app.media.store=cloudinary requires CLOUDINARY_URL");
+        }
+        this.cloudinary = new Cloudinary(cloudinaryUrl);
+    }
+
+    @Override
+    public void put(String key, Path file, String contentType) throws IOException {
+        try {
+            cloudinary.uploader().upload(file.toFile(), ObjectUtils.asMap(
+                    "public_id", publicId(key),
+                    "resource_type", "image",
+                    "overwrite", false,
+                    "unique_filename", false));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return URI.create(url(key)).toURL().openStream();
+    }
+
+    @Override
+    public boolean exists(String key) {
+        try {
+            cloudinary.api().resource(publicId(key), ObjectUtils.emptyMap());
+            return true;
+        } catch (Exception ex) {
+            return false;
+        }
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<String> publicUrl(String key) {
+        return Optional.of(url(key));
+    }
+
+    @Override
+    public void deletePrefix(String prefix) throws IOException {
+        try {
+            cloudinary.api().deleteResourcesByPrefix(prefix, ObjectUtils.emptyMap());
+        } catch (Exception ex) {
+            throw new IOException("Cloudinary delete failed for " + prefix, ex);
+        }
+    }
+
+    private String url(String key) {
+        int dot = key.lastIndexOf('.');
+        return cloudinary.url().secure(true).resourceType("image")
+                .format(dot < 0 ? null : key.substring(dot + 1))
+                .generate(publicId(key));
+    }
+
+    // Cloudinary public ids carry no extension
+    private static String publicId(String key) {
+        int dot = key.lastIndexOf('.');
+        int slash = key.lastIndexOf('/');
+        return dot > slash ? key.substring(0, dot) : key;
+    }
+}
@@ -25,18 +25,29 @@ public class DepartmentService {
     @Autowired
     private SeminarRepository seminarRepository;
 
+    @Autowired
+    private ReferenceDataService referenceData;
+
     public Department addDepartment(Department d) {
         if (d.getName() == null || d.getName().trim().isEmpty()) {
             throw new ResponseStatusException(BAD_REQUEST, "Department name cannot be empty");
         }
-        if (repository.existsByNameIgnoreCase(d.getName())) {
+        if (referenceData.departmentByName(d.getName()).isPresent()) {
             throw new ResponseStatusException(CONFLICT, "Department already exists");
         }
-        return repository.save(d);
+        Department saved = repository.save(d);
+        referenceData.refresh();
+        return saved;
     }
 
+    // served from the reference-data snapshot
     public List<Department> getAllDepartments() {
-        return repository.findAll();
+        return referenceData.departments();
+    }
+
+    /** ETag of the current department list. */
+    public String departmentsEtag() {
+        return referenceData.snapshot().departmentsEtag();
     }
 
     public Department updateDepartment(String id, Department updated) {
@@ -44,8 +55,8 @@ public class DepartmentService {
             throw new ResponseStatusException(BAD_REQUEST, "Department name cannot be empty");
         }
         // check conflict: if another doc exists with same name (case-insensitive)
-        boolean nameExists = repository.existsByNameIgnoreCase(updated.getName());
-        return repository.findById(id).map(d -> {
+        boolean nameExists = referenceData.departmentByName(updated.getName()).isPresent();
+        Department saved = repository.findById(id).map(d -> {
             // If name exists and it's not the same document, throw conflict
             if (nameExists && !d.getName().equalsIgnoreCase(updated.getName())) {
                 throw new ResponseStatusException(CONFLICT, "Department already exists");
@@ -53,6 +64,8 @@ public class DepartmentService {
             d.setName(updated.getName());
             return repository.save(d);
         }).orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Department not found"));
+        referenceData.refresh();
+        return saved;
     }
 
     public void deleteDepartment(String id) {
@@ -60,6 +73,7 @@ public class DepartmentService {
             throw new ResponseStatusException(NOT_FOUND, "Department not found");
         }
         repository.deleteById(id);
+        referenceData.refresh();
     }
 
     // ============================
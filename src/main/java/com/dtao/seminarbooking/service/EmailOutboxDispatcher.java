@@ -0,0 +1,111 @@
+package com.dtao.seminarbooking.service;
+
+import com.dtao.seminarbooking.model.EmailOutbox;
+import com.dtao.seminarbooking.service.BrevoClient.MessageVersion;
+import com.dtao.seminarbooking.service.BrevoClient.SendResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Background worker that drains the email outbox. Every instance of the app runs one;
+ * leases taken through findAndModify keep them from sending the same entry twice,
+ * so throughput grows with the number of instances.
+ *
+ * Each poll claims only as many entries as {@link BrevoSendGuard} currently allows and
+ * sends them in parallel. While the circuit is open nothing is claimed, and entries
+ * refused or throttled mid-batch are deferred without using up a retry attempt.
+ */
+@Component
+@ConditionalOnProperty(name = "app.mail.outbox.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+public class EmailOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private final EmailOutboxService outboxService;
+    private final BrevoClient brevoClient;
+    private final TaskExecutor sendExecutor;
+    private final String workerId;
+
+    @Value("${app.mail.from:no-reply@yourdomain.com}")
+    private String mailFrom;
+
+    @Value("${app.mail.company:DTAO OFFICIAL}")
+    private String companyName;
+
+    @Value("${app.mail.outbox.batch-size:20}")
+    private int batchSize;
+
+    public EmailOutboxDispatcher(EmailOutboxService outboxService, BrevoClient brevoClient,
+                                 @Qualifier("mailSendExecutor") TaskExecutor sendExecutor) {
+        this.outboxService = outboxService;
+        this.brevoClient = brevoClient;
+        this.sendExecutor = sendExecutor;
+        this.workerId = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:2000}",
+            initialDelayString = "${app.mail.outbox.initial-delay-ms:5000}")
+    public void dispatch() {
+        int capacity = Math.min(batchSize, brevoClient.guard().available());
+        if (capacity <= 0) {
+            log.debug("[EmailOutboxDispatcher] Brevo circuit {} - leaving outbox entries pending", brevoClient.guard().state());
+            return;
+        }
+
+        List<EmailOutbox> batch;
+        try {
+            batch = outboxService.claim(workerId, capacity);
+        } catch (Exception ex) {
+            log.warn("[EmailOutboxDispatcher] could not claim outbox entries: {}", ex.getMessage());
+            return;
+        }
+        if (batch.isEmpty()) return;
+
+        CompletableFuture<?>[] sends = batch.stream()
+                .map(entry -> CompletableFuture.runAsync(() -> deliver(entry), sendExecutor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(sends).join();
+        log.info("[EmailOutboxDispatcher] worker={} processed {} outbox entries", workerId, batch.size());
+    }
+
+    private void deliver(EmailOutbox entry) {
+        try {
+            List<MessageVersion> versions = entry.getMessages().stream()
+                    .map(m -> new MessageVersion(m.getTo(), m.getSubject(), m.getHtmlContent()))
+                    .toList();
+            SendResult result = brevoClient.send(companyName, mailFrom, versions);
+            switch (result.status()) {
+                case SENT -> outboxService.markSent(entry, workerId);
+                case DEFERRED, THROTTLED -> outboxService.defer(entry, workerId, result.retryAfter(), result.detail());
+                default -> outboxService.markFailed(entry, workerId, result.status() + ": " + result.detail());
+            }
+        } catch (Exception ex) {
+            log.error("[EmailOutboxDispatcher] dispatch of {} failed: {}", entry.getId(), ex.getMessage(), ex);
+            try {
+                outboxService.markFailed(entry, workerId, ex.getMessage());
+            } catch (Exception inner) {
+                // lease expiry will hand the entry to another attempt
+                log.warn("[EmailOutboxDispatcher] could not reschedule {}: {}", entry.getId(), inner.getMessage());
+            }
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception ex) {
+            return "worker";
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.dtao.seminarbooking.service;
+
+import com.dtao.seminarbooking.model.EmailOutbox;
+import com.dtao.seminarbooking.model.EmailOutbox.OutboxMessage;
+import com.dtao.seminarbooking.repo.EmailOutboxRepository;
+import com.dtao.seminarbooking.service.BrevoClient.MessageVersion;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Persistence side of the email outbox: enqueue, lease (findAndModify) and
+ * complete / reschedule entries. Sending happens in {@link EmailOutboxDispatcher}.
+ */
+@Service
+public class EmailOutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final EmailOutboxRepository outboxRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.base-backoff-ms:5000}")
+    private long baseBackoffMs;
+
+    @Value("${app.mail.outbox.max-backoff-ms:900000}")
+    private long maxBackoffMs;
+
+    @Value("${app.mail.outbox.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${app.mail.outbox.retention-hours:72}")
+    private long retentionHours;
+
+    public EmailOutboxService(MongoTemplate mongoTemplate, EmailOutboxRepository outboxRepository,
+                              MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.outboxRepository = outboxRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Store a notification for delivery under the caller's idempotency key, which names
+     * the event (e.g. booking id + status + revision). A retried request carries the same
+     * key and is stored once; a new event always has a new key.
+     *
+     * @return true if the entry is stored (or one with the same key already was)
+     */
+    public boolean enqueueUnique(String dedupKey, List<MessageVersion> messages) {
+        if (messages == null || messages.isEmpty()) return false;
+
+        List<OutboxMessage> stored = new ArrayList<>(messages.size());
+        for (MessageVersion m : messages) {
+            stored.add(new OutboxMessage(m.to(), m.subject(), m.htmlContent()));
+        }
+        try {
+            outboxRepository.insert(new EmailOutbox(dedupKey, stored));
+            return true;
+        } catch (DuplicateKeyException dup) {
+            log.info("[EmailOutbox] duplicate notification ignored: {}", dedupKey);
+            return true;
+        }
+    }
+
+    /**
+     * Lease up to {@code max} due entries for this worker. Each claim is an atomic
+     * findAndModify, so several dispatcher instances never pick the same entry;
+     * entries whose lease expired (crashed worker) become claimable again.
+     */
+    public List<EmailOutbox> claim(String workerId, int max) {
+        List<EmailOutbox> claimed = new ArrayList<>();
+        for (int i = 0; i < max; i++) {
+            Instant now = Instant.now();
+            Query due = new Query(new Criteria().orOperator(
+                    Criteria.where("status").is(EmailOutbox.PENDING).and("nextAttemptAt").lte(now),
+                    Criteria.where("status").is(EmailOutbox.SENDING).and("lockedUntil").lte(now)))
+                    .with(Sort.by(Sort.Direction.ASC, "nextAttemptAt"));
+            Update lease = new Update()
+                    .set("status", EmailOutbox.SENDING)
+                    .set("lockedBy", workerId)
+                    .set("lockedUntil", now.plusMillis(leaseMs))
+                    .inc("attempts", 1);
+
+            EmailOutbox entry = mongoTemplate.findAndModify(due, lease,
+                    FindAndModifyOptions.options().returnNew(true), EmailOutbox.class);
+            if (entry == null) break;
+            claimed.add(entry);
+        }
+        return claimed;
+    }
+
+    public void markSent(EmailOutbox entry, String workerId) {
+        Instant now = Instant.now();
+        Update done = new Update()
+                .set("status", EmailOutbox.SENT)
+                .set("sentAt", now)
+                .set("expireAt", now.plus(retentionHours, ChronoUnit.HOURS))
+                .unset("lockedBy")
+                .unset("lockedUntil")
+                .unset("lastError");
+        mongoTemplate.updateFirst(ownedBy(entry, workerId), done, EmailOutbox.class);
+        completed("sent");
+    }
+
+    /**
+     * Reschedule with exponential backoff and jitter, or park as DEAD once
+     * {@code app.mail.outbox.max-attempts} is reached.
+     */
+    public void markFailed(EmailOutbox entry, String workerId, String error) {
+        Instant now = Instant.now();
+        Update failed = new Update()
+                .set("lastError", error)
+                .unset("lockedBy")
+                .unset("lockedUntil");
+        if (entry.getAttempts() >= maxAttempts) {
+            failed.set("status", EmailOutbox.DEAD)
+                    .set("expireAt", now.plus(retentionHours, ChronoUnit.HOURS));
+            log.error("[EmailOutbox] giving up on {} after {} attempts: {}", entry.getId(), entry.getAttempts(), error);
+            completed("dead");
+        } else {
+            failed.set("status", EmailOutbox.PENDING)
+                    .set("nextAttemptAt", now.plus(backoff(entry.getAttempts())));
+            completed("retry");
+        }
+        mongoTemplate.updateFirst(ownedBy(entry, workerId), failed, EmailOutbox.class);
+    }
+
+    /**
+     * Put a claimed entry back without counting the attempt: used when the send was
+     * refused locally (circuit open) or Brevo asked us to slow down (429).
+     */
+    public void defer(EmailOutbox entry, String workerId, Duration delay, String reason) {
+        Update deferred = new Update()
+                .set("status", EmailOutbox.PENDING)
+                .set("nextAttemptAt", Instant.now().plus(delay))
+                .set("lastError", reason)
+                .inc("attempts", -1)
+                .unset("lockedBy")
+                .unset("lockedUntil");
+        mongoTemplate.updateFirst(ownedBy(entry, workerId), deferred, EmailOutbox.class);
+        completed("deferred");
+    }
+
+    /** Number of entries currently in the given state (for the queue-depth gauge). */
+    public long countByStatus(String status) {
+        return mongoTemplate.count(new Query(Criteria.where("status").is(status)), EmailOutbox.class);
+    }
+
+    private void completed(String result) {
+        meterRegistry.counter("email.outbox.processed", "result", result).increment();
+    }
+
+    // "equal jitter": half of the exponential delay is fixed, the other half random
+    private Duration backoff(int attempts) {
+        long exp = baseBackoffMs << Math.min(Math.max(attempts - 1, 0), 20);
+        long capped = Math.min(exp, maxBackoffMs);
+        long half = capped / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+    }
+
+    private Query ownedBy(EmailOutbox entry, String workerId) {
+        return new Query(Criteria.where("_id").is(entry.getId()).and("lockedBy").is(workerId));
+    }
+}
@@ -1,88 +1,143 @@
 package com.dtao.seminarbooking.service;
 
 import com.dtao.seminarbooking.model.HallOperator;
+import com.dtao.seminarbooking.model.OperatorDigestEvent;
 import com.dtao.seminarbooking.model.Seminar;
 import com.dtao.seminarbooking.model.User;
+import com.dtao.seminarbooking.service.BrevoClient.MessageVersion;
+import com.dtao.seminarbooking.service.EmailTemplateEngine.Html;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 /**
  * EmailService using Brevo HTTP API (via BrevoClient).
  * Contains all methods used by controllers so compile succeeds.
+ *
+ * Notifications are rendered here and written to the durable email outbox;
+ * {@link EmailOutboxDispatcher} delivers them with retries. Only the OTP mail
+ * skips the outbox: OtpService sends it directly on its own priority lane. Bodies come from the precompiled templates in
+ * {@code templates/email}; per-booking rows are rendered once ({@link BookingView})
+ * and shared by all recipients of an event.
  */
 @Service
 public class EmailService {
     private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
+    private static final DateTimeFormatter DIGEST_TIME = DateTimeFormatter.ofPattern("dd MMM yyyy, HH:mm");
 
     private final BrevoClient brevoClient;
+    private final EmailOutboxService outboxService;
+    private final EmailTemplateEngine templates;
+
+    // static fragments, rendered once
+    private final Html approvedBanner;
+    private final Html receivedApproved;
+    private final Html receivedPending;
+    private final Html statusApproved;
+    private final Html statusRejected;
+    private final Html statusCancelRequested;
+    private final Html statusCancelled;
+    private final Html headCreatedClosing;
+    private final Html locationRow;
+    private final Html confirmedLocationRow;
 
     @Value("${app.mail.from:no-reply@yourdomain.com}")
     private String mailFrom;
 
-    @Value("${app.mail.owner:KURAPARTHI MAHESWAR REDDY}")
-    private String ownerName;
-
     @Value("${app.mail.company:DTAO OFFICIAL}")
     private String companyName;
 
-    @Value("${app.mail.website:https://nhcehallbooking.netlify.app/}")
-    private String websiteUrl;
+    @Value("${app.mail.timezone:Asia/Kolkata}")
+    private String mailTimezone;
 
-    public EmailService(BrevoClient brevoClient) {
+    public EmailService(BrevoClient brevoClient, EmailOutboxService outboxService, EmailTemplateEngine templates) {
         this.brevoClient = Objects.requireNonNull(brevoClient, "brevoClient must not be null");
+        this.outboxService = Objects.requireNonNull(outboxService, "outboxService must not be null");
+        this.templates = Objects.requireNonNull(templates, "templates must not be null");
+
+        this.approvedBanner = templates.fragment("_approved-banner");
+        this.receivedApproved = templates.fragment("_received-approved");
+        this.receivedPending = templates.fragment("_received-pending");
+        this.statusApproved = templates.fragment("_status-approved");
+        this.statusRejected = templates.fragment("_status-rejected");
+        this.statusCancelRequested = templates.fragment("_status-cancel-requested");
+        this.statusCancelled = templates.fragment("_status-cancelled");
+        this.headCreatedClosing = templates.fragment("_head-created-closing");
+        this.locationRow = row("Location", "Seminar Hall Block A, New Horizon College (please coordinate internally)");
+        this.confirmedLocationRow = row("Location", "Seminar Hall Block A, New Horizon College");
     }
 
-    // -------------------- OTP (synchronous) --------------------
-    public boolean sendOtp(String toEmail, String otp) {
+    // -------------------- OTP (priority lane, bypasses the outbox) --------------------
+    public BrevoClient.SendResult sendOtp(String toEmail, String otp, long ttlMinutes) {
         if (!validEmail(toEmail) || otp == null) {
             logger.warn("sendOtp called with invalid args: toEmail={}, otpNull={}", toEmail, otp == null);
-            return false;
+            return BrevoClient.SendResult.of(BrevoClient.SendResult.Status.REJECTED, "invalid recipient");
         }
         String subject = "Seminar Booking - Password Reset OTP";
-        String html = "<html><body style='font-family:Arial,Helvetica,sans-serif;padding:18px'>" +
-                "<h2>OTP for Seminar Booking</h2>" +
-                "<p>Your OTP is: <strong>" + escape(otp) + "</strong></p>" +
-                "<p>Valid for 5 minutes.</p>" +
-                "</body></html>";
-        boolean ok = brevoClient.sendEmail(companyName, mailFrom, List.of(toEmail), subject, html);
-        logger.info("[EmailService] sendOtp -> {} for {}", ok, toEmail);
-        return ok;
+        String html = templates.render("otp", Map.of("otp", otp, "ttlMinutes", ttlMinutes));
+        BrevoClient.SendResult result = brevoClient.sendPriority(companyName, mailFrom, new MessageVersion(List.of(toEmail), subject, html));
+        logger.info("[EmailService] sendOtp -> {} for {}", result.status(), toEmail);
+        return result;
     }
 
     // -------------------- Welcome --------------------
-    @Async
     public CompletableFuture<Boolean> sendWelcomeEmail(User user) {
-        if (user == null || !validEmail(user.getEmail())) return done(false);
+        return done(send(welcomeMessage(user), "sendWelcomeEmail", user == null ? null : user.getId()));
+    }
+
+    public Optional<MessageVersion> welcomeMessage(User user) {
+        if (user == null || !validEmail(user.getEmail())) return Optional.empty();
         String to = user.getEmail();
         String name = user.getName() == null ? "User" : user.getName();
 
         String subject = "Welcome to the Seminar Booking Portal — " + companyName;
-        String html = "<html><body style='font-family:Arial,Helvetica,sans-serif;color:#111;padding:18px;'>" +
-                "<div style='max-width:650px;margin:0 auto;border:1px solid #e6e6e6;padding:18px;border-radius:6px;'>" +
-                "<h2 style='color:#0b5ed7'>Welcome to " + escape(companyName) + "</h2>" +
-                "<p>Dear " + escape(name) + ",</p>" +
-                "<p>Thank you for creating an account on the Seminar Booking portal.</p>" +
-                "<p><strong>Account</strong><br/>Email: " + escape(to) + "</p>" +
-                "<p>Visit: <a href='" + websiteUrl + "'>" + websiteUrl + "</a></p>" +
-                footerHtml() + "</div></body></html>";
-
-        boolean ok = brevoClient.sendEmail(companyName, mailFrom, List.of(to), subject, html);
-        logger.info("[EmailService] sendWelcomeEmail -> {} for {}", ok, to);
-        return done(ok);
+        String html = templates.render("welcome", Map.of("name", name, "email", to));
+        return message(to, subject, html);
+    }
+
+    // -------------------- Per-event rows --------------------
+    /**
+     * Table rows for one booking, rendered once per event and shared by every
+     * message built for it (requester + all hall operators).
+     */
+    public record BookingView(Seminar seminar, Html coreRows, Html bookedByRow, Html contactRows, Html emailRow) {
+    }
+
+    public BookingView bookingView(Seminar s) {
+        Html core = rows(
+                row("Hall", s.getHallName()),
+                row("Date", s.getDate()),
+                row("Start Time", s.getStartTime()),
+                row("End Time", s.getEndTime()),
+                row("Event", s.getSlotTitle()));
+        Html bookedBy = row("Booked By", safe(s.getBookingName()) + " (" + safe(s.getEmail()) + ")");
+        Html contact = rows(row("Department", s.getDepartment()), row("Contact", s.getPhone()));
+        return new BookingView(s, core, bookedBy, contact, row("Email", s.getEmail()));
     }
 
     // -------------------- Booking created --------------------
-    @Async
     public CompletableFuture<Boolean> sendBookingCreatedEmail(Seminar s) {
-        if (s == null || !validEmail(s.getEmail())) return done(false);
-        String to = s.getEmail();
+        return done(send(bookingCreatedMessage(s), "sendBookingCreatedEmail", revisionKey(s)));
+    }
+
+    public Optional<MessageVersion> bookingCreatedMessage(Seminar s) {
+        if (s == null) return Optional.empty();
+        return bookingCreatedMessage(bookingView(s));
+    }
+
+    public Optional<MessageVersion> bookingCreatedMessage(BookingView v) {
+        Seminar s = v.seminar();
+        if (!validEmail(s.getEmail())) return Optional.empty();
         String subject = "Seminar booking received — " + safe(s.getHallName());
 
         boolean isApproved = false;
@@ -93,281 +148,242 @@ public class EmailService {
             if ("ADMIN".equalsIgnoreCase(createdBy)) isApproved = true;
         }
 
-        StringBuilder html = new StringBuilder();
-        html.append("<html><body style='font-family:Arial,Helvetica,sans-serif;padding:14px;color:#111'>")
-                .append("<div style='max-width:720px;margin:0 auto;border:1px solid #eaeaea;padding:16px;border-radius:8px;background:#fff'>");
-
-        if (isApproved) {
-            html.append("<div style='background:#e9f7ef;border:1px solid #c7efd3;padding:10px;border-radius:6px;margin-bottom:12px'>")
-                    .append("<strong style='color:#2f8a4b'>Approved by Administrator</strong>")
-                    .append("<div style='font-size:13px;color:#444;margin-top:6px'>Your booking has been approved by the administrator.</div>")
-                    .append("</div>");
-        }
-
-        html.append("<h2 style='color:#0b5ed7;margin-top:0;'>Seminar Booking Received</h2>")
-                .append("<p>Dear ").append(escape(s.getBookingName() == null ? "User" : s.getBookingName())).append(",</p>")
-                .append("<p>Your booking request has been successfully received. Details below:</p>")
-                .append("<table style='width:100%;border-collapse:collapse;margin-top:10px;'>")
-                .append(rowTd("Hall", safe(s.getHallName())))
-                .append(rowTd("Date", safe(s.getDate())))
-                .append(rowTd("Start Time", safe(s.getStartTime())))
-                .append(rowTd("End Time", safe(s.getEndTime())))
-                .append(rowTd("Event", safe(s.getSlotTitle())))
-                .append(rowTd("Department", safe(s.getDepartment())))
-                .append(rowTd("Contact", safe(s.getPhone())))
-                .append(rowTd("Email", safe(s.getEmail())))
-                .append("</table>");
-
-        if (isApproved)
-            html.append("<p style='margin-top:12px;color:#333'>Status: <strong style='color:green'>APPROVED</strong></p>");
-        else
-            html.append("<p style='margin-top:12px;color:#333'>Our admin team will review this request and notify you when the status changes.</p>");
-
-        html.append(footerHtml())
-                .append("</div></body></html>");
-
-        boolean ok = brevoClient.sendEmail(companyName, mailFrom, List.of(to), subject, html.toString());
-        logger.info("[EmailService] sendBookingCreatedEmail -> {} for {}", ok, to);
-        return done(ok);
+        String html = templates.render("booking-created", Map.of(
+                "banner", isApproved ? approvedBanner : Html.EMPTY,
+                "name", s.getBookingName() == null ? "User" : s.getBookingName(),
+                "rows", rows(v.coreRows(), v.contactRows(), v.emailRow()),
+                "statusLine", isApproved ? receivedApproved : receivedPending));
+        return message(s.getEmail(), subject, html);
     }
 
     // -------------------- Seminar removed --------------------
-    @Async
     public CompletableFuture<Boolean> sendSeminarRemovedEmail(Seminar s) {
-        if (s == null || !validEmail(s.getEmail())) return done(false);
-        String to = s.getEmail();
+        return done(send(seminarRemovedMessage(s), "sendSeminarRemovedEmail", revisionKey(s)));
+    }
+
+    public Optional<MessageVersion> seminarRemovedMessage(Seminar s) {
+        if (s == null) return Optional.empty();
+        return seminarRemovedMessage(bookingView(s));
+    }
+
+    public Optional<MessageVersion> seminarRemovedMessage(BookingView v) {
+        Seminar s = v.seminar();
+        if (!validEmail(s.getEmail())) return Optional.empty();
         String subject = "Seminar booking removed — " + safe(s.getHallName());
 
-        StringBuilder html = new StringBuilder();
-        html.append("<html><body style='font-family:Arial,Helvetica,sans-serif;padding:14px;color:#111'>")
-                .append("<div style='max-width:720px;margin:0 auto;border:1px solid #eaeaea;padding:16px;border-radius:8px'>")
-                .append("<h2 style='color:#d9534f'>Seminar Booking Removed</h2>")
-                .append("<p>Dear ").append(escape(s.getBookingName() == null ? "User" : s.getBookingName())).append(",</p>")
-                .append("<p>Your booking has been removed from the portal. Details below:</p>")
-                .append("<table style='width:100%;border-collapse:collapse'>")
-                .append(rowTd("Hall", safe(s.getHallName())))
-                .append(rowTd("Date", safe(s.getDate())))
-                .append(rowTd("Start Time", safe(s.getStartTime())))
-                .append(rowTd("End Time", safe(s.getEndTime())))
-                .append(rowTd("Event", safe(s.getSlotTitle())))
-                .append("</table>")
-                .append("<p>If you have questions, please contact your department or the college administration.</p>")
-                .append(footerHtml())
-                .append("</div></body></html>");
-
-        boolean ok = brevoClient.sendEmail(companyName, mailFrom, List.of(to), subject, html.toString());
-        logger.info("[EmailService] sendSeminarRemovedEmail -> {} for {}", ok, to);
-        return done(ok);
+        String html = templates.render("seminar-removed", Map.of(
+                "name", s.getBookingName() == null ? "User" : s.getBookingName(),
+                "rows", v.coreRows()));
+        return message(s.getEmail(), subject, html);
     }
 
     // -------------------- Account removed --------------------
-    @Async
     public CompletableFuture<Boolean> sendAccountRemovedEmail(User user) {
         if (user == null || !validEmail(user.getEmail())) return done(false);
         String to = user.getEmail();
         String subject = "Account removed from Seminar Booking portal — " + companyName;
 
-        String html = "<html><body style='font-family:Arial,Helvetica,sans-serif;padding:14px;color:#111'>" +
-                "<div style='max-width:720px;margin:0 auto;border:1px solid #eaeaea;padding:16px;border-radius:8px'>" +
-                "<h2 style='color:#d9534f'>Account Removed</h2>" +
-                "<p>Dear " + escape(user.getName() == null ? "User" : user.getName()) + ",</p>" +
-                "<p>We are writing to confirm that your account associated with <strong>" + escape(user.getEmail()) + "</strong> has been removed from the Seminar Booking portal.</p>" +
-                footerHtml() + "</div></body></html>";
-
-        boolean ok = brevoClient.sendEmail(companyName, mailFrom, List.of(to), subject, html);
-        logger.info("[EmailService] sendAccountRemovedEmail -> {} for {}", ok, to);
-        return done(ok);
+        String html = templates.render("account-removed", Map.of(
+                "name", user.getName() == null ? "User" : user.getName(),
+                "email", to));
+        return done(send(message(to, subject, html), "sendAccountRemovedEmail", user.getId()));
     }
 
     // -------------------- Hall head notifications --------------------
-    @Async
     public CompletableFuture<Boolean> sendHallHeadBookingCreatedEmail(HallOperator head, Seminar s) {
-        if (head == null || !validEmail(head.getHeadEmail()) || s == null) return done(false);
-        String to = head.getHeadEmail();
-        String subject = "New booking requested for " + safe(s.getHallName());
-
-        String html = "<html><body style='font-family:Arial,Helvetica,sans-serif;padding:14px;color:#111'>"
-                + "<div style='max-width:720px;margin:0 auto;border:1px solid #eaeaea;padding:16px;border-radius:8px'>"
-                + "<h2 style='color:#0b5ed7;margin-top:0;'>New Booking Request</h2>"
-                + "<p>Hello " + escape(head.getHeadName()) + ",</p>"
-                + "<p>A new booking has been created for your hall. Details:</p>"
-                + "<table style='width:100%;border-collapse:collapse;margin-top:10px;'>"
-                + rowTd("Hall", safe(s.getHallName()))
-                + rowTd("Date", safe(s.getDate()))
-                + rowTd("Start Time", safe(s.getStartTime()))
-                + rowTd("End Time", safe(s.getEndTime()))
-                + rowTd("Event", safe(s.getSlotTitle()))
-                + rowTd("Booked By", safe(s.getBookingName()) + " (" + safe(s.getEmail()) + ")")
-                + rowTd("Department", safe(s.getDepartment()))
-                + rowTd("Contact", safe(s.getPhone()))
-                + rowTd("Location", "Seminar Hall Block A, New Horizon College (please coordinate internally)")
-                + "</table>"
-                + "<p>Please coordinate with the requester as needed. You may view full details in the admin portal.</p>"
-                + footerHtml() + "</div></body></html>";
-
-        boolean ok = brevoClient.sendEmail(companyName, mailFrom, List.of(to), subject, html);
-        logger.info("[EmailService] sendHallHeadBookingCreatedEmail -> {} for {}", ok, to);
-        return done(ok);
+        return done(send(hallHeadBookingCreatedMessage(head, s), "sendHallHeadBookingCreatedEmail", revisionKey(s)));
+    }
+
+    public Optional<MessageVersion> hallHeadBookingCreatedMessage(HallOperator head, Seminar s) {
+        if (s == null) return Optional.empty();
+        return hallHeadBookingCreatedMessage(head, bookingView(s));
+    }
+
+    public Optional<MessageVersion> hallHeadBookingCreatedMessage(HallOperator head, BookingView v) {
+        return headMessage(head, v, "New booking requested for ", "#0b5ed7", "New Booking Request",
+                "A new booking has been created for your hall. Details:",
+                rows(v.coreRows(), v.bookedByRow(), v.contactRows(), locationRow), headCreatedClosing);
     }
 
-    @Async
     public CompletableFuture<Boolean> sendHallHeadBookingApprovedEmail(HallOperator head, Seminar s, String reason) {
-        if (head == null || !validEmail(head.getHeadEmail()) || s == null) return done(false);
-        String to = head.getHeadEmail();
-        String subject = "Booking confirmed for " + safe(s.getHallName());
-
-        StringBuilder html = new StringBuilder();
-        html.append("<html><body style='font-family:Arial,Helvetica,sans-serif;padding:14px;color:#111'>")
-                .append("<div style='max-width:720px;margin:0 auto;border:1px solid #eaeaea;padding:16px;border-radius:8px'>")
-                .append("<h2 style='color:#28a745'>Booking Confirmed</h2>")
-                .append("<p>Hello ").append(escape(head.getHeadName())).append(",</p>")
-                .append("<p>The following booking has been confirmed by admin:</p>")
-                .append("<table style='width:100%;border-collapse:collapse'>")
-                .append(rowTd("Hall", safe(s.getHallName())))
-                .append(rowTd("Date", safe(s.getDate())))
-                .append(rowTd("Start Time", safe(s.getStartTime())))
-                .append(rowTd("End Time", safe(s.getEndTime())))
-                .append(rowTd("Event", safe(s.getSlotTitle())))
-                .append(rowTd("Booked by", safe(s.getBookingName()) + " (" + safe(s.getEmail()) + ")"))
-                .append(rowTd("Location", "Seminar Hall Block A, New Horizon College"));
-        if (reason != null && !reason.isBlank()) html.append(rowTd("Admin remarks", escape(reason)));
-        html.append("</table>").append(footerHtml()).append("</div></body></html>");
-
-        boolean ok = brevoClient.sendEmail(companyName, mailFrom, List.of(to), subject, html.toString());
-        logger.info("[EmailService] sendHallHeadBookingApprovedEmail -> {} for {}", ok, to);
-        return done(ok);
+        return done(send(hallHeadBookingApprovedMessage(head, s, reason), "sendHallHeadBookingApprovedEmail", revisionKey(s)));
+    }
+
+    public Optional<MessageVersion> hallHeadBookingApprovedMessage(HallOperator head, Seminar s, String reason) {
+        if (s == null) return Optional.empty();
+        return hallHeadBookingApprovedMessage(head, bookingView(s), reason);
+    }
+
+    public Optional<MessageVersion> hallHeadBookingApprovedMessage(HallOperator head, BookingView v, String reason) {
+        return headMessage(head, v, "Booking confirmed for ", "#28a745", "Booking Confirmed",
+                "The following booking has been confirmed by admin:",
+                rows(v.coreRows(), v.bookedByRow(), confirmedLocationRow, optionalRow("Admin remarks", reason)), Html.EMPTY);
     }
 
-    @Async
     public CompletableFuture<Boolean> sendHallHeadBookingRejectedEmail(HallOperator head, Seminar s, String reason) {
-        if (head == null || !validEmail(head.getHeadEmail()) || s == null) return done(false);
-        String to = head.getHeadEmail();
-        String subject = "Booking rejected for " + safe(s.getHallName());
-
-        StringBuilder html = new StringBuilder();
-        html.append("<html><body style='font-family:Arial,Helvetica,sans-serif;padding:14px;color:#111'>")
-                .append("<div style='max-width:720px;margin:0 auto;border:1px solid #eaeaea;padding:16px;border-radius:8px'>")
-                .append("<h2 style='color:#dc3545'>Booking Rejected</h2>")
-                .append("<p>Hello ").append(escape(head.getHeadName())).append(",</p>")
-                .append("<p>The following booking was rejected by admin:</p>")
-                .append("<table style='width:100%;border-collapse:collapse'>")
-                .append(rowTd("Hall", safe(s.getHallName())))
-                .append(rowTd("Date", safe(s.getDate())))
-                .append(rowTd("Start Time", safe(s.getStartTime())))
-                .append(rowTd("End Time", safe(s.getEndTime())))
-                .append(rowTd("Event", safe(s.getSlotTitle())))
-                .append(rowTd("Booked by", safe(s.getBookingName()) + " (" + safe(s.getEmail()) + ")"));
-        if (reason != null && !reason.isBlank()) html.append(rowTd("Reason", escape(reason)));
-        html.append("</table>").append(footerHtml()).append("</div></body></html>");
-
-        boolean ok = brevoClient.sendEmail(companyName, mailFrom, List.of(to), subject, html.toString());
-        logger.info("[EmailService] sendHallHeadBookingRejectedEmail -> {} for {}", ok, to);
-        return done(ok);
+        return done(send(hallHeadBookingRejectedMessage(head, s, reason), "sendHallHeadBookingRejectedEmail", revisionKey(s)));
+    }
+
+    public Optional<MessageVersion> hallHeadBookingRejectedMessage(HallOperator head, Seminar s, String reason) {
+        if (s == null) return Optional.empty();
+        return hallHeadBookingRejectedMessage(head, bookingView(s), reason);
+    }
+
+    public Optional<MessageVersion> hallHeadBookingRejectedMessage(HallOperator head, BookingView v, String reason) {
+        return headMessage(head, v, "Booking rejected for ", "#dc3545", "Booking Rejected",
+                "The following booking was rejected by admin:",
+                rows(v.coreRows(), v.bookedByRow(), optionalRow("Reason", reason)), Html.EMPTY);
     }
 
-    @Async
     public CompletableFuture<Boolean> sendHallHeadBookingCancelledEmail(HallOperator head, Seminar s, String reason) {
-        if (head == null || !validEmail(head.getHeadEmail()) || s == null) return done(false);
-        String to = head.getHeadEmail();
-        String subject = "Booking cancelled for " + safe(s.getHallName());
-
-        StringBuilder html = new StringBuilder();
-        html.append("<html><body style='font-family:Arial,Helvetica,sans-serif;padding:14px;color:#111'>")
-                .append("<div style='max-width:720px;margin:0 auto;border:1px solid #eaeaea;padding:16px;border-radius:8px'>")
-                .append("<h2 style='color:#fd7e14'>Booking Cancelled</h2>")
-                .append("<p>Hello ").append(escape(head.getHeadName())).append(",</p>")
-                .append("<p>The following booking has been cancelled:</p>")
-                .append("<table style='width:100%;border-collapse:collapse'>")
-                .append(rowTd("Hall", safe(s.getHallName())))
-                .append(rowTd("Date", safe(s.getDate())))
-                .append(rowTd("Start Time", safe(s.getStartTime())))
-                .append(rowTd("End Time", safe(s.getEndTime())))
-                .append(rowTd("Event", safe(s.getSlotTitle())));
-        if (reason != null && !reason.isBlank()) html.append(rowTd("Reason", escape(reason)));
-        html.append("</table>").append(footerHtml()).append("</div></body></html>");
-
-        boolean ok = brevoClient.sendEmail(companyName, mailFrom, List.of(to), subject, html.toString());
-        logger.info("[EmailService] sendHallHeadBookingCancelledEmail -> {} for {}", ok, to);
-        return done(ok);
+        return done(send(hallHeadBookingCancelledMessage(head, s, reason), "sendHallHeadBookingCancelledEmail", revisionKey(s)));
+    }
+
+    public Optional<MessageVersion> hallHeadBookingCancelledMessage(HallOperator head, Seminar s, String reason) {
+        if (s == null) return Optional.empty();
+        return hallHeadBookingCancelledMessage(head, bookingView(s), reason);
+    }
+
+    public Optional<MessageVersion> hallHeadBookingCancelledMessage(HallOperator head, BookingView v, String reason) {
+        return headMessage(head, v, "Booking cancelled for ", "#fd7e14", "Booking Cancelled",
+                "The following booking has been cancelled:",
+                rows(v.coreRows(), optionalRow("Reason", reason)), Html.EMPTY);
+    }
+
+    private Optional<MessageVersion> headMessage(HallOperator head, BookingView v, String subjectPrefix, String color,
+                                                 String title, String intro, Html rows, Html closing) {
+        if (head == null || !validEmail(head.getHeadEmail())) return Optional.empty();
+        String html = templates.render("head-booking", Map.of(
+                "color", color,
+                "title", title,
+                "name", head.getHeadName() == null ? "" : head.getHeadName(),
+                "intro", intro,
+                "rows", rows,
+                "closing", closing));
+        return message(head.getHeadEmail(), subjectPrefix + safe(v.seminar().getHallName()), html);
     }
 
     // -------------------- Generic status notification --------------------
-    @Async
     public CompletableFuture<Boolean> sendStatusNotification(String toEmail, Seminar seminar, String newStatus, String reason) {
-        if (!validEmail(toEmail)) return done(false);
+        return done(send(statusNotificationMessage(toEmail, seminar, newStatus, reason), "sendStatusNotification",
+                newStatus + ":" + revisionKey(seminar)));
+    }
+
+    public Optional<MessageVersion> statusNotificationMessage(String toEmail, Seminar seminar, String newStatus, String reason) {
+        if (seminar == null) return Optional.empty();
+        return statusNotificationMessage(toEmail, bookingView(seminar), newStatus, reason);
+    }
+
+    public Optional<MessageVersion> statusNotificationMessage(String toEmail, BookingView v, String newStatus, String reason) {
+        if (!validEmail(toEmail)) return Optional.empty();
+        Seminar seminar = v.seminar();
         String status = newStatus == null ? "UPDATE" : newStatus.toUpperCase();
-        String subject = "Seminar Booking Update — " + (seminar == null ? "" : safe(seminar.getHallName()));
-        if ("APPROVED".equals(status)) subject = "Seminar Booking Confirmed — " + safe(seminar.getHallName());
-        if ("REJECTED".equals(status)) subject = "Seminar Booking Rejected — " + safe(seminar.getHallName());
-        if ("CANCELLED".equals(status)) subject = "Seminar Booking Cancelled — " + safe(seminar.getHallName());
-        if ("CANCEL_REQUESTED".equals(status)) subject = "Seminar Cancellation Requested — " + safe(seminar.getHallName());
-
-        StringBuilder html = new StringBuilder();
-        html.append("<html><body style='font-family:Arial,Helvetica,sans-serif;color:#111;background:#fff;padding:18px;'>")
-                .append("<div style='max-width:720px;margin:0 auto;border:1px solid #eaeaea;padding:18px;border-radius:8px;'>")
-                .append("<h2 style='color:#0b5ed7;margin:0 0 12px 0;'>Seminar Booking Notification</h2>")
-                .append("<p>Hello,</p>")
-                .append("<p>There is an update on your seminar booking:</p>")
-                .append("<table style='width:100%;border-collapse:collapse;margin-top:10px'>")
-                .append(rowTd("Hall", safe(seminar.getHallName())))
-                .append(rowTd("Date", safe(seminar.getDate())))
-                .append(rowTd("Start Time", safe(seminar.getStartTime())))
-                .append(rowTd("End Time", safe(seminar.getEndTime())))
-                .append(rowTd("Event", safe(seminar.getSlotTitle())))
-                .append(rowTd("Department", safe(seminar.getDepartment())))
-                .append(rowTd("Contact", safe(seminar.getPhone())))
-                .append(rowTd("Email", safe(seminar.getEmail())))
-                .append(rowTd("Status", escape(status)));
-        if (reason != null && !reason.isBlank()) html.append(rowTd("Remarks", escape(reason)));
-        html.append("</table>").append("<div style='margin-top:14px'>");
-
-        switch (status) {
-            case "APPROVED":
-                html.append("<p>Your booking has been <strong style='color:green'>APPROVED</strong>.</p>");
-                break;
-            case "REJECTED":
-                html.append("<p>Your booking request has been <strong style='color:red'>REJECTED</strong>.</p>");
-                break;
-            case "CANCEL_REQUESTED":
-                html.append("<p>A cancellation has been requested. Admin will review it shortly.</p>");
-                break;
-            case "CANCELLED":
-                html.append("<p>Your booking has been <strong style='color:orange'>CANCELLED</strong> by the admin.</p>");
-                break;
-            default:
-                html.append("<p>The booking status has changed to: <strong>").append(escape(status)).append("</strong>.</p>");
-                break;
-        }
+        String subject = switch (status) {
+            case "APPROVED" -> "Seminar Booking Confirmed — ";
+            case "REJECTED" -> "Seminar Booking Rejected — ";
+            case "CANCELLED" -> "Seminar Booking Cancelled — ";
+            case "CANCEL_REQUESTED" -> "Seminar Cancellation Requested — ";
+            default -> "Seminar Booking Update — ";
+        } + safe(seminar.getHallName());
+
+        Html outcome = switch (status) {
+            case "APPROVED" -> statusApproved;
+            case "REJECTED" -> statusRejected;
+            case "CANCEL_REQUESTED" -> statusCancelRequested;
+            case "CANCELLED" -> statusCancelled;
+            default -> templates.fragment("_status-other", Map.of("status", status));
+        };
+
+        String html = templates.render("status-notification", Map.of(
+                "rows", rows(v.coreRows(), v.contactRows(), v.emailRow(), row("Status", status), optionalRow("Remarks", reason)),
+                "outcome", outcome));
+        return message(toEmail, subject, html);
+    }
 
-        html.append("</div>").append(footerHtml()).append("</div></body></html>");
+    // -------------------- Operator digest --------------------
+    /** One summary mail covering every buffered event of an operator's digest window. */
+    public Optional<MessageVersion> operatorDigestMessage(String toEmail, String operatorName, Instant since,
+                                                          List<OperatorDigestEvent> events) {
+        if (!validEmail(toEmail) || events == null || events.isEmpty()) return Optional.empty();
+
+        StringBuilder rows = new StringBuilder();
+        for (OperatorDigestEvent e : events) {
+            rows.append(templates.fragment("_digest-row", Map.of(
+                    "event", safe(e.getEvent()),
+                    "hall", safe(e.getHallName()),
+                    "date", safe(e.getDate()),
+                    "time", safe(e.getStartTime()) + " - " + safe(e.getEndTime()),
+                    "title", safe(e.getSlotTitle()),
+                    "bookedBy", safe(e.getBookingName()) + " (" + safe(e.getBookingEmail()) + ")",
+                    "reason", safe(e.getReason()))).value());
+        }
+        String subject = "Booking summary: " + events.size() + " update(s) for your halls";
+        String html = templates.render("operator-digest", Map.of(
+                "name", operatorName == null ? "" : operatorName,
+                "count", events.size(),
+                "since", DIGEST_TIME.withZone(ZoneId.of(mailTimezone)).format(since),
+                "rows", new Html(rows.toString())));
+        return message(toEmail, subject, html);
+    }
 
-        boolean ok = brevoClient.sendEmail(companyName, mailFrom, List.of(toEmail), subject, html.toString());
-        logger.info("[EmailService] sendStatusNotification -> {} for {}", ok, toEmail);
+    // -------------------- Batched fan-out --------------------
+    /**
+     * Queues several already-rendered messages (e.g. requester + every hall operator
+     * for one booking event) as one outbox entry; the dispatcher delivers them
+     * through a single Brevo request.
+     *
+     * @param key idempotency key of the event, e.g. operation + {@link #revisionKey}
+     */
+    public CompletableFuture<Boolean> enqueueBatch(String key, List<MessageVersion> messages) {
+        if (messages == null || messages.isEmpty()) return done(false);
+        boolean ok = outboxService.enqueueUnique(key, messages);
+        logger.info("[EmailService] enqueueBatch {} -> {} for {} messages", key, ok, messages.size());
         return done(ok);
     }
 
+    /** Booking id plus the revision it was saved as; a later change of the same booking gets a new key. */
+    public static String revisionKey(Seminar s) {
+        if (s == null) return null;
+        String revision = s.getUpdatedAt() != null ? s.getUpdatedAt() : s.getAppliedAt();
+        return s.getId() + "@" + (revision == null ? "-" : revision);
+    }
+
     // -------------------- helpers --------------------
     private CompletableFuture<Boolean> done(boolean val) {
         return CompletableFuture.completedFuture(val);
     }
 
-    private String rowTd(String key, String value) {
-        return "<tr><td style='padding:6px;border:1px solid #f0f0f0'><strong>" + escape(key) + "</strong></td><td style='padding:6px;border:1px solid #f0f0f0'>" + escape(value) + "</td></tr>";
+    private Optional<MessageVersion> message(String to, String subject, String html) {
+        return Optional.of(new MessageVersion(List.of(to), subject, html));
     }
 
-    private String footerHtml() {
-        return "<hr style='border:none;border-top:1px solid #eee'/>" +
-                "<p style='font-size:13px'>Owner / Admin: <strong>" + escape(ownerName) + "</strong><br/>Company: <strong>" + escape(companyName) + "</strong></p>" +
-                "<p style='font-size:13px'>Visit: <a href='" + websiteUrl + "'>" + websiteUrl + "</a></p>";
+    // id names what the mail is about (user, operator or booking revision), so retries are stored once
+    private boolean send(Optional<MessageVersion> message, String operation, String id) {
+        if (message.isEmpty()) return false;
+        MessageVersion m = message.get();
+        boolean ok = outboxService.enqueueUnique(operation + ":" + id + ":" + String.join(",", m.to()), List.of(m));
+        logger.info("[EmailService] {} -> queued={} for {}", operation, ok, m.to());
+        return ok;
     }
 
-    private String safe(String s) {
-        return s == null || s.isBlank() ? "—" : s;
+    private Html row(String label, String value) {
+        return templates.fragment("_row", Map.of("label", label, "value", safe(value)));
     }
 
-    private String escape(String s) {
-        if (s == null) return "";
-        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    private Html optionalRow(String label, String value) {
+        return value == null || value.isBlank() ? Html.EMPTY : row(label, value);
+    }
+
+    private static Html rows(Html... parts) {
+        int size = 0;
+        for (Html p : parts) size += p.value().length();
+        StringBuilder out = new StringBuilder(size);
+        for (Html p : parts) out.append(p.value());
+        return new Html(out.toString());
+    }
+
+    private String safe(String s) {
+        return s == null || s.isBlank() ? "—" : s;
     }
 
     private boolean validEmail(String e) {
@@ -377,7 +393,6 @@ public class EmailService {
     }
 
     // -------------------- New Feature: Welcome email for new Hall Operator --------------------
-    @Async
     public CompletableFuture<Boolean> sendWelcomeEmailForOperator(HallOperator operator) {
         if (operator == null || !validEmail(operator.getHeadEmail())) return done(false);
         String to = operator.getHeadEmail();
@@ -385,58 +400,27 @@ public class EmailService {
 
         String subject = "Welcome as Hall Operator — " + companyName;
 
-        StringBuilder html = new StringBuilder();
-        html.append("<html><body style='font-family:Arial,Helvetica,sans-serif;padding:18px;color:#111;'>")
-                .append("<div style='max-width:720px;margin:0 auto;border:1px solid #eaeaea;padding:18px;border-radius:8px;'>")
-                .append("<h2 style='color:#0b5ed7;'>Welcome to ").append(escape(companyName)).append("</h2>")
-                .append("<p>Hello ").append(escape(name)).append(",</p>")
-                .append("<p>You have been successfully added as a Hall Operator.</p>")
-                .append("<p><strong>Assigned Halls:</strong></p><ul>");
-
+        StringBuilder halls = new StringBuilder();
         if (operator.getHallNames() != null && !operator.getHallNames().isEmpty()) {
             for (String hall : operator.getHallNames()) {
-                html.append("<li>").append(escape(hall)).append("</li>");
+                halls.append(templates.fragment("_list-item", Map.of("value", safe(hall))).value());
             }
         } else {
-            html.append("<li>No halls assigned yet</li>");
+            halls.append(templates.fragment("_list-item", Map.of("value", "No halls assigned yet")).value());
         }
 
-        html.append("</ul>")
-                .append("<p>You will receive notifications whenever a seminar booking is made in your assigned halls.</p>")
-                .append("<p>Access the admin portal here: <a href='").append(websiteUrl).append("'>").append(websiteUrl).append("</a></p>")
-                .append(footerHtml())
-                .append("</div></body></html>");
-
-        boolean ok = brevoClient.sendEmail(companyName, mailFrom, List.of(to), subject, html.toString());
-        logger.info("[EmailService] sendWelcomeEmailForOperator -> {} for {}", ok, to);
-        return done(ok);
+        String html = templates.render("operator-welcome", Map.of("name", name, "halls", new Html(halls.toString())));
+        return done(send(message(to, subject, html), "sendWelcomeEmailForOperator", operator.getId()));
     }
 
     // -------------------- New Feature: Notify all hall operators on booking --------------------
-    @Async
     public CompletableFuture<Boolean> notifyOperatorBookingEmail(List<HallOperator> operators, Seminar seminar) {
         if (operators == null || operators.isEmpty() || seminar == null) return done(false);
 
+        BookingView v = bookingView(seminar);
         String subject = "New Seminar Booking — " + safe(seminar.getHallName());
-        StringBuilder html = new StringBuilder();
-
-        html.append("<html><body style='font-family:Arial,Helvetica,sans-serif;padding:18px;color:#111;'>")
-                .append("<div style='max-width:720px;margin:0 auto;border:1px solid #eaeaea;padding:18px;border-radius:8px;'>")
-                .append("<h2 style='color:#0b5ed7;'>New Booking Created</h2>")
-                .append("<p>A new seminar booking has been made. Details below:</p>")
-                .append("<table style='width:100%;border-collapse:collapse;'>")
-                .append(rowTd("Hall", safe(seminar.getHallName())))
-                .append(rowTd("Date", safe(seminar.getDate())))
-                .append(rowTd("Start Time", safe(seminar.getStartTime())))
-                .append(rowTd("End Time", safe(seminar.getEndTime())))
-                .append(rowTd("Event", safe(seminar.getSlotTitle())))
-                .append(rowTd("Booked By", safe(seminar.getBookingName()) + " (" + safe(seminar.getEmail()) + ")"))
-                .append(rowTd("Department", safe(seminar.getDepartment())))
-                .append(rowTd("Contact", safe(seminar.getPhone())))
-                .append("</table>")
-                .append("<p>Please review this booking in your operator dashboard or coordinate as necessary.</p>")
-                .append(footerHtml())
-                .append("</div></body></html>");
+        String html = templates.render("operator-booking", Map.of(
+                "rows", rows(v.coreRows(), v.bookedByRow(), v.contactRows())));
 
         // collect all valid operator emails
         List<String> emails = operators.stream()
@@ -446,8 +430,8 @@ public class EmailService {
 
         if (emails.isEmpty()) return done(false);
 
-        boolean ok = brevoClient.sendEmail(companyName, mailFrom, emails, subject, html.toString());
-        logger.info("[EmailService] notifyOperatorBookingEmail -> sent to {} operators", emails.size());
+        boolean ok = send(Optional.of(new MessageVersion(emails, subject, html)), "notifyOperatorBookingEmail", revisionKey(seminar));
+        logger.info("[EmailService] notifyOperatorBookingEmail -> queued for {} operators", emails.size());
         return done(ok);
     }
 
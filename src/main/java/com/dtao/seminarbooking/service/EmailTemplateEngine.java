@@ -0,0 +1,213 @@
+package com.dtao.seminarbooking.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal logic-less template engine for the notification emails.
+ *
+ * Templates live in {@code classpath:templates/email/*.html} and are compiled once at
+ * startup into alternating static chunks and slots:
+ * <ul>
+ *   <li>{@code {{name}}} - value is HTML-escaped</li>
+ *   <li>{@code {{{name}}}} - value is inserted as-is (use for {@link Html} fragments)</li>
+ *   <li>{@code {{> partial}}} - another template inlined at compile time</li>
+ *   <li>{@code {{app.owner}}}, {@code {{app.company}}}, {@code {{app.website}}} - mail
+ *       settings baked into the static chunks at compile time</li>
+ * </ul>
+ * Header, footer and table chrome therefore cost one append each per message, and
+ * callers can render shared rows once as an {@link Html} fragment and reuse it for
+ * every recipient of the same event.
+ */
+@Component
+public class EmailTemplateEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailTemplateEngine.class);
+
+    private static final String LOCATION = "classpath*:templates/email/*.html";
+    private static final Pattern PARTIAL = Pattern.compile("\\{\\{>\\s*([\\w.\\-]+)\\s*}}");
+    private static final Pattern SLOT = Pattern.compile("\\{\\{\\{\\s*([\\w.]+)\\s*}}}|\\{\\{\\s*([\\w.]+)\\s*}}");
+    private static final int MAX_PARTIAL_DEPTH = 8;
+
+    /** Already-rendered markup; appended without escaping. */
+    public record Html(String value) {
+        public static final Html EMPTY = new Html("");
+
+        public Html {
+            value = value == null ? "" : value;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+
+    private final Map<String, Template> templates;
+
+    @Autowired
+    public EmailTemplateEngine(@Value("${app.mail.owner:KURAPARTHI MAHESWAR REDDY}") String ownerName,
+                               @Value("${app.mail.company:DTAO OFFICIAL}") String companyName,
+                               @Value("${app.mail.website:https://nhcehallbooking.netlify.app/}") String websiteUrl) {
+        this(loadSources(), Map.of(
+                "app.owner", nullToEmpty(ownerName),
+                "app.company", nullToEmpty(companyName),
+                "app.website", nullToEmpty(websiteUrl)));
+        log.info("[EmailTemplateEngine] compiled {} email templates", templates.size());
+    }
+
+    EmailTemplateEngine(Map<String, String> sources, Map<String, String> globals) {
+        Map<String, Template> compiled = new HashMap<>();
+        for (String name : sources.keySet()) {
+            compiled.put(name, compile(name, expandPartials(name, sources, 0), globals));
+        }
+        this.templates = Map.copyOf(compiled);
+    }
+
+    /** Render a full message body. */
+    public String render(String name, Map<String, ?> model) {
+        return template(name).render(model);
+    }
+
+    /** Render a reusable fragment (rows, banners, list items). */
+    public Html fragment(String name, Map<String, ?> model) {
+        return new Html(render(name, model));
+    }
+
+    /** A fragment without slots; its single static chunk is returned without copying. */
+    public Html fragment(String name) {
+        return new Html(render(name, Map.of()));
+    }
+
+    public static String escape(String s) {
+        if (s == null) return "";
+        StringBuilder out = null;
+        for (int i = 0; i < s.length(); i++) {
+            String rep = switch (s.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (rep != null && out == null) {
+                out = new StringBuilder(s.length() + 16).append(s, 0, i);
+            }
+            if (out != null) {
+                if (rep != null) out.append(rep);
+                else out.append(s.charAt(i));
+            }
+        }
+        return out == null ? s : out.toString();
+    }
+
+    // -------------------- compilation --------------------
+    private Template template(String name) {
+        Template t = templates.get(name);
+        if (t == null) throw new IllegalArgumentException("Unknown email template: " + name);
+        return t;
+    }
+
+    private static String expandPartials(String name, Map<String, String> sources, int depth) {
+        if (depth > MAX_PARTIAL_DEPTH) {
+            throw new IllegalStateException("Email template partials nested too deep at: " + name);
+        }
+        String source = sources.get(name);
+        if (source == null) throw new IllegalStateException("Missing email template: " + name);
+
+        Matcher m = PARTIAL.matcher(source);
+        StringBuilder out = new StringBuilder(source.length());
+        int last = 0;
+        while (m.find()) {
+            out.append(source, last, m.start()).append(expandPartials(m.group(1), sources, depth + 1));
+            last = m.end();
+        }
+        return out.append(source, last, source.length()).toString();
+    }
+
+    private static Template compile(String name, String source, Map<String, String> globals) {
+        List<String> chunks = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        List<Boolean> raw = new ArrayList<>();
+
+        Matcher m = SLOT.matcher(source);
+        StringBuilder chunk = new StringBuilder();
+        int last = 0;
+        while (m.find()) {
+            chunk.append(source, last, m.start());
+            last = m.end();
+            boolean isRaw = m.group(1) != null;
+            String slot = isRaw ? m.group(1) : m.group(2);
+
+            if (slot.startsWith("app.")) {
+                String value = globals.get(slot);
+                if (value == null) throw new IllegalStateException("Unknown setting {{" + slot + "}} in email template " + name);
+                chunk.append(isRaw ? value : escape(value));
+                continue;
+            }
+            chunks.add(chunk.toString());
+            chunk.setLength(0);
+            slots.add(slot);
+            raw.add(isRaw);
+        }
+        chunks.add(chunk.append(source, last, source.length()).toString());
+
+        boolean[] rawFlags = new boolean[raw.size()];
+        for (int i = 0; i < rawFlags.length; i++) rawFlags[i] = raw.get(i);
+        return new Template(chunks.toArray(String[]::new), slots.toArray(String[]::new), rawFlags);
+    }
+
+    private static Map<String, String> loadSources() {
+        Map<String, String> sources = new HashMap<>();
+        try {
+            for (Resource r : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+                String file = r.getFilename();
+                if (file == null) continue;
+                String source = new String(r.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+                sources.put(file.substring(0, file.length() - ".html".length()), source.strip());
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not load email templates from " + LOCATION, ex);
+        }
+        return sources;
+    }
+
+    private static String nullToEmpty(String s) {
+        return s == null ? "" : s;
+    }
+
+    /** chunks.length == slots.length + 1; chunk[i] precedes slot[i]. */
+    private record Template(String[] chunks, String[] slots, boolean[] raw) {
+
+        String render(Map<String, ?> model) {
+            if (slots.length == 0) return chunks[0];
+
+            int size = 0;
+            for (String c : chunks) size += c.length();
+            StringBuilder out = new StringBuilder(size + slots.length * 32);
+            for (int i = 0; i < slots.length; i++) {
+                out.append(chunks[i]);
+                Object value = model.get(slots[i]);
+                if (value == null) continue;
+                if (value instanceof Html html) out.append(html.value());
+                else out.append(raw[i] ? value.toString() : escape(value.toString()));
+            }
+            return out.append(chunks[slots.length]).toString();
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.dtao.seminarbooking.service;
+
+import com.dtao.seminarbooking.model.HallPhoto;
+import com.dtao.seminarbooking.model.SeminarHall;
+import net.coobird.thumbnailator.Thumbnails;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+import static org.springframework.http.HttpStatus.*;
+
+/**
+ * Hall photos: streaming upload into the configured {@link MediaStore}, and lookup for
+ * serving. Resized / re-encoded variants are made with Thumbnailator on first request
+ * and kept in the {@link MediaVariantCache}.
+ *
+ * Uploads are written to a temp file while their SHA-256 is computed, so a photo is
+ * never held in memory and its hash doubles as an immutable, cache-forever URL.
+ */
+@Service
+public class HallMediaService {
+
+    private static final Logger log = LoggerFactory.getLogger(HallMediaService.class);
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    // whether an ImageIO WebP plugin is on the classpath; the JDK ships none
+    private static final boolean WEBP_READER = ImageIO.getImageReadersByFormatName("webp").hasNext();
+    private static final boolean WEBP_WRITER = ImageIO.getImageWritersByFormatName("webp").hasNext();
+
+    /** Everything the controller needs to answer a GET for one stored object. */
+    public record MediaObject(String key, String contentType, String etag, Optional<Path> localPath, Optional<String> publicUrl) {}
+
+    private final MongoTemplate mongoTemplate;
+    private final MediaStore store;
+    private final MediaVariantCache variantCache;
+    private final ReferenceDataService referenceData;
+    private final long maxBytes;
+    private final List<Integer> allowedWidths;
+
+    @Value("${app.media.variant-timeout-ms:20000}")
+    private long variantTimeoutMs = 20000;
+
+    // decoded size, not file size: a small, highly compressed file can still expand to gigabytes
+    @Value("${app.media.max-pixels:40000000}")
+    private long maxPixels = 40_000_000;
+
+    public HallMediaService(MongoTemplate mongoTemplate, MediaStore store, MediaVariantCache variantCache,
+                            ReferenceDataService referenceData,
+                            @Value("${app.media.max-bytes:10485760}") long maxBytes,
+                            @Value("${app.media.variant-widths:160,320,640,960,1280,1920}") String variantWidths) {
+        this.mongoTemplate = mongoTemplate;
+        this.store = store;
+        this.variantCache = variantCache;
+        this.referenceData = referenceData;
+        this.maxBytes = maxBytes;
+        // a fixed ladder of widths keeps ?w= from minting unbounded cache entries
+        this.allowedWidths = Arrays.stream(variantWidths.split(","))
+                .map(String::trim).filter(s -> !s.isEmpty())
+                .map(Integer::parseInt).sorted().distinct().toList();
+    }
+
+    // -------------------- upload --------------------
+    public HallPhoto upload(String hallId, InputStream body, String uploadedBy) {
+        if (referenceData.hallById(hallId).isEmpty()
+                && !mongoTemplate.exists(Query.query(Criteria.where("_id").is(hallId)), SeminarHall.class)) {
+            throw new ResponseStatusException(NOT_FOUND, "Hall not found");
+        }
+
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile("hall-upload-", ".bin");
+            String hash = copyHashed(body, tmp);
+            ImageType type = sniff(tmp);
+            if (type == null) throw new ResponseStatusException(UNSUPPORTED_MEDIA_TYPE, "Only JPEG, PNG, GIF or WebP images are accepted");
+
+            Optional<HallPhoto> existing = findPhoto(hallId, hash);
+            if (existing.isPresent()) return existing.get();
+
+            HallPhoto photo = new HallPhoto();
+            photo.setHash(hash);
+            photo.setContentType(type.contentType);
+            photo.setExtension(type.extension);
+            photo.setSizeBytes(Files.size(tmp));
+            readDimensions(tmp, photo);
+            if (photo.getWidth() != null && photo.getHeight() != null
+                    && (long) photo.getWidth() * photo.getHeight() > maxPixels) {
+                throw new ResponseStatusException(PAYLOAD_TOO_LARGE, "Photo exceeds " + (maxPixels / 1_000_000) + " megapixels");
+            }
+            photo.setUploadedAt(Instant.now());
+            photo.setUploadedBy(uploadedBy);
+
+            store.put(originalKey(hallId, photo), tmp, type.contentType);
+            tmp = null;
+
+            // $push guarded by "hash not present" so concurrent identical uploads add one entry
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(hallId).and("photos.hash").ne(hash)),
+                    new Update().push("photos", photo),
+                    SeminarHall.class);
+            referenceData.refresh();
+
+            log.info("[HallMediaService] stored photo {} for hall {} ({} bytes)", hash, hallId, photo.getSizeBytes());
+            return photo;
+        } catch (IOException ex) {
+            log.error("[HallMediaService] upload for hall {} failed: {}", hallId, ex.getMessage(), ex);
+            throw new ResponseStatusException(INTERNAL_SERVER_ERROR, "Could not store photo");
+        } finally {
+            if (tmp != null) {
+                try { Files.deleteIfExists(tmp); } catch (IOException ignored) { }
+            }
+        }
+    }
+
+    // -------------------- lookup / delete --------------------
+    /**
+     * Resolve a GET. Without {@code w}/{@code fmt} this is the original; otherwise the
+     * variant is taken from (or generated into) the {@link MediaVariantCache}.
+     *
+     * @param width requested width, rounded up to the nearest allowed width, never above the original
+     * @param format jpg, png or webp; webp falls back when no ImageIO writer for it is installed
+     */
+    public MediaObject locate(String hallId, String hash, Integer width, String format) {
+        if (hash == null || !HASH.matcher(hash).matches()) throw new ResponseStatusException(NOT_FOUND, "Photo not found");
+        HallPhoto photo = findPhoto(hallId, hash)
+                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Photo not found"));
+
+        String key = originalKey(hallId, photo);
+        if (width == null && (format == null || format.isBlank())) {
+            return new MediaObject(key, photo.getContentType(), etag(hash, "original"), store.localPath(key), store.publicUrl(key));
+        }
+
+        int w = snapWidth(width, photo.getWidth());
+        String ext = variantFormat(photo, format);
+        if (w <= 0 && ext.equals(photo.getExtension())) {
+            // nothing to resize or convert: the original is the variant
+            return new MediaObject(key, photo.getContentType(), etag(hash, "original"), store.localPath(key), store.publicUrl(key));
+        }
+        if (!canDecode(photo)) throw new ResponseStatusException(UNSUPPORTED_MEDIA_TYPE, "Resizing is not available for this image type");
+
+        String name = (w > 0 ? "w" + w : "full") + "." + ext;
+        String cacheKey = hash + "/" + name;
+        Path file = awaitVariant(cacheKey, target -> {
+            try (InputStream in = store.open(key)) {
+                var builder = Thumbnails.of(in);
+                builder = w > 0 ? builder.width(w).keepAspectRatio(true) : builder.scale(1.0);
+                // JPEG has no alpha channel; flatten so transparent sources still encode
+                if ("jpg".equals(ext)) builder = builder.imageType(BufferedImage.TYPE_INT_RGB);
+                builder.outputFormat(ext).outputQuality(0.85).toFile(target.toFile());
+            }
+        });
+        return new MediaObject(cacheKey, contentTypeOf(ext), etag(hash, name), Optional.of(file), Optional.empty());
+    }
+
+    public void delete(String hallId, String hash) {
+        HallPhoto photo = findPhoto(hallId, hash)
+                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Photo not found"));
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(hallId)),
+                new Update().pull("photos", Query.query(Criteria.where("hash").is(photo.getHash())).getQueryObject()),
+                SeminarHall.class);
+        referenceData.refresh();
+        try {
+            store.deletePrefix(prefix(hallId, photo.getHash()));
+        } catch (IOException ex) {
+            // the reference is gone; orphaned bytes are harmless
+            log.warn("[HallMediaService] could not delete stored files of {}: {}", hash, ex.getMessage());
+        }
+        // resized copies are keyed by hash, so they would keep being served from the cache
+        variantCache.evictPrefix(photo.getHash() + "/");
+    }
+
+    // -------------------- variants --------------------
+    private Path awaitVariant(String cacheKey, MediaVariantCache.VariantWriter writer) {
+        try {
+            return variantCache.get(cacheKey, writer).get(variantTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            // generation keeps running and will be a cache hit on retry
+            throw new ResponseStatusException(SERVICE_UNAVAILABLE, "Image is still being prepared, retry shortly");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(SERVICE_UNAVAILABLE, "Interrupted");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RejectedExecutionException) {
+                throw new ResponseStatusException(SERVICE_UNAVAILABLE, "Image service busy, retry shortly");
+            }
+            log.error("[HallMediaService] variant {} failed: {}", cacheKey, ex.getCause() == null ? ex.getMessage() : ex.getCause().getMessage());
+            throw new ResponseStatusException(INTERNAL_SERVER_ERROR, "Could not prepare image");
+        }
+    }
+
+    /** Smallest allowed width >= requested (largest allowed if beyond); 0 when no downscale is needed. */
+    int snapWidth(Integer requested, Integer originalWidth) {
+        if (requested == null || requested <= 0 || allowedWidths.isEmpty()) return 0;
+        int snapped = allowedWidths.stream().filter(a -> a >= requested).findFirst()
+                .orElse(allowedWidths.get(allowedWidths.size() - 1));
+        return originalWidth != null && snapped >= originalWidth ? 0 : snapped;
+    }
+
+    static String variantFormat(HallPhoto photo, String requested) {
+        String fmt = requested == null ? "" : requested.trim().toLowerCase();
+        switch (fmt) {
+            case "" -> { return defaultVariantExtension(photo); }
+            case "jpg", "jpeg" -> { return "jpg"; }
+            case "png" -> { return "png"; }
+            case "webp" -> { return WEBP_WRITER ? "webp" : defaultVariantExtension(photo); }
+            default -> throw new ResponseStatusException(BAD_REQUEST, "fmt must be jpg, png or webp");
+        }
+    }
+
+    // keep transparency for PNG/GIF sources, JPEG otherwise
+    static String defaultVariantExtension(HallPhoto photo) {
+        return "png".equals(photo.getExtension()) || "gif".equals(photo.getExtension()) ? "png" : "jpg";
+    }
+
+    static String contentTypeOf(String ext) {
+        return switch (ext) {
+            case "png" -> "image/png";
+            case "webp" -> "image/webp";
+            default -> "image/jpeg";
+        };
+    }
+
+    private static boolean canDecode(HallPhoto photo) {
+        return !"webp".equals(photo.getExtension()) || WEBP_READER;
+    }
+
+    private static String etag(String hash, String name) {
+        return "\"" + hash.substring(0, 16) + "-" + name + "\"";
+    }
+
+    // -------------------- helpers --------------------
+    // snapshot first (no Mongo read per image GET); the database covers uploads made
+    // on another instance since our last refresh
+    Optional<HallPhoto> findPhoto(String hallId, String hash) {
+        Optional<HallPhoto> cached = referenceData.hallById(hallId)
+                .flatMap(h -> h.getPhotos() == null ? Optional.empty()
+                        : h.getPhotos().stream().filter(p -> hash.equals(p.getHash())).findFirst());
+        if (cached.isPresent()) return cached;
+
+        Query q = Query.query(Criteria.where("_id").is(hallId));
+        q.fields().elemMatch("photos", Criteria.where("hash").is(hash));
+        SeminarHall hall = mongoTemplate.findOne(q, SeminarHall.class);
+        if (hall == null || hall.getPhotos() == null) return Optional.empty();
+        return hall.getPhotos().stream().filter(p -> hash.equals(p.getHash())).findFirst();
+    }
+
+    static String prefix(String hallId, String hash) {
+        return "halls/" + hallId + "/" + hash;
+    }
+
+    static String originalKey(String hallId, HallPhoto photo) {
+        return prefix(hallId, photo.getHash()) + "/original." + photo.getExtension();
+    }
+
+    private String copyHashed(InputStream body, Path target) throws IOException {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        long total = 0;
+        byte[] buf = new byte[64 * 1024];
+        try (InputStream in = new DigestInputStream(body, sha256); OutputStream out = Files.newOutputStream(target)) {
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                total += n;
+                if (total > maxBytes) throw new ResponseStatusException(PAYLOAD_TOO_LARGE, "Photo exceeds " + (maxBytes / (1024 * 1024)) + " MB");
+                out.write(buf, 0, n);
+            }
+        }
+        if (total == 0) throw new ResponseStatusException(BAD_REQUEST, "Empty upload");
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    private enum ImageType {
+        JPEG("image/jpeg", "jpg"), PNG("image/png", "png"), GIF("image/gif", "gif"), WEBP("image/webp", "webp");
+
+        final String contentType;
+        final String extension;
+
+        ImageType(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+    }
+
+    // trust the bytes, not the client's Content-Type
+    private static ImageType sniff(Path file) throws IOException {
+        byte[] h;
+        try (InputStream in = Files.newInputStream(file)) {
+            h = in.readNBytes(12);
+        }
+        if (h.length >= 3 && (h[0] & 0xFF) == 0xFF && (h[1] & 0xFF) == 0xD8 && (h[2] & 0xFF) == 0xFF) return ImageType.JPEG;
+        if (h.length >= 8 && (h[0] & 0xFF) == 0x89 && h[1] == 'P' && h[2] == 'N' && h[3] == 'G') return ImageType.PNG;
+        if (h.length >= 4 && h[0] == 'G' && h[1] == 'I' && h[2] == 'F' && h[3] == '8') return ImageType.GIF;
+        if (h.length >= 12 && h[0] == 'R' && h[1] == 'I' && h[2] == 'F' && h[3] == 'F'
+                && h[8] == 'W' && h[9] == 'E' && h[10] == 'B' && h[11] == 'P') return ImageType.WEBP;
+        return null;
+    }
+
+    // header-only read; no full decode
+    private static void readDimensions(Path file, HallPhoto photo) {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) return;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                photo.setWidth(reader.getWidth(0));
+                photo.setHeight(reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException ex) {
+            log.debug("[HallMediaService] could not read dimensions: {}", ex.getMessage());
+        }
+    }
+}
@@ -4,16 +4,21 @@ package com.dtao.seminarbooking.service;
 import com.dtao.seminarbooking.model.HallOperator;
 import com.dtao.seminarbooking.model.SeminarHall;
 import com.dtao.seminarbooking.repo.HallOperatorRepository;
-import com.dtao.seminarbooking.repo.SeminarHallRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import static org.springframework.http.HttpStatus.*;
@@ -27,12 +32,15 @@ public class HallOperatorService {
     private HallOperatorRepository hallOperatorRepository;
 
     @Autowired
-    private SeminarHallRepository hallRepository;
+    private ReferenceDataService referenceData;
 
     // Inject email service to send welcome email AFTER save
     @Autowired
     private EmailService emailService;
 
+    // normalized hall name -> operators; immutable, replaced as a whole (null until first use)
+    private volatile Map<String, List<HallOperator>> operatorsByHall;
+
     // phone must start with 6-9 and be 10 digits
     private static final Pattern PHONE_PATTERN = Pattern.compile("^[6-9][0-9]{9}$");
 
@@ -84,14 +92,14 @@ public class HallOperatorService {
 
         if (op.getHallIds() != null && !op.getHallIds().isEmpty()) {
             for (String hallId : op.getHallIds()) {
-                SeminarHall hall = hallRepository.findById(hallId)
+                SeminarHall hall = referenceData.loadHallById(hallId)
                         .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Hall not found"));
                 hallIds.add(hall.getId());
                 hallNames.add(hall.getName());
             }
         } else if (op.getHallNames() != null && !op.getHallNames().isEmpty()) {
             for (String hallName : op.getHallNames()) {
-                Optional<SeminarHall> maybe = hallRepository.findFirstByNameIgnoreCase(hallName.trim());
+                Optional<SeminarHall> maybe = referenceData.loadHallByName(hallName);
                 if (maybe.isEmpty()) {
                     throw new ResponseStatusException(NOT_FOUND, "Hall not found by name: " + hallName);
                 }
@@ -108,6 +116,7 @@ public class HallOperatorService {
 
         // Persist operator
         HallOperator saved = hallOperatorRepository.save(op);
+        refreshHallIndex();
 
         // Send welcome email using the saved instance (ensures hallNames are present).
         // Do not let email failure break the creation: log and continue.
@@ -139,12 +148,15 @@ public class HallOperatorService {
             if (op.getHeadName() != null) existing.setHeadName(op.getHeadName());
             if (op.getHeadEmail() != null) existing.setHeadEmail(op.getHeadEmail());
             if (op.getPhone() != null) existing.setPhone(op.getPhone());
+            if (op.getDigestEnabled() != null) existing.setDigestEnabled(op.getDigestEnabled());
             // update hall list if provided
             if (op.getHallIds() != null && !op.getHallIds().isEmpty())
                 existing.setHallIds(op.getHallIds());
             if (op.getHallNames() != null && !op.getHallNames().isEmpty())
                 existing.setHallNames(op.getHallNames());
-            return hallOperatorRepository.save(existing);
+            HallOperator saved = hallOperatorRepository.save(existing);
+            refreshHallIndex();
+            return saved;
         }).orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Operator not found"));
     }
 
@@ -165,14 +177,63 @@ public class HallOperatorService {
             throw new ResponseStatusException(NOT_FOUND, "Operator not found");
         }
         hallOperatorRepository.deleteById(id);
+        refreshHallIndex();
     }
 
+    /**
+     * Operators of a hall, served from the in-memory snapshot (no database read on the
+     * booking notification path). The returned list is immutable.
+     */
     public List<HallOperator> findByHallName(String hallName) {
-        return hallOperatorRepository.findByHallNamesIgnoreCase(hallName);
+        if (hallName == null) return List.of();
+        return hallIndex().getOrDefault(hallKey(hallName), List.of());
     }
 
     public Optional<HallOperator> findFirstByHallName(String hallName) {
-        return hallOperatorRepository.findFirstByHallNamesIgnoreCase(hallName);
+        return findByHallName(hallName).stream().findFirst();
+    }
+
+    // -------------------- hall -> operators snapshot --------------------
+    private Map<String, List<HallOperator>> hallIndex() {
+        Map<String, List<HallOperator>> index = operatorsByHall;
+        return index != null ? index : refreshHallIndex();
+    }
+
+    /**
+     * Rebuild the snapshot from the collection. Called after every operator write and
+     * periodically, so edits made directly in Mongo (or by another instance) are picked up.
+     */
+    public synchronized Map<String, List<HallOperator>> refreshHallIndex() {
+        Map<String, List<HallOperator>> building = new HashMap<>();
+        for (HallOperator op : hallOperatorRepository.findAll()) {
+            if (op.getHallNames() == null) continue;
+            Set<String> keys = new HashSet<>();
+            for (String hall : op.getHallNames()) {
+                if (hall != null && keys.add(hallKey(hall))) {
+                    building.computeIfAbsent(hallKey(hall), k -> new ArrayList<>()).add(op);
+                }
+            }
+        }
+        Map<String, List<HallOperator>> snapshot = new HashMap<>(building.size());
+        building.forEach((hall, ops) -> snapshot.put(hall, List.copyOf(ops)));
+        operatorsByHall = Map.copyOf(snapshot);
+        logger.debug("[HallOperatorService] hall index rebuilt: {} halls", snapshot.size());
+        return operatorsByHall;
+    }
+
+    @Scheduled(fixedDelayString = "${app.hall-operators.cache-refresh-ms:300000}",
+            initialDelayString = "${app.hall-operators.cache-refresh-ms:300000}")
+    public void scheduledHallIndexRefresh() {
+        try {
+            refreshHallIndex();
+        } catch (Exception ex) {
+            // keep serving the previous snapshot
+            logger.warn("[HallOperatorService] hall index refresh failed: {}", ex.getMessage());
+        }
+    }
+
+    private static String hallKey(String hallName) {
+        return hallName.trim().toLowerCase(Locale.ROOT);
     }
 
     public boolean emailExists(String email) {
@@ -0,0 +1,129 @@
+package com.dtao.seminarbooking.service;
+
+import com.dtao.seminarbooking.model.SeminarHall;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Suggests halls for a requested date / time window and head count.
+ *
+ * Candidates come from the {@link ReferenceDataService} snapshot (no database read):
+ * every hall whose capacity fits, smallest sufficient first. Their availability is then
+ * checked concurrently, one indexed lookup per hall, and the free ones are returned in
+ * fit order.
+ */
+@Service
+public class HallRecommendationService {
+
+    private static final Logger log = LoggerFactory.getLogger(HallRecommendationService.class);
+
+    public record HallRecommendation(String hallId, String name, int capacity, int spareSeats) {}
+
+    private final ReferenceDataService referenceData;
+    private final SeminarService seminarService;
+    private final Executor availabilityExecutor;
+    private final Timer recommendTimer;
+
+    @Value("${app.halls.recommend.lookup-timeout-ms:3000}")
+    private long lookupTimeoutMs = 3000;
+
+    public HallRecommendationService(ReferenceDataService referenceData, SeminarService seminarService,
+                                     @Qualifier("availabilityExecutor") Executor availabilityExecutor,
+                                     MeterRegistry meterRegistry) {
+        this.referenceData = referenceData;
+        this.seminarService = seminarService;
+        this.availabilityExecutor = availabilityExecutor;
+        this.recommendTimer = Timer.builder("booking.hall.recommend")
+                .description("Hall recommendation incl. parallel availability lookups")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param startTime HH:mm, or null together with endTime for a whole-day request
+     * @param limit     maximum number of halls returned
+     */
+    public List<HallRecommendation> recommend(int attendees, String date, String startTime, String endTime, int limit) {
+        validate(attendees, date, startTime, endTime);
+        return recommendTimer.record(() -> rank(attendees, date, startTime, endTime, Math.max(1, limit)));
+    }
+
+    private List<HallRecommendation> rank(int attendees, String date, String startTime, String endTime, int limit) {
+        List<SeminarHall> candidates = referenceData.halls().stream()
+                .filter(h -> h.getCapacity() != null && h.getCapacity() >= attendees)
+                .sorted(Comparator.comparing(SeminarHall::getCapacity)
+                        .thenComparing(h -> h.getName() == null ? "" : h.getName(), String.CASE_INSENSITIVE_ORDER))
+                .toList();
+        if (candidates.isEmpty()) return List.of();
+
+        // a lookup that fails or times out counts as "not free": never recommend a hall we could not check
+        List<CompletableFuture<Boolean>> free = candidates.stream()
+                .map(h -> lookup(h, date, startTime, endTime)
+                        .completeOnTimeout(false, lookupTimeoutMs, TimeUnit.MILLISECONDS)
+                        .exceptionally(ex -> {
+                            log.warn("[HallRecommendationService] availability lookup for hall {} failed: {}", h.getId(), ex.getMessage());
+                            return false;
+                        }))
+                .toList();
+        CompletableFuture.allOf(free.toArray(CompletableFuture[]::new)).join();
+
+        return IntStream.range(0, candidates.size())
+                .filter(i -> free.get(i).join())
+                .mapToObj(candidates::get)
+                .limit(limit)
+                .map(h -> new HallRecommendation(h.getId(), h.getName(), h.getCapacity(), h.getCapacity() - attendees))
+                .toList();
+    }
+
+    // a full executor rejects the lookup up front; that becomes a failed future like any other error
+    private CompletableFuture<Boolean> lookup(SeminarHall h, String date, String startTime, String endTime) {
+        try {
+            return CompletableFuture.supplyAsync(() -> seminarService.isHallFree(h.getId(), date, startTime, endTime), availabilityExecutor);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    private static void validate(int attendees, String date, String startTime, String endTime) {
+        if (attendees <= 0) throw new ResponseStatusException(BAD_REQUEST, "attendees must be a positive number");
+        LocalDate day;
+        try {
+            day = LocalDate.parse(date);
+        } catch (DateTimeParseException | NullPointerException ex) {
+            throw new ResponseStatusException(BAD_REQUEST, "date must be in YYYY-MM-DD format");
+        }
+        if (day.isBefore(LocalDate.now())) throw new ResponseStatusException(BAD_REQUEST, "date cannot be in the past");
+
+        if ((startTime == null) != (endTime == null)) {
+            throw new ResponseStatusException(BAD_REQUEST, "Provide both startTime and endTime, or neither for a whole day");
+        }
+        if (startTime != null) {
+            try {
+                if (!LocalTime.parse(endTime).isAfter(LocalTime.parse(startTime))) {
+                    throw new ResponseStatusException(BAD_REQUEST, "endTime must be after startTime");
+                }
+            } catch (DateTimeParseException ex) {
+                throw new ResponseStatusException(BAD_REQUEST, "Times must be in HH:mm format");
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.dtao.seminarbooking.service;
+
+import com.dtao.seminarbooking.model.HallOperator;
+import com.dtao.seminarbooking.model.Seminar;
+import com.dtao.seminarbooking.model.SeminarHall;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps bookings linked to their hall by id.
+ *
+ * <ul>
+ *   <li>Migration: bookings saved before {@code Seminar.hallId} existed are resolved from
+ *       their free-text hall name in batches of {@code app.migrations.hall-id.batch-size}.
+ *       It only ever selects bookings still missing a hallId, so an interrupted run simply
+ *       continues on the next start.</li>
+ *   <li>Rename: the hall's new name is copied onto its bookings and operators with
+ *       multi-document updates, off the request thread.</li>
+ * </ul>
+ */
+@Service
+public class HallReferenceService {
+
+    private static final Logger log = LoggerFactory.getLogger(HallReferenceService.class);
+
+    /** Outcome of one migration run; unresolvedIds lists the first unresolved bookings. */
+    public record MigrationResult(long scanned, long linked, long unresolved, List<String> unresolvedIds) {}
+
+    private static final int MAX_REPORTED_UNRESOLVED = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final ReferenceDataService referenceData;
+    private final HallOperatorService hallOperatorService;
+
+    @Value("${app.migrations.hall-id.enabled:true}")
+    private boolean migrationEnabled = true;
+
+    @Value("${app.migrations.hall-id.batch-size:500}")
+    private int batchSize = 500;
+
+    // true until a migration run finds every booking linked; until then booking lookups
+    // also match unlinked bookings by hall name (see SeminarService)
+    private volatile boolean legacyBookingsRemain = true;
+
+    public HallReferenceService(MongoTemplate mongoTemplate, ReferenceDataService referenceData,
+                                HallOperatorService hallOperatorService) {
+        this.mongoTemplate = mongoTemplate;
+        this.referenceData = referenceData;
+        this.hallOperatorService = hallOperatorService;
+    }
+
+    // -------------------- migration --------------------
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (!migrationEnabled) return;
+        CompletableFuture.runAsync(() -> {
+            try {
+                migrateHallIds();
+            } catch (Exception ex) {
+                log.error("[HallReferenceService] hallId migration stopped: {}", ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Link every booking without a hallId to the hall its name resolves to. Bookings whose
+     * hall no longer exists are left unlinked (their ids are logged and returned) so a later
+     * run can retry; booking lookups keep matching them by name in the meantime.
+     */
+    public synchronized MigrationResult migrateHallIds() {
+        long scanned = 0, linked = 0, unresolved = 0;
+        List<String> unresolvedIds = new ArrayList<>();
+        String lastId = null;
+        while (true) {
+            Criteria c = Criteria.where("hallId").exists(false);
+            if (lastId != null) c = c.and("id").gt(lastId);
+            Query q = Query.query(c).with(Sort.by("id")).limit(batchSize);
+            q.fields().include("hallName");
+            List<Seminar> batch = mongoTemplate.find(q, Seminar.class);
+            if (batch.isEmpty()) break;
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Seminar.class);
+            int queued = 0;
+            for (Seminar s : batch) {
+                Optional<SeminarHall> hall = referenceData.hallByName(s.getHallName());
+                if (hall.isEmpty()) {
+                    unresolved++;
+                    if (unresolvedIds.size() < MAX_REPORTED_UNRESOLVED) unresolvedIds.add(s.getId());
+                    continue;
+                }
+                // the hallId guard makes a concurrent save by the app win
+                bulk.updateOne(Query.query(Criteria.where("id").is(s.getId()).and("hallId").exists(false)),
+                        new Update().set("hallId", hall.get().getId()).set("hallName", hall.get().getName()));
+                queued++;
+            }
+            if (queued > 0) linked += bulk.execute().getModifiedCount();
+            scanned += batch.size();
+            lastId = batch.get(batch.size() - 1).getId();
+            if (batch.size() < batchSize) break;
+        }
+        if (scanned > 0) {
+            log.info("[HallReferenceService] hallId migration: scanned={} linked={} unresolved={}", scanned, linked, unresolved);
+        }
+        if (unresolved > 0) {
+            log.warn("[HallReferenceService] bookings whose hall name matches no hall (first {}): {}", unresolvedIds.size(), unresolvedIds);
+        }
+        legacyBookingsRemain = mongoTemplate.exists(Query.query(Criteria.where("hallId").exists(false)), Seminar.class);
+        return new MigrationResult(scanned, linked, unresolved, List.copyOf(unresolvedIds));
+    }
+
+    /** Whether bookings without a hallId may still exist (always true before the first migration run). */
+    public boolean legacyBookingsRemain() {
+        return legacyBookingsRemain;
+    }
+
+    // -------------------- rename --------------------
+    /**
+     * Copy a hall's new name onto its bookings and operators. Bookings the migration has
+     * not reached yet are matched by their old name and linked at the same time.
+     */
+    @Async
+    public void propagateRename(String hallId, String oldName, String newName) {
+        try {
+            long seminars = mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("hallId").is(hallId).and("hallName").ne(newName)),
+                    new Update().set("hallName", newName), Seminar.class).getModifiedCount();
+            seminars += mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("hallId").is(hallId).and("hallName").ne(newName)),
+                    new Update().set("hallName", newName), SeminarArchiveService.ARCHIVE_COLLECTION).getModifiedCount();
+
+            if (oldName != null) {
+                seminars += mongoTemplate.updateMulti(
+                        Query.query(Criteria.where("hallId").exists(false)
+                                .and("hallName").regex("^" + Pattern.quote(oldName.trim()) + "$", "i")),
+                        new Update().set("hallId", hallId).set("hallName", newName), Seminar.class).getModifiedCount();
+            }
+
+            int operators = 0;
+            for (HallOperator op : mongoTemplate.find(Query.query(Criteria.where("hallIds").is(hallId)), HallOperator.class)) {
+                mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(op.getId())),
+                        new Update().set("hallNames", namesFor(op)), HallOperator.class);
+                operators++;
+            }
+            if (operators > 0) hallOperatorService.refreshHallIndex();
+
+            log.info("[HallReferenceService] hall {} renamed '{}' -> '{}': {} booking(s), {} operator(s) updated",
+                    hallId, oldName, newName, seminars, operators);
+        } catch (Exception ex) {
+            // bookings keep their hallId, so only display names are stale until the next rename or save
+            log.error("[HallReferenceService] rename propagation for hall {} failed: {}", hallId, ex.getMessage(), ex);
+        }
+    }
+
+    // operator hall names rebuilt from ids; ids of deleted halls keep their old name
+    private List<String> namesFor(HallOperator op) {
+        List<String> names = new ArrayList<>();
+        List<String> old = op.getHallNames() == null ? List.of() : op.getHallNames();
+        for (int i = 0; i < op.getHallIds().size(); i++) {
+            String fallback = i < old.size() ? old.get(i) : null;
+            referenceData.hallById(op.getHallIds().get(i)).map(SeminarHall::getName)
+                    .or(() -> Optional.ofNullable(fallback))
+                    .ifPresent(names::add);
+        }
+        return names;
+    }
+}
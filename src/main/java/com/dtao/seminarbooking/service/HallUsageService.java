@@ -0,0 +1,376 @@
+package com.dtao.seminarbooking.service;
+
+import com.dtao.seminarbooking.model.HallUsageRollup;
+import com.dtao.seminarbooking.model.Seminar;
+import com.dtao.seminarbooking.model.Seminar.DaySlot;
+import com.dtao.seminarbooking.model.SeminarHall;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Hall utilization (booked hours / available hours) from incremental rollups.
+ *
+ * Every booking write passes the booking's contribution before and after the change to
+ * {@link #apply}, which $inc's the affected {@link HallUsageRollup} documents (one per
+ * hall, department and ISO week). Only bookings that hold the hall count: APPROVED and
+ * CANCEL_REQUESTED. Reports read the rollups for the requested weeks only; {@link #rebuild}
+ * recomputes them all from the seminars collection when they may have drifted.
+ */
+@Service
+public class HallUsageService {
+
+    private static final Logger log = LoggerFactory.getLogger(HallUsageService.class);
+
+    private static final Set<String> COUNTED_STATUSES = Set.of("APPROVED", "CANCEL_REQUESTED");
+
+    // a malformed range must not explode into thousands of rollup updates
+    private static final int MAX_RANGE_DAYS = 31;
+
+    private static final long MAX_REPORT_DAYS = 3L * 366;
+
+    /** One report line: a hall or department in one week ("2025-W42") or month ("2025-10"). */
+    public record UsageRow(String period, String key, String label,
+                           double bookedHours, double availableHours, double utilization) {}
+
+    public record RebuildResult(long seminars, long rollups) {}
+
+    /** What one booking adds to one rollup document. */
+    public record Share(String hallId, String hallName, String department, String week, LocalDate weekStart,
+                 Map<LocalDate, Long> dayMinutes) {
+        long minutes() { return dayMinutes.values().stream().mapToLong(Long::longValue).sum(); }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final ReferenceDataService referenceData;
+    private final Executor maintenanceExecutor;
+    private final Set<DayOfWeek> openDays;
+    private final long openMinutesPerDay;
+
+    public HallUsageService(MongoTemplate mongoTemplate, ReferenceDataService referenceData,
+                            @Qualifier("maintenanceExecutor") Executor maintenanceExecutor,
+                            @Value("${app.analytics.open-days:MONDAY,TUESDAY,WEDNESDAY,THURSDAY,FRIDAY,SATURDAY}") String openDays,
+                            @Value("${app.analytics.open-hours-per-day:9}") double openHoursPerDay) {
+        this.mongoTemplate = mongoTemplate;
+        this.referenceData = referenceData;
+        this.maintenanceExecutor = maintenanceExecutor;
+        EnumSet<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        Arrays.stream(openDays.split(",")).map(String::trim).filter(s -> !s.isEmpty())
+                .forEach(d -> days.add(DayOfWeek.valueOf(d.toUpperCase(Locale.ROOT))));
+        this.openDays = days;
+        this.openMinutesPerDay = Math.round(openHoursPerDay * 60);
+    }
+
+    // -------------------- incremental maintenance --------------------
+    /**
+     * The booking's share of each rollup, keyed by rollup id (empty when the booking does
+     * not hold the hall). Computed eagerly, so it can be taken before the booking is edited.
+     */
+    public Map<String, Share> contribution(Seminar s) {
+        if (s == null) return Map.of();
+        String status = s.getStatus() == null ? "" : s.getStatus().trim().toUpperCase(Locale.ROOT);
+        if (!COUNTED_STATUSES.contains(status)) return Map.of();
+        String hallId = hallKey(s);
+        if (hallId == null) return Map.of();
+
+        String department = s.getDepartment() == null || s.getDepartment().isBlank() ? "UNKNOWN" : s.getDepartment().trim();
+        Map<String, Share> out = new LinkedHashMap<>();
+        minutesByDay(s, openMinutesPerDay).forEach((day, minutes) -> {
+            String week = isoWeek(day);
+            String id = rollupId(hallId, department, week);
+            out.computeIfAbsent(id, k -> new Share(hallId, s.getHallName(), department, week,
+                            day.with(DayOfWeek.MONDAY), new TreeMap<>()))
+                    .dayMinutes().merge(day, minutes, Long::sum);
+        });
+        return out;
+    }
+
+    // bookings the hallId migration has not linked are counted under the hall their name
+    // resolves to, or under "name:<hall name>" when it resolves to none
+    private String hallKey(Seminar s) {
+        if (s.getHallId() != null) return s.getHallId();
+        if (s.getHallName() == null || s.getHallName().isBlank()) return null;
+        return referenceData.hallByName(s.getHallName()).map(SeminarHall::getId)
+                .orElse("name:" + ReferenceDataService.key(s.getHallName()));
+    }
+
+    /**
+     * Apply the difference between a booking's old and new contribution. Never throws:
+     * a failed update is logged and corrected by the next {@link #rebuild}.
+     */
+    public void apply(Map<String, Share> before, Map<String, Share> after) {
+        if (before.isEmpty() && after.isEmpty()) return;
+        try {
+            Set<String> ids = new HashSet<>(before.keySet());
+            ids.addAll(after.keySet());
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, HallUsageRollup.class);
+            int queued = 0;
+            for (String id : ids) {
+                Share old = before.get(id);
+                Share now = after.get(id);
+                Share ref = now != null ? now : old;
+
+                Map<LocalDate, Long> delta = new TreeMap<>();
+                if (now != null) now.dayMinutes().forEach((d, m) -> delta.merge(d, m, Long::sum));
+                if (old != null) old.dayMinutes().forEach((d, m) -> delta.merge(d, -m, Long::sum));
+                long bookingsDelta = (now != null ? 1 : 0) - (old != null ? 1 : 0);
+                long minutesDelta = delta.values().stream().mapToLong(Long::longValue).sum();
+                if (bookingsDelta == 0 && delta.values().stream().allMatch(m -> m == 0)) continue;
+
+                Update update = new Update()
+                        .inc("bookedMinutes", minutesDelta)
+                        .inc("bookings", bookingsDelta)
+                        .setOnInsert("hallId", ref.hallId())
+                        .setOnInsert("department", ref.department())
+                        .setOnInsert("week", ref.week())
+                        .setOnInsert("weekStart", ref.weekStart().toString())
+                        .set("hallName", ref.hallName())
+                        .set("updatedAt", Instant.now());
+                delta.forEach((d, m) -> { if (m != 0) update.inc("dayMinutes." + d, m); });
+                bulk.upsert(Query.query(Criteria.where("id").is(id)), update);
+                queued++;
+            }
+            if (queued > 0) bulk.execute();
+        } catch (Exception ex) {
+            log.error("[HallUsageService] rollup update failed (rebuild will correct it): {}", ex.getMessage());
+        }
+    }
+
+    // -------------------- reporting --------------------
+    /**
+     * Utilization per hall or department and per week or month, for days from..to inclusive.
+     * Department rows are measured against the available hours of all halls. Hall rows are
+     * listed for every hall, including idle ones.
+     */
+    public List<UsageRow> report(LocalDate from, LocalDate to, String groupBy, String period) {
+        if (from == null || to == null || to.isBefore(from)) throw new ResponseStatusException(BAD_REQUEST, "from must not be after to");
+        if (ChronoUnit.DAYS.between(from, to) > MAX_REPORT_DAYS) throw new ResponseStatusException(BAD_REQUEST, "Range is limited to 3 years");
+        boolean byHall = !"department".equalsIgnoreCase(groupBy);
+        boolean monthly = "month".equalsIgnoreCase(period);
+
+        // weekStart lies at most 6 days before any day it covers
+        Query q = Query.query(Criteria.where("weekStart").gte(from.minusDays(6).toString()).lte(to.toString()));
+        List<HallUsageRollup> rollups = mongoTemplate.find(q, HallUsageRollup.class);
+
+        Map<String, String> labels = new HashMap<>();
+        Map<String, Map<String, Long>> minutes = new TreeMap<>(); // period -> key -> minutes
+        for (HallUsageRollup r : rollups) {
+            String key = byHall ? r.getHallId() : r.getDepartment();
+            labels.putIfAbsent(key, byHall ? r.getHallName() : r.getDepartment());
+            if (r.getDayMinutes() == null) continue;
+            r.getDayMinutes().forEach((dayStr, m) -> {
+                LocalDate day = LocalDate.parse(dayStr);
+                if (day.isBefore(from) || day.isAfter(to) || m == null) return;
+                minutes.computeIfAbsent(periodKey(day, monthly), k -> new HashMap<>()).merge(key, m, Long::sum);
+            });
+        }
+
+        List<SeminarHall> halls = referenceData.halls();
+        if (byHall) {
+            for (SeminarHall h : halls) labels.put(h.getId(), h.getName());
+        }
+        Map<String, Long> openPerPeriod = openMinutesPerPeriod(from, to, monthly);
+
+        List<UsageRow> rows = new ArrayList<>();
+        for (Map.Entry<String, Long> p : openPerPeriod.entrySet()) {
+            Map<String, Long> used = minutes.getOrDefault(p.getKey(), Map.of());
+            Set<String> keys = new HashSet<>(used.keySet());
+            if (byHall) halls.forEach(h -> keys.add(h.getId()));
+            long available = p.getValue() * (byHall ? 1 : Math.max(1, halls.size()));
+            for (String key : keys) {
+                long booked = used.getOrDefault(key, 0L);
+                rows.add(new UsageRow(p.getKey(), key, labels.getOrDefault(key, key),
+                        round2(booked / 60.0), round2(available / 60.0),
+                        available == 0 ? 0 : round2((double) booked / available)));
+            }
+        }
+        rows.sort(Comparator.comparing(UsageRow::period)
+                .thenComparing(r -> r.label() == null ? "" : r.label(), String.CASE_INSENSITIVE_ORDER));
+        return rows;
+    }
+
+    // -------------------- rebuild --------------------
+    /**
+     * Recompute every rollup from the seminars and seminars_archive collections. Rollups are
+     * replaced one by one and stale ones removed afterwards, so reports never see an empty
+     * collection and a concurrent {@link #apply} cannot make the rebuild fail. A booking
+     * written while this runs may be counted from its old state until the next rebuild, so
+     * schedule it for quiet hours ({@code app.analytics.rebuild-cron}).
+     */
+    public synchronized RebuildResult rebuild() {
+        Instant startedAt = Instant.now();
+        Map<String, HallUsageRollup> building = new HashMap<>();
+        long seminars = 0;
+        // ids already counted: a booking caught mid-archive exists in both collections
+        Set<String> counted = new HashSet<>();
+        // archived bookings keep counting towards past weeks
+        for (String collection : List.of(mongoTemplate.getCollectionName(Seminar.class), SeminarArchiveService.ARCHIVE_COLLECTION)) {
+            String lastId = null;
+            while (true) {
+                Query q = (lastId == null ? new Query() : Query.query(Criteria.where("id").gt(lastId)))
+                        .with(Sort.by("id")).limit(1000);
+                List<Seminar> page = mongoTemplate.find(q, Seminar.class, collection);
+                if (page.isEmpty()) break;
+                for (Seminar s : page) {
+                    if (!counted.add(s.getId())) continue;
+                    contribution(s).forEach((id, share) -> {
+                        HallUsageRollup r = building.computeIfAbsent(id, k -> newRollup(k, share));
+                        share.dayMinutes().forEach((d, m) -> r.getDayMinutes().merge(d.toString(), m, Long::sum));
+                        r.setBookedMinutes(r.getBookedMinutes() + share.minutes());
+                        r.setBookings(r.getBookings() + 1);
+                    });
+                }
+                seminars += page.size();
+                lastId = page.get(page.size() - 1).getId();
+            }
+        }
+
+        List<HallUsageRollup> all = new ArrayList<>(building.values());
+        for (int i = 0; i < all.size(); i += 1000) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, HallUsageRollup.class);
+            for (HallUsageRollup r : all.subList(i, Math.min(all.size(), i + 1000))) {
+                r.setUpdatedAt(Instant.now());
+                bulk.replaceOne(Query.query(Criteria.where("id").is(r.getId())), r, FindAndReplaceOptions.options().upsert());
+            }
+            bulk.execute();
+        }
+        // rollups no booking contributes to any more; ones touched by apply meanwhile are newer and stay
+        long removed = mongoTemplate.remove(Query.query(Criteria.where("updatedAt").lt(startedAt)), HallUsageRollup.class)
+                .getDeletedCount();
+        log.info("[HallUsageService] rollups rebuilt from {} seminars: {} documents, {} stale removed", seminars, all.size(), removed);
+        return new RebuildResult(seminars, all.size());
+    }
+
+    /**
+     * Run {@link #rebuild} on the maintenance executor.
+     *
+     * @throws RejectedExecutionException when a rebuild or archive run is already queued
+     */
+    public CompletableFuture<RebuildResult> rebuildInBackground() {
+        return CompletableFuture.supplyAsync(this::rebuild, maintenanceExecutor)
+                .whenComplete((r, ex) -> {
+                    if (ex != null) log.error("[HallUsageService] rollup rebuild failed: {}", ex.getMessage(), ex);
+                });
+    }
+
+    @Scheduled(cron = "${app.analytics.rebuild-cron:-}")
+    public void scheduledRebuild() {
+        try {
+            rebuildInBackground();
+        } catch (RejectedExecutionException ex) {
+            log.warn("[HallUsageService] maintenance executor busy, skipping scheduled rebuild");
+        }
+    }
+
+    // -------------------- helpers --------------------
+    /** Booked minutes per calendar day; a full day (or a booking without times) counts as the opening hours. */
+    static Map<LocalDate, Long> minutesByDay(Seminar s, long fullDayMinutes) {
+        Map<LocalDate, Long> out = new TreeMap<>();
+        if (s.getDate() != null) {
+            try {
+                long m = span(s.getStartTime(), s.getEndTime());
+                if (m <= 0) m = slotMinutes(s.getSlot(), fullDayMinutes);
+                out.merge(LocalDate.parse(s.getDate()), Math.min(m, fullDayMinutes), Long::sum);
+            } catch (Exception ignore) { }
+        }
+        if (s.getStartDate() != null && s.getEndDate() != null) {
+            try {
+                LocalDate start = LocalDate.parse(s.getStartDate());
+                LocalDate end = LocalDate.parse(s.getEndDate());
+                for (LocalDate d = start; !d.isAfter(end) && !d.isAfter(start.plusDays(MAX_RANGE_DAYS)); d = d.plusDays(1)) {
+                    DaySlot slot = s.getDaySlots() == null ? null : s.getDaySlots().get(d.toString());
+                    long m = slot == null ? 0 : span(slot.getStartTime(), slot.getEndTime());
+                    out.merge(d, m <= 0 ? fullDayMinutes : Math.min(m, fullDayMinutes), Long::sum);
+                }
+            } catch (Exception ignore) { }
+        }
+        return out;
+    }
+
+    private static long span(String start, String end) {
+        if (start == null || end == null) return 0;
+        try {
+            return ChronoUnit.MINUTES.between(LocalTime.parse(start), LocalTime.parse(end));
+        } catch (Exception ex) {
+            return 0;
+        }
+    }
+
+    // Morning / Afternoon are half days
+    private static long slotMinutes(String slot, long fullDayMinutes) {
+        return slot != null && slot.toLowerCase(Locale.ROOT).contains("full") ? fullDayMinutes : fullDayMinutes / 2;
+    }
+
+    static String isoWeek(LocalDate day) {
+        return String.format("%d-W%02d", day.get(IsoFields.WEEK_BASED_YEAR), day.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+    }
+
+    static String rollupId(String hallId, String department, String week) {
+        return hallId + "|" + department + "|" + week;
+    }
+
+    private static String periodKey(LocalDate day, boolean monthly) {
+        return monthly ? YearMonth.from(day).toString() : isoWeek(day);
+    }
+
+    // open minutes of one hall per period, over the days of the period inside from..to
+    private Map<String, Long> openMinutesPerPeriod(LocalDate from, LocalDate to, boolean monthly) {
+        Map<String, Long> out = new TreeMap<>();
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            out.merge(periodKey(d, monthly), openDays.contains(d.getDayOfWeek()) ? openMinutesPerDay : 0L, Long::sum);
+        }
+        return out;
+    }
+
+    private static HallUsageRollup newRollup(String id, Share share) {
+        HallUsageRollup r = new HallUsageRollup();
+        r.setId(id);
+        r.setHallId(share.hallId());
+        r.setHallName(share.hallName());
+        r.setDepartment(share.department());
+        r.setWeek(share.week());
+        r.setWeekStart(share.weekStart().toString());
+        r.setUpdatedAt(Instant.now());
+        return r;
+    }
+
+    private static double round2(double v) {
+        return Math.round(v * 100.0) / 100.0;
+    }
+}
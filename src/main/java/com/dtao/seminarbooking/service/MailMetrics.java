@@ -0,0 +1,69 @@
+package com.dtao.seminarbooking.service;
+
+import com.dtao.seminarbooking.model.EmailOutbox;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gauges for the email pipeline:
+ * <ul>
+ *   <li>{@code email.outbox.entries{status}} - queue depth, refreshed in the background
+ *       so a scrape never waits on Mongo</li>
+ *   <li>{@code brevo.inflight}, {@code brevo.concurrency.limit}, {@code brevo.circuit.state}
+ *       (0 closed, 1 open, 2 half-open) from {@link BrevoSendGuard}</li>
+ * </ul>
+ * Send rates come from the {@code brevo.send} timer and {@code email.outbox.processed} counter.
+ */
+@Component
+public class MailMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(MailMetrics.class);
+
+    private static final List<String> TRACKED = List.of(EmailOutbox.PENDING, EmailOutbox.SENDING, EmailOutbox.DEAD);
+
+    private final EmailOutboxService outboxService;
+    private final Map<String, AtomicLong> outboxDepth = new LinkedHashMap<>();
+
+    public MailMetrics(EmailOutboxService outboxService, BrevoSendGuard guard, MeterRegistry registry) {
+        this.outboxService = outboxService;
+
+        for (String status : TRACKED) {
+            AtomicLong depth = new AtomicLong();
+            outboxDepth.put(status, depth);
+            Gauge.builder("email.outbox.entries", depth, AtomicLong::get)
+                    .description("Outbox entries by status")
+                    .tag("status", status)
+                    .register(registry);
+        }
+        Gauge.builder("brevo.inflight", guard, BrevoSendGuard::inFlight)
+                .description("Brevo calls in progress")
+                .register(registry);
+        Gauge.builder("brevo.concurrency.limit", guard, BrevoSendGuard::limit)
+                .description("Current adaptive concurrency limit for Brevo calls")
+                .register(registry);
+        Gauge.builder("brevo.circuit.state", guard, g -> g.state().ordinal())
+                .description("0 = closed, 1 = open, 2 = half-open")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.metrics.outbox-refresh-ms:15000}",
+            initialDelayString = "${app.metrics.outbox-refresh-ms:15000}")
+    public void refreshOutboxDepth() {
+        try {
+            for (Map.Entry<String, AtomicLong> e : outboxDepth.entrySet()) {
+                e.getValue().set(outboxService.countByStatus(e.getKey()));
+            }
+        } catch (Exception ex) {
+            log.debug("[MailMetrics] outbox depth refresh failed: {}", ex.getMessage());
+        }
+    }
+}
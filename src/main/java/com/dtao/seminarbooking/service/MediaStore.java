@@ -0,0 +1,32 @@
+package com.dtao.seminarbooking.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Where hall photos are kept. Keys look like
+ * {@code halls/<hallId>/<sha256>/original.jpg}; content under a key never changes.
+ *
+ * Selected with {@code app.media.store}: {@code local} (default) or {@code cloudinary}.
+ */
+public interface MediaStore {
+
+    /** Store the finished file under key (the file may be moved or deleted afterwards). */
+    void put(String key, Path file, String contentType) throws IOException;
+
+    /** Open the stored bytes, e.g. to build a resized variant. */
+    InputStream open(String key) throws IOException;
+
+    boolean exists(String key);
+
+    /** File on this instance's disk for zero-copy serving; empty for remote stores. */
+    Optional<Path> localPath(String key);
+
+    /** Public (CDN) URL to redirect clients to; empty for stores served by the app. */
+    Optional<String> publicUrl(String key);
+
+    /** Remove every object whose key starts with prefix. */
+    void deletePrefix(String prefix) throws IOException;
+}
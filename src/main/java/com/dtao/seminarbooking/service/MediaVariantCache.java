@@ -0,0 +1,215 @@
+package com.dtao.seminarbooking.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * Size-bounded LRU cache of resized hall photos on local disk.
+ *
+ * A variant is generated the first time it is asked for; concurrent requests for the
+ * same key share one generation. Files are written under a temp name and moved into
+ * place, so a cached path always points at a complete image that can be sent with
+ * sendfile. When the cache grows past {@code app.media.variant-cache.max-bytes} the
+ * least recently used files are deleted. The index is rebuilt from disk on startup.
+ */
+@Component
+public class MediaVariantCache {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaVariantCache.class);
+
+    /** Writes one variant to target. */
+    @FunctionalInterface
+    public interface VariantWriter {
+        void write(Path target) throws IOException;
+    }
+
+    private final Path root;
+    private final long maxBytes;
+    private final Executor executor;
+
+    // key -> file size, in access order; guarded by "this"
+    private final LinkedHashMap<String, Long> lru = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MediaVariantCache(@Value("${app.media.variant-cache.dir:./data/media-cache}") String dir,
+                             @Value("${app.media.variant-cache.max-bytes:536870912}") long maxBytes,
+                             @Qualifier("mediaExecutor") Executor executor) {
+        this(Paths.get(dir), maxBytes, executor);
+    }
+
+    MediaVariantCache(Path root, long maxBytes, Executor executor) {
+        this.root = root.toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        this.executor = executor;
+    }
+
+    @PostConstruct
+    void load() {
+        try {
+            Files.createDirectories(root);
+            List<Path> files;
+            try (Stream<Path> walk = Files.walk(root)) {
+                files = walk.filter(Files::isRegularFile).toList();
+            }
+            // oldest first, so the rebuilt order approximates last use
+            List<Path> byAge = files.stream().sorted(Comparator.comparing(MediaVariantCache::modifiedAt)).toList();
+            synchronized (this) {
+                for (Path file : byAge) {
+                    if (file.getFileName().toString().contains(".tmp-")) {
+                        Files.deleteIfExists(file);
+                        continue;
+                    }
+                    long size = Files.size(file);
+                    lru.put(root.relativize(file).toString().replace('\\', '/'), size);
+                    totalBytes += size;
+                }
+                evict();
+            }
+            log.info("[MediaVariantCache] {} cached variant(s), {} KB in {}", lru.size(), totalBytes / 1024, root);
+        } catch (IOException ex) {
+            log.warn("[MediaVariantCache] could not index {}: {}", root, ex.getMessage());
+        }
+    }
+
+    /**
+     * The cached file for key, generating it with writer on a miss.
+     * Fails with {@link RejectedExecutionException} when the generation pool is saturated.
+     */
+    public CompletableFuture<Path> get(String key, VariantWriter writer) {
+        Path hit = lookup(key);
+        if (hit != null) return CompletableFuture.completedFuture(hit);
+
+        CompletableFuture<Path> created = new CompletableFuture<>();
+        CompletableFuture<Path> running = inFlight.putIfAbsent(key, created);
+        if (running != null) return running;
+
+        try {
+            executor.execute(() -> {
+                try {
+                    created.complete(generate(key, writer));
+                } catch (Throwable ex) {
+                    created.completeExceptionally(ex);
+                } finally {
+                    inFlight.remove(key, created);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(new RejectedExecutionException("variant generation pool is full", ex));
+        }
+        return created;
+    }
+
+    /** Drops every cached variant whose key starts with prefix (e.g. all sizes of a deleted photo). */
+    public synchronized int evictPrefix(String prefix) {
+        int removed = 0;
+        var it = lru.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Long> entry = it.next();
+            if (!entry.getKey().startsWith(prefix)) continue;
+            it.remove();
+            totalBytes -= entry.getValue();
+            removed++;
+            try {
+                Files.deleteIfExists(resolve(entry.getKey()));
+            } catch (IOException ex) {
+                log.warn("[MediaVariantCache] could not evict {}: {}", entry.getKey(), ex.getMessage());
+            }
+        }
+        return removed;
+    }
+
+    public synchronized long totalBytes() { return totalBytes; }
+
+    public synchronized int size() { return lru.size(); }
+
+    // -------------------- internals --------------------
+    private Path lookup(String key) {
+        Path file = resolve(key);
+        synchronized (this) {
+            if (lru.get(key) == null) return null;
+            if (Files.isRegularFile(file)) return file;
+            // deleted behind our back
+            totalBytes -= lru.remove(key);
+            return null;
+        }
+    }
+
+    private Path generate(String key, VariantWriter writer) throws IOException {
+        // a request that missed just before the previous generation finished lands here
+        Path hit = lookup(key);
+        if (hit != null) return hit;
+
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp-" + UUID.randomUUID());
+        try {
+            writer.write(tmp);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+
+        long size = Files.size(target);
+        synchronized (this) {
+            Long previous = lru.put(key, size);
+            totalBytes += size - (previous == null ? 0 : previous);
+            evict();
+        }
+        return target;
+    }
+
+    // caller holds the lock; the newest entry always stays, even if larger than the budget
+    private void evict() {
+        var it = lru.entrySet().iterator();
+        while (totalBytes > maxBytes && lru.size() > 1 && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            it.remove();
+            totalBytes -= eldest.getValue();
+            try {
+                // an open sendfile keeps reading the unlinked file
+                Files.deleteIfExists(resolve(eldest.getKey()));
+            } catch (IOException ex) {
+                log.warn("[MediaVariantCache] could not evict {}: {}", eldest.getKey(), ex.getMessage());
+            }
+        }
+    }
+
+    private Path resolve(String key) {
+        Path p = root.resolve(key).normalize();
+        if (!p.startsWith(root)) throw new IllegalArgumentException("Invalid cache key: " + key);
+        return p;
+    }
+
+    private static long modifiedAt(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException ex) {
+            return 0L;
+        }
+    }
+}
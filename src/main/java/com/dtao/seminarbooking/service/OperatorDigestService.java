@@ -0,0 +1,128 @@
+package com.dtao.seminarbooking.service;
+
+import com.dtao.seminarbooking.model.HallOperator;
+import com.dtao.seminarbooking.model.OperatorDigestEvent;
+import com.dtao.seminarbooking.model.Seminar;
+import com.dtao.seminarbooking.repo.OperatorDigestEventRepository;
+import com.dtao.seminarbooking.service.BrevoClient.MessageVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Digest mode for hall operators: instead of one mail per booking event, events are
+ * buffered in operator_digest_events and every closed window
+ * ({@code app.mail.digest.window-minutes}) is sent as one summary through the outbox.
+ */
+@Service
+public class OperatorDigestService {
+
+    private static final Logger log = LoggerFactory.getLogger(OperatorDigestService.class);
+
+    // the limit of findTop2000ByWindowStartLessThan...
+    private static final int FLUSH_PAGE_SIZE = 2000;
+
+    private final OperatorDigestEventRepository digestRepository;
+    private final EmailService emailService;
+    private final EmailOutboxService outboxService;
+
+    @Value("${app.mail.digest.window-minutes:60}")
+    private long windowMinutes;
+
+    public OperatorDigestService(OperatorDigestEventRepository digestRepository,
+                                 EmailService emailService,
+                                 EmailOutboxService outboxService) {
+        this.digestRepository = digestRepository;
+        this.emailService = emailService;
+        this.outboxService = outboxService;
+    }
+
+    /** Buffer one booking event for a digest operator. */
+    public void record(HallOperator head, Seminar s, String event, String reason) {
+        Instant now = Instant.now();
+        OperatorDigestEvent e = new OperatorDigestEvent();
+        e.setOperatorId(head.getId());
+        e.setOperatorEmail(head.getHeadEmail());
+        e.setOperatorName(head.getHeadName());
+        e.setWindowStart(windowStart(now));
+        e.setEvent(event);
+        e.setSeminarId(s.getId());
+        e.setHallName(s.getHallName());
+        e.setDate(s.getDate());
+        e.setStartTime(s.getStartTime());
+        e.setEndTime(s.getEndTime());
+        e.setSlotTitle(s.getSlotTitle());
+        e.setBookingName(s.getBookingName());
+        e.setBookingEmail(s.getEmail());
+        e.setReason(reason);
+        e.setCreatedAt(now);
+        digestRepository.insert(e);
+    }
+
+    /**
+     * Turn every closed window into one outbox entry per operator. The outbox key is
+     * derived from operator, window and first event, so a flush that crashed after
+     * enqueueing (or ran on two instances) does not send the summary twice. When the
+     * page is full its last group may continue past the cut, so it waits for the next
+     * flush rather than going out as two digests.
+     */
+    @Scheduled(fixedDelayString = "${app.mail.digest.flush-interval-ms:60000}",
+            initialDelayString = "${app.mail.digest.initial-delay-ms:60000}")
+    public void flushClosedWindows() {
+        List<OperatorDigestEvent> due;
+        try {
+            due = digestRepository.findTop2000ByWindowStartLessThanOrderByWindowStartAscOperatorIdAscIdAsc(windowStart(Instant.now()));
+        } catch (Exception ex) {
+            log.warn("[OperatorDigestService] could not load digest events: {}", ex.getMessage());
+            return;
+        }
+        if (due.isEmpty()) return;
+
+        Map<String, List<OperatorDigestEvent>> groups = new LinkedHashMap<>();
+        String lastKey = null;
+        for (OperatorDigestEvent e : due) {
+            lastKey = e.getOperatorId() + ":" + e.getWindowStart().toEpochMilli();
+            groups.computeIfAbsent(lastKey, k -> new ArrayList<>()).add(e);
+        }
+        if (due.size() == FLUSH_PAGE_SIZE && groups.size() > 1) {
+            // the cut may have split the last group; it is sent whole on the next flush
+            groups.remove(lastKey);
+        }
+
+        int sent = 0;
+        for (Map.Entry<String, List<OperatorDigestEvent>> group : groups.entrySet()) {
+            List<OperatorDigestEvent> events = group.getValue();
+            OperatorDigestEvent first = events.get(0);
+            try {
+                Optional<MessageVersion> summary = emailService.operatorDigestMessage(
+                        first.getOperatorEmail(), first.getOperatorName(), first.getWindowStart(), events);
+                if (summary.isPresent()
+                        && !outboxService.enqueueUnique("digest:" + group.getKey() + ":" + first.getId(), List.of(summary.get()))) {
+                    continue;
+                }
+                digestRepository.deleteAll(events);
+                if (summary.isPresent()) sent++;
+            } catch (Exception ex) {
+                log.error("[OperatorDigestService] digest for operator={} failed: {}", first.getOperatorEmail(), ex.getMessage(), ex);
+            }
+        }
+        log.info("[OperatorDigestService] flushed {} events into {} digests",
+                groups.values().stream().mapToInt(List::size).sum(), sent);
+    }
+
+    private Instant windowStart(Instant t) {
+        long windowMs = Duration.ofMinutes(Math.max(windowMinutes, 1)).toMillis();
+        long ms = t.toEpochMilli();
+        return Instant.ofEpochMilli(ms - ms % windowMs);
+    }
+}
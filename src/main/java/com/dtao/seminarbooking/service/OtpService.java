@@ -4,111 +4,273 @@ import com.dtao.seminarbooking.model.OtpToken;
 import com.dtao.seminarbooking.model.User;
 import com.dtao.seminarbooking.repo.OtpTokenRepository;
 import com.dtao.seminarbooking.repo.UserRepository;
+import com.dtao.seminarbooking.security.AuthUserCache;
+import com.dtao.seminarbooking.security.PasswordHashingService;
+import com.dtao.seminarbooking.security.TokenRevocationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.Comparator;
-import java.util.List;
+import java.util.HexFormat;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Password-reset codes. Codes are stored as HMAC-SHA256(userId:code) under a server
+ * key - a 6-digit code lives for minutes, so a slow password hash buys nothing, while
+ * the attempt limit stops online guessing.
+ *
+ * The reset mail is sent on the dedicated {@code otpMailExecutor} lane, never behind
+ * queued notifications; callers get a request id and poll its delivery status.
+ */
 @Service
 public class OtpService {
 
+    private static final Logger log = LoggerFactory.getLogger(OtpService.class);
+
+    private static final String HMAC = "HmacSHA256";
+
+    private static final String QUEUED = "QUEUED";
+    private static final String SENT = "SENT";
+    private static final String FAILED = "FAILED";
+
+    private static final int DELIVERY_ATTEMPTS = 4;
+    private static final long MAX_DELIVERY_BACKOFF_MS = 5000;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private OtpTokenRepository otpTokenRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @Autowired
     private EmailService emailService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    @Qualifier("otpMailExecutor")
+    private TaskExecutor otpMailExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PasswordHashingService passwordHashing;
+
+    @Autowired
+    private AuthUserCache authUserCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Value("${app.otp.hmac-secret:${jwt.secret:change_this_secret_at_least_32_chars}}")
+    private String hmacSecret;
+
+    @Value("${app.otp.ttl-minutes:5}")
+    private long ttlMinutes;
+
+    @Value("${app.otp.max-attempts:5}")
+    private int maxAttempts;
 
     private static final SecureRandom random = new SecureRandom();
 
-    // Generate OTP & send to email
-    public boolean generateOtp(String email) {
-        Optional<User> maybeUser = userRepository.findByEmail(email);
-        if (maybeUser.isEmpty()) return false;
+    private SecretKeySpec hmacKey;
 
-        User user = maybeUser.get();
+    @PostConstruct
+    void initKey() throws Exception {
+        // derived, so the OTP key differs from the JWT key when both fall back to jwt.secret
+        byte[] key = MessageDigest.getInstance("SHA-256")
+                .digest(("otp:" + hmacSecret).getBytes(StandardCharsets.UTF_8));
+        hmacKey = new SecretKeySpec(key, HMAC);
+    }
 
-        // Invalidate all old tokens
-        List<OtpToken> oldTokens = otpTokenRepository.findByUserIdAndUsedIsFalse(user.getId());
-        for (OtpToken t : oldTokens) {
-            t.setUsed(true);
-            otpTokenRepository.save(t);
-        }
+    /**
+     * Generate an OTP and hand its mail to the priority lane.
+     *
+     * @return the delivery request id to poll with {@link #deliveryStatus}, or empty if no such user
+     */
+    public Optional<String> generateOtp(String email) {
+        Optional<User> maybeUser = userRepository.findByEmail(UserService.normalizeEmail(email));
+        if (maybeUser.isEmpty()) return Optional.empty();
+
+        User user = maybeUser.get();
 
         // Generate 6-digit OTP
         String otp = String.format("%06d", random.nextInt(1_000_000));
-        String otpHash = passwordEncoder.encode(otp);
+        OtpToken otpToken = new OtpToken(user.getId(), hmac(user.getId(), otp), Instant.now().plus(ttlMinutes, ChronoUnit.MINUTES));
+        otpToken.setRequestId(UUID.randomUUID().toString());
+        otpToken.setDeliveryStatus(QUEUED);
 
-        // Save new OTP valid for 5 minutes
-        OtpToken otpToken = new OtpToken(user.getId(), otpHash, Instant.now().plus(5, ChronoUnit.MINUTES));
-        otpTokenRepository.save(otpToken);
+        // Invalidate old tokens, then save; a concurrent request for the same user can win
+        // the unique "one active token" index, in which case invalidate and try once more
+        try {
+            invalidateActive(user.getId());
+            otpTokenRepository.insert(otpToken);
+        } catch (DuplicateKeyException ex) {
+            invalidateActive(user.getId());
+            otpToken.setId(null);
+            otpTokenRepository.insert(otpToken);
+        }
 
-        // Send mail (returns boolean but we still return true even if email fails to avoid leaking user presence)
-        emailService.sendOtp(user.getEmail(), otp);
+        // the HTTP request returns now; the client polls the request id for the outcome
+        String requestId = otpToken.getRequestId();
+        String toEmail = user.getEmail();
+        long queuedAt = System.nanoTime();
+        try {
+            otpMailExecutor.execute(() -> deliver(requestId, toEmail, otp, queuedAt));
+        } catch (TaskRejectedException ex) {
+            // lane saturated: never send on the request thread, let the client request a new code
+            log.warn("[OtpService] OTP mail lane full, request {} not queued", requestId);
+            recordDelivery(requestId, FAILED, queuedAt);
+        }
 
-        return true;
+        return Optional.of(requestId);
+    }
+
+    /** QUEUED, SENT or FAILED; empty once the request is unknown or its token has expired. */
+    public Optional<String> deliveryStatus(String requestId) {
+        if (requestId == null || requestId.isBlank()) return Optional.empty();
+        return otpTokenRepository.findByRequestId(requestId).map(OtpToken::getDeliveryStatus);
     }
 
     // Verify OTP with detailed status
-    // returns: "VALID", "EXPIRED", "INVALID", "NO_TOKEN", "USER_NOT_FOUND"
+    // returns: "VALID", "EXPIRED", "INVALID", "LOCKED", "NO_TOKEN", "USER_NOT_FOUND"
     public String verifyOtp(String email, String enteredOtp) {
-        Optional<User> maybeUser = userRepository.findByEmail(email);
+        Optional<User> maybeUser = userRepository.findByEmail(UserService.normalizeEmail(email));
         if (maybeUser.isEmpty()) return "USER_NOT_FOUND";
 
         User user = maybeUser.get();
 
-        List<OtpToken> tokens = otpTokenRepository.findByUserIdAndUsedIsFalse(user.getId());
-        if (tokens.isEmpty()) return "NO_TOKEN";
-
-        // Pick the latest OTP (by expiresAt)
-        OtpToken token = tokens.stream()
-                .max(Comparator.comparing(OtpToken::getExpiresAt))
-                .orElse(null);
+        Optional<OtpToken> maybeToken = otpTokenRepository.findFirstByUserIdAndUsedIsFalseOrderByExpiresAtDesc(user.getId());
+        if (maybeToken.isEmpty()) return "NO_TOKEN";
 
-        if (token == null) return "NO_TOKEN";
+        OtpToken token = maybeToken.get();
         if (token.getExpiresAt().isBefore(Instant.now())) return "EXPIRED";
+        if (token.getAttempts() >= maxAttempts) return "LOCKED";
 
-        if (passwordEncoder.matches(enteredOtp, token.getOtpHash())) {
-            // Mark all tokens as used
-            for (OtpToken t : tokens) {
-                t.setUsed(true);
-                otpTokenRepository.save(t);
-            }
+        if (enteredOtp != null && MessageDigest.isEqual(
+                hmac(user.getId(), enteredOtp.trim()).getBytes(StandardCharsets.US_ASCII),
+                token.getOtpHash().getBytes(StandardCharsets.US_ASCII))) {
+            invalidateActive(user.getId());
             return "VALID";
         }
 
-        return "INVALID";
+        return recordFailedAttempt(token) >= maxAttempts ? "LOCKED" : "INVALID";
     }
 
     // Reset password after OTP verified
     public boolean resetPassword(String email, String newPassword) {
-        Optional<User> maybeUser = userRepository.findByEmail(email);
+        Optional<User> maybeUser = userRepository.findByEmail(UserService.normalizeEmail(email));
         if (maybeUser.isEmpty()) return false;
 
         User user = maybeUser.get();
 
         // Hash and save new password
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashing.encode(newPassword));
         userRepository.save(user);
+        authUserCache.invalidate(user.getEmail());
+        // sessions opened with the old password must not outlive the reset
+        tokenRevocationService.revokeAllFor(user.getEmail());
 
-        // Mark all tokens as used
-        List<OtpToken> tokens = otpTokenRepository.findByUserIdAndUsedIsFalse(user.getId());
-        for (OtpToken t : tokens) {
-            t.setUsed(true);
-            otpTokenRepository.save(t);
+        invalidateActive(user.getId());
+        return true;
+    }
+
+    // -------------------- delivery --------------------
+    // runs on otpMailExecutor; short retries while Brevo is throttling or the circuit is open
+    private void deliver(String requestId, String toEmail, String otp, long queuedAt) {
+        BrevoClient.SendResult result = null;
+        try {
+            for (int attempt = 1; attempt <= DELIVERY_ATTEMPTS; attempt++) {
+                result = emailService.sendOtp(toEmail, otp, ttlMinutes);
+                if (result.ok() || !result.retryable()) break;
+                if (attempt < DELIVERY_ATTEMPTS) {
+                    Thread.sleep(Math.min(result.retryAfter().toMillis(), MAX_DELIVERY_BACKOFF_MS) + 200L * attempt);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            log.error("[OtpService] OTP delivery to {} failed: {}", toEmail, ex.getMessage(), ex);
         }
 
-        return true;
+        String status = result != null && result.ok() ? SENT : FAILED;
+        recordDelivery(requestId, status, queuedAt);
+        if (FAILED.equals(status)) {
+            log.warn("[OtpService] OTP mail to {} not delivered: {}", toEmail, result == null ? "error" : result.detail());
+        }
+    }
+
+    private void recordDelivery(String requestId, String status, long queuedAt) {
+        Timer.builder("email.otp.delivery")
+                .description("Time from OTP request to Brevo accepting (or finally refusing) the mail")
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+        try {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("requestId").is(requestId)),
+                    Update.update("deliveryStatus", status), OtpToken.class);
+        } catch (Exception ex) {
+            log.warn("[OtpService] could not record delivery status for {}: {}", requestId, ex.getMessage());
+        }
+    }
+
+    // -------------------- helpers --------------------
+    /** Marks every unused token of the user as used in one round trip. */
+    private void invalidateActive(String userId) {
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("userId").is(userId).and("used").is(false)),
+                Update.update("used", true),
+                OtpToken.class);
+    }
+
+    /** Atomically counts a wrong guess; the token is retired once the limit is reached. */
+    private int recordFailedAttempt(OtpToken token) {
+        OtpToken updated = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(token.getId()).and("used").is(false)),
+                new Update().inc("attempts", 1),
+                FindAndModifyOptions.options().returnNew(true),
+                OtpToken.class);
+        if (updated == null) return maxAttempts;
+        if (updated.getAttempts() >= maxAttempts) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(token.getId())),
+                    Update.update("used", true), OtpToken.class);
+        }
+        return updated.getAttempts();
+    }
+
+    private String hmac(String userId, String otp) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(hmacKey);
+            return HexFormat.of().formatHex(mac.doFinal((userId + ":" + otp).getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception ex) {
+            throw new IllegalStateException("OTP HMAC unavailable", ex);
+        }
     }
 }
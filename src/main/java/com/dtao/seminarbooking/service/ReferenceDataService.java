@@ -0,0 +1,165 @@
+package com.dtao.seminarbooking.service;
+
+import com.dtao.seminarbooking.model.Department;
+import com.dtao.seminarbooking.model.HallPhoto;
+import com.dtao.seminarbooking.model.SeminarHall;
+import com.dtao.seminarbooking.repo.DepartmentRepository;
+import com.dtao.seminarbooking.repo.SeminarHallRepository;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory snapshot of the small, rarely-changing reference collections (halls and
+ * departments). Readers take the current {@link Snapshot} with one volatile read and
+ * never touch Mongo; every write through the hall / department services builds a new
+ * snapshot and swaps it in atomically, and a periodic refresh picks up changes made by
+ * other instances or directly in the database.
+ *
+ * Entities inside a snapshot are shared between threads: treat them as read-only and
+ * load from the repository before modifying.
+ */
+@Service
+public class ReferenceDataService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReferenceDataService.class);
+
+    /**
+     * One immutable generation of reference data. The ETags are content hashes, so they
+     * agree across instances and stay the same when a refresh finds nothing changed.
+     */
+    public record Snapshot(long version,
+                           List<SeminarHall> halls,
+                           Map<String, SeminarHall> hallsById,
+                           Map<String, SeminarHall> hallsByName,
+                           String hallsEtag,
+                           List<Department> departments,
+                           Map<String, Department> departmentsByName,
+                           String departmentsEtag) {}
+
+    private final SeminarHallRepository hallRepository;
+    private final DepartmentRepository departmentRepository;
+
+    // null until first use, so startup does not depend on Mongo
+    private volatile Snapshot current;
+
+    public ReferenceDataService(SeminarHallRepository hallRepository, DepartmentRepository departmentRepository) {
+        this.hallRepository = hallRepository;
+        this.departmentRepository = departmentRepository;
+    }
+
+    public Snapshot snapshot() {
+        Snapshot s = current;
+        return s != null ? s : refresh();
+    }
+
+    // -------------------- lookups --------------------
+    public List<SeminarHall> halls() { return snapshot().halls(); }
+
+    public Optional<SeminarHall> hallById(String id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(snapshot().hallsById().get(id));
+    }
+
+    public Optional<SeminarHall> hallByName(String name) {
+        return name == null ? Optional.empty() : Optional.ofNullable(snapshot().hallsByName().get(key(name)));
+    }
+
+    /**
+     * Like {@link #hallById}, but a miss is checked against the database once: a hall just
+     * created on another instance is only picked up by the next refresh. A hit there
+     * refreshes the snapshot right away.
+     */
+    public Optional<SeminarHall> loadHallById(String id) {
+        Optional<SeminarHall> hall = hallById(id);
+        if (hall.isPresent() || id == null || id.isBlank()) return hall;
+        Optional<SeminarHall> stored = hallRepository.findById(id);
+        if (stored.isPresent()) refresh();
+        return stored;
+    }
+
+    /** {@link #hallByName} with the same database check on a miss as {@link #loadHallById}. */
+    public Optional<SeminarHall> loadHallByName(String name) {
+        Optional<SeminarHall> hall = hallByName(name);
+        if (hall.isPresent() || name == null || name.isBlank()) return hall;
+        Optional<SeminarHall> stored = hallRepository.findFirstByNameIgnoreCase(name.trim());
+        if (stored.isPresent()) refresh();
+        return stored;
+    }
+
+    public boolean hallExists(String name) {
+        return hallByName(name).isPresent();
+    }
+
+    public List<Department> departments() { return snapshot().departments(); }
+
+    public Optional<Department> departmentByName(String name) {
+        return name == null ? Optional.empty() : Optional.ofNullable(snapshot().departmentsByName().get(key(name)));
+    }
+
+    // -------------------- rebuild --------------------
+    /** Reload both collections and swap in a new snapshot. Call after every hall or department write. */
+    public synchronized Snapshot refresh() {
+        List<SeminarHall> halls = hallRepository.findAll().stream()
+                .sorted(Comparator.comparing(h -> h.getName() == null ? "" : h.getName(), String.CASE_INSENSITIVE_ORDER))
+                .toList();
+        List<Department> departments = departmentRepository.findAll().stream()
+                .sorted(Comparator.comparing(d -> d.getName() == null ? "" : d.getName(), String.CASE_INSENSITIVE_ORDER))
+                .toList();
+
+        Map<String, SeminarHall> byId = new HashMap<>();
+        Map<String, SeminarHall> byName = new HashMap<>();
+        StringBuilder hallSig = new StringBuilder();
+        for (SeminarHall h : halls) {
+            if (h.getId() != null) byId.put(h.getId(), h);
+            if (h.getName() != null) byName.putIfAbsent(key(h.getName()), h);
+            hallSig.append(h.getId()).append('|').append(h.getName()).append('|').append(h.getCapacity());
+            if (h.getPhotos() != null) {
+                for (HallPhoto p : h.getPhotos()) hallSig.append('|').append(p.getHash());
+            }
+            hallSig.append('\n');
+        }
+
+        Map<String, Department> deptByName = new HashMap<>();
+        StringBuilder deptSig = new StringBuilder();
+        for (Department d : departments) {
+            if (d.getName() != null) deptByName.putIfAbsent(key(d.getName()), d);
+            deptSig.append(d.getId()).append('|').append(d.getName()).append('\n');
+        }
+
+        long version = current == null ? 1 : current.version() + 1;
+        Snapshot next = new Snapshot(version,
+                halls, Map.copyOf(byId), Map.copyOf(byName), etag(hallSig),
+                departments, Map.copyOf(deptByName), etag(deptSig));
+        current = next;
+        log.debug("[ReferenceDataService] snapshot v{}: {} halls, {} departments", version, halls.size(), departments.size());
+        return next;
+    }
+
+    @Scheduled(fixedDelayString = "${app.reference-data.refresh-ms:60000}",
+            initialDelayString = "${app.reference-data.refresh-ms:60000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception ex) {
+            // keep serving the previous snapshot
+            log.warn("[ReferenceDataService] refresh failed: {}", ex.getMessage());
+        }
+    }
+
+    static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String etag(CharSequence signature) {
+        return "\"" + DigestUtils.sha256Hex(signature.toString()).substring(0, 20) + "\"";
+    }
+}
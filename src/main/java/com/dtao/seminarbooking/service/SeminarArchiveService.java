@@ -0,0 +1,164 @@
+package com.dtao.seminarbooking.service;
+
+import com.dtao.seminarbooking.model.Seminar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Pattern;
+
+/**
+ * Hot/cold split of the bookings. Seminars whose last day is more than
+ * {@code app.archive.after-days} in the past are moved from {@code seminars} to
+ * {@code seminars_archive} in batches, so the everyday queries (and their indexes) only
+ * cover current and upcoming bookings. History endpoints read the archive only when the
+ * caller asks for it.
+ *
+ * A batch is copied (upsert by id) before it is deleted from the hot collection, so an
+ * interrupted run never loses a booking and simply repeats the copy next time.
+ */
+@Service
+public class SeminarArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(SeminarArchiveService.class);
+
+    public static final String ARCHIVE_COLLECTION = "seminars_archive";
+
+    /** Outcome of one archive run. */
+    public record ArchiveResult(String cutoff, long moved, int batches) {}
+
+    private final MongoTemplate mongoTemplate;
+    private final Executor maintenanceExecutor;
+
+    @Value("${app.archive.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.archive.after-days:365}")
+    private int afterDays = 365;
+
+    @Value("${app.archive.batch-size:500}")
+    private int batchSize = 500;
+
+    // caps one run, so a first run over years of history cannot hog Mongo for long
+    @Value("${app.archive.max-batches-per-run:200}")
+    private int maxBatchesPerRun = 200;
+
+    public SeminarArchiveService(MongoTemplate mongoTemplate,
+                                 @Qualifier("maintenanceExecutor") Executor maintenanceExecutor) {
+        this.mongoTemplate = mongoTemplate;
+        this.maintenanceExecutor = maintenanceExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexesOnStartup() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                IndexOperations indexOps = mongoTemplate.indexOps(ARCHIVE_COLLECTION);
+                indexOps.createIndex(new Index().on("department", Sort.Direction.ASC).on("email", Sort.Direction.ASC)
+                        .named("dept_email"));
+                indexOps.createIndex(new Index().on("hallId", Sort.Direction.ASC).on("date", Sort.Direction.ASC)
+                        .named("hall_date"));
+            } catch (Exception ex) {
+                log.error("[SeminarArchiveService] could not ensure archive indexes: {}", ex.getMessage());
+            }
+        });
+    }
+
+    // -------------------- archiving --------------------
+    @Scheduled(cron = "${app.archive.cron:0 0 3 * * *}")
+    public void scheduledArchive() {
+        if (!enabled) return;
+        try {
+            maintenanceExecutor.execute(() -> {
+                try {
+                    archivePast();
+                } catch (Exception ex) {
+                    log.error("[SeminarArchiveService] archive run stopped: {}", ex.getMessage(), ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            log.warn("[SeminarArchiveService] maintenance executor busy, skipping this archive run");
+        }
+    }
+
+    /** Move every seminar that ended before the cutoff, batch by batch. */
+    public synchronized ArchiveResult archivePast() {
+        String cutoff = LocalDate.now().minusDays(afterDays).toString();
+        Criteria past = pastCriteria(cutoff);
+        long moved = 0;
+        int batches = 0;
+
+        while (batches < maxBatchesPerRun) {
+            Query q = Query.query(past).with(Sort.by("id")).limit(batchSize);
+            List<Seminar> batch = mongoTemplate.find(q, Seminar.class);
+            if (batch.isEmpty()) break;
+
+            BulkOperations copy = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Seminar.class, ARCHIVE_COLLECTION);
+            for (Seminar s : batch) {
+                copy.replaceOne(Query.query(Criteria.where("id").is(s.getId())), s, FindAndReplaceOptions.options().upsert());
+            }
+            copy.execute();
+
+            List<String> ids = batch.stream().map(Seminar::getId).toList();
+            // re-check the age: a booking moved to a later date meanwhile stays hot
+            moved += mongoTemplate.remove(Query.query(new Criteria().andOperator(Criteria.where("id").in(ids), past)),
+                    Seminar.class).getDeletedCount();
+            // drop the archive copies of the ones that stayed, so they are not listed or counted twice
+            Query stillHot = Query.query(Criteria.where("id").in(ids));
+            stillHot.fields().include("id");
+            List<String> kept = mongoTemplate.find(stillHot, Seminar.class).stream().map(Seminar::getId).toList();
+            if (!kept.isEmpty()) {
+                mongoTemplate.remove(Query.query(Criteria.where("id").in(kept)), ARCHIVE_COLLECTION);
+            }
+            batches++;
+        }
+
+        if (moved > 0) log.info("[SeminarArchiveService] archived {} seminar(s) that ended before {} ({} batch(es))", moved, cutoff, batches);
+        return new ArchiveResult(cutoff, moved, batches);
+    }
+
+    // last day before the cutoff: endDate for day ranges, date for time bookings (ISO strings compare by date)
+    static Criteria pastCriteria(String cutoff) {
+        return new Criteria().orOperator(
+                Criteria.where("endDate").lt(cutoff),
+                new Criteria().andOperator(Criteria.where("endDate").is(null), Criteria.where("date").lt(cutoff)));
+    }
+
+    // -------------------- reads --------------------
+    public List<Seminar> findAll() {
+        return mongoTemplate.findAll(Seminar.class, ARCHIVE_COLLECTION);
+    }
+
+    public List<Seminar> findByDepartmentAndEmail(String department, String email) {
+        Query q = Query.query(Criteria.where("department").is(department).and("email").is(email));
+        return mongoTemplate.find(q, Seminar.class, ARCHIVE_COLLECTION);
+    }
+
+    public List<Seminar> findByStatus(String status) {
+        Query q = Query.query(Criteria.where("status").regex("^" + Pattern.quote(status) + "$", "i"));
+        return mongoTemplate.find(q, Seminar.class, ARCHIVE_COLLECTION);
+    }
+
+    public Optional<Seminar> findById(String id) {
+        return Optional.ofNullable(mongoTemplate.findById(id, Seminar.class, ARCHIVE_COLLECTION));
+    }
+}
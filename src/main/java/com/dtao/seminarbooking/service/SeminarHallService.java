@@ -17,6 +17,12 @@ public class SeminarHallService {
     @Autowired
     private SeminarHallRepository repository;
 
+    @Autowired
+    private ReferenceDataService referenceData;
+
+    @Autowired
+    private HallReferenceService hallReferenceService;
+
     // Add Hall
     public SeminarHall addHall(SeminarHall hall) {
         if (hall == null) {
@@ -28,23 +34,30 @@ public class SeminarHallService {
         if (hall.getCapacity() == null || hall.getCapacity() <= 0) {
             throw new ResponseStatusException(BAD_REQUEST, "Capacity must be a positive integer");
         }
-        if (repository.existsByNameIgnoreCase(hall.getName())) {
+        if (referenceData.loadHallByName(hall.getName()).isPresent()) {
             throw new ResponseStatusException(CONFLICT, "Hall already exists");
         }
-        return repository.save(hall);
+        SeminarHall saved = repository.save(hall);
+        referenceData.refresh();
+        return saved;
     }
 
-    // Get all
+    // Get all (served from the reference-data snapshot)
     public List<SeminarHall> getAllHalls() {
-        return repository.findAll();
+        return referenceData.halls();
     }
 
-    // Get by id
+    // Get by id (a hall created on another instance is found before the next refresh)
     public SeminarHall getHallById(String id) {
-        return repository.findById(id)
+        return referenceData.loadHallById(id)
                 .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Hall not found"));
     }
 
+    /** ETag of the current hall list; changes whenever any hall does. */
+    public String hallsEtag() {
+        return referenceData.snapshot().hallsEtag();
+    }
+
     // Update name and capacity
     public SeminarHall updateHall(String id, SeminarHall updated) {
         if (updated == null) {
@@ -65,15 +78,22 @@ public class SeminarHallService {
                 .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Hall not found"));
 
         // Check duplicate name (case-insensitive)
-        Optional<SeminarHall> maybe = repository.findFirstByNameIgnoreCase(newName);
+        Optional<SeminarHall> maybe = referenceData.loadHallByName(newName);
         if (maybe.isPresent() && !maybe.get().getId().equals(existing.getId())) {
             throw new ResponseStatusException(CONFLICT, "Another hall with the same name exists");
         }
 
+        String oldName = existing.getName();
         existing.setName(newName);
         existing.setCapacity(newCapacity);
 
-        return repository.save(existing);
+        SeminarHall saved = repository.save(existing);
+        referenceData.refresh();
+        // bookings reference the hall by id; only their display name needs updating (async)
+        if (!newName.equals(oldName)) {
+            hallReferenceService.propagateRename(saved.getId(), oldName, newName);
+        }
+        return saved;
     }
 
     // Delete
@@ -82,5 +102,6 @@ public class SeminarHallService {
             throw new ResponseStatusException(NOT_FOUND, "Hall not found");
         }
         repository.deleteById(id);
+        referenceData.refresh();
     }
 }
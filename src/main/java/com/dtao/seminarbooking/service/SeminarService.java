@@ -1,11 +1,18 @@
 // File: src/main/java/com/dtao/seminarbooking/service/SeminarService.java
 package com.dtao.seminarbooking.service;
 
+import com.dtao.seminarbooking.config.MongoCallCounter;
 import com.dtao.seminarbooking.model.Seminar;
 import com.dtao.seminarbooking.model.Seminar.DaySlot;
+import com.dtao.seminarbooking.model.SeminarHall;
 import com.dtao.seminarbooking.payload.CalendarDaySummary;
 import com.dtao.seminarbooking.repo.SeminarRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Range;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -14,6 +21,7 @@ import java.time.format.DateTimeParseException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -23,6 +31,31 @@ public class SeminarService {
     @Autowired
     private SeminarRepository seminarRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ReferenceDataService referenceData;
+
+    @Autowired
+    private HallUsageService hallUsage;
+
+    @Autowired
+    private SeminarArchiveService archive;
+
+    @Autowired
+    private BookingAuditService audit;
+
+    @Autowired
+    private HallReferenceService hallReferences;
+
+    private Timer addTimer;
+    private Timer updateTimer;
+    private Timer conflictAddTimer;
+    private Timer conflictUpdateTimer;
+    private Timer calendarTimer;
+    private DistributionSummary calendarMongoCalls;
+
     // Regex for email validation -> only @newhorizonindia.edu allowed
     private static final Pattern EMAIL_PATTERN =
             Pattern.compile("^[A-Za-z0-9._%+-]+@newhorizonindia\\.edu$");
@@ -36,11 +69,33 @@ public class SeminarService {
     // NEW: Maximum number of days allowed for a day-range booking (inclusive)
     private static final long MAX_BOOKING_DAYS = 7L;
 
+    @PostConstruct
+    void initMetrics() {
+        addTimer = latencyTimer("booking.seminar.add", "Create booking incl. validation and conflict check");
+        updateTimer = latencyTimer("booking.seminar.update", "Update booking incl. validation and conflict check");
+        conflictAddTimer = Timer.builder("booking.conflict.check").tag("operation", "add")
+                .publishPercentileHistogram().register(meterRegistry);
+        conflictUpdateTimer = Timer.builder("booking.conflict.check").tag("operation", "update")
+                .publishPercentileHistogram().register(meterRegistry);
+        calendarTimer = latencyTimer("booking.calendar.build", "Build month calendar summary");
+        calendarMongoCalls = DistributionSummary.builder("booking.calendar.mongo.calls")
+                .description("Mongo commands issued per calendar build")
+                .register(meterRegistry);
+    }
+
+    private Timer latencyTimer(String name, String description) {
+        return Timer.builder(name).description(description).publishPercentileHistogram().register(meterRegistry);
+    }
+
     // -------------------------
     // Add seminar
     // (existing code unchanged)
     // -------------------------
     public Seminar addSeminar(Seminar seminar) {
+        return addTimer.record(() -> doAddSeminar(seminar));
+    }
+
+    private Seminar doAddSeminar(Seminar seminar) {
         if (seminar.getCreatedBy() != null &&
                 !"ADMIN".equalsIgnoreCase(seminar.getCreatedBy().trim())) {
             throw new RuntimeException("createdBy may only be set to 'ADMIN' by admin endpoints.");
@@ -54,16 +109,21 @@ public class SeminarService {
 
         // Validate email/phone first
         validateEmailPhoneOrThrow(seminar);
+        resolveHallOrThrow(seminar);
 
         // Validate payload shape & check conflicts
         validatePayloadShapeOrThrow(seminar);
-        checkTimeConflictsForAdd(seminar);
+        conflictAddTimer.record(() -> checkTimeConflictsForAdd(seminar));
 
         if (seminar.getAppliedAt() == null) {
             seminar.setAppliedAt(Instant.now().toString());
         }
+        seminar.setUpdatedAt(Instant.now().toString());
 
-        return seminarRepository.save(seminar);
+        Seminar saved = seminarRepository.save(seminar);
+        hallUsage.apply(Map.of(), hallUsage.contribution(saved));
+        audit.record(BookingAuditService.CREATED, saved.getId(), Map.of(), saved);
+        return saved;
     }
 
     // -------------------------
@@ -73,12 +133,19 @@ public class SeminarService {
         return seminarRepository.findAll();
     }
 
+    // history views: current bookings plus, only when asked, the archived ones
+    public List<Seminar> getAllSeminars(boolean includeArchived) {
+        List<Seminar> all = seminarRepository.findAll();
+        return includeArchived ? withArchived(all, archive.findAll()) : all;
+    }
+
     public List<Seminar> getSeminarsByDate(String date) {
         return seminarRepository.findByDate(date);
     }
 
     public List<Seminar> getByHallAndDate(String date, String hallName) {
-        return seminarRepository.findByDateAndHallName(date, hallName);
+        String hallId = hallIdFor(hallName);
+        return hallId == null ? new ArrayList<>() : hallBookingsOn(hallId, date);
     }
 
     public List<Seminar> findByDateAndHallName(String date, String hallName) {
@@ -89,10 +156,20 @@ public class SeminarService {
         return seminarRepository.findByDepartmentAndEmail(department, email);
     }
 
+    public List<Seminar> getByDepartmentAndEmail(String department, String email, boolean includeArchived) {
+        List<Seminar> all = seminarRepository.findByDepartmentAndEmail(department, email);
+        return includeArchived ? withArchived(all, archive.findByDepartmentAndEmail(department, email)) : all;
+    }
+
     public Optional<Seminar> getById(String id) {
         return seminarRepository.findById(id);
     }
 
+    public Optional<Seminar> getById(String id, boolean includeArchived) {
+        Optional<Seminar> hot = seminarRepository.findById(id);
+        return hot.isPresent() || !includeArchived ? hot : archive.findById(id);
+    }
+
     // -------------------------
     // New: Calendar support methods
     // -------------------------
@@ -106,6 +183,13 @@ public class SeminarService {
      * @return list with one CalendarDaySummary per day of month (sorted ascending)
      */
     public List<CalendarDaySummary> getCalendarMonthSummary(String hallName, int year, int month) {
+        int callsBefore = MongoCallCounter.current();
+        List<CalendarDaySummary> out = calendarTimer.record(() -> buildCalendarMonthSummary(hallName, year, month));
+        calendarMongoCalls.record(MongoCallCounter.current() - callsBefore);
+        return out;
+    }
+
+    private List<CalendarDaySummary> buildCalendarMonthSummary(String hallName, int year, int month) {
         LocalDate start = LocalDate.of(year, month, 1);
         LocalDate end = start.withDayOfMonth(start.lengthOfMonth());
         String startStr = start.format(DATE_FMT);
@@ -113,17 +197,22 @@ public class SeminarService {
 
         Map<LocalDate, Integer> counts = new HashMap<>();
         String hallNorm = (hallName == null || hallName.isBlank()) ? null : hallName.trim();
+        String hallId = hallIdFor(hallNorm);
+        if (hallNorm != null && hallId == null) {
+            // unknown hall: nothing can be booked in it
+            return daySummaries(start, end, counts);
+        }
 
         // 1) time bookings (seminar.date)
         List<Seminar> timeBookings;
         if (hallNorm != null) {
             // use optimized repo if available
             try {
-                timeBookings = seminarRepository.findByHallNameAndDateBetween(hallNorm, startStr, endStr);
+                timeBookings = hallBookingsBetween(hallId, startStr, endStr);
             } catch (Exception ex) {
                 // fallback: filter all
                 timeBookings = seminarRepository.findAll().stream()
-                        .filter(s -> s.getDate() != null && s.getHallName() != null && s.getHallName().equalsIgnoreCase(hallNorm))
+                        .filter(s -> s.getDate() != null && inHall(s, hallId))
                         .collect(Collectors.toList());
             }
         } else {
@@ -145,14 +234,14 @@ public class SeminarService {
         // 2) day-range bookings overlapping month (startDate..endDate)
         List<Seminar> dayRangeBookings;
         if (hallNorm != null) {
-            // repository method: findByHallNameAndStartDateLessThanEqualAndEndDateGreaterThanEqual(String hallName, String startDate, String endDate);
+            // hallRangesCovering(hallId, startDate, endDate): startDate <= first arg AND endDate >= second arg
             // we want startDate <= monthEnd AND endDate >= monthStart  => pass (endStr, startStr) as params
             try {
-                dayRangeBookings = seminarRepository.findByHallNameAndStartDateLessThanEqualAndEndDateGreaterThanEqual(hallNorm, endStr, startStr);
+                dayRangeBookings = hallRangesCovering(hallId, endStr, startStr);
             } catch (Exception ex) {
                 dayRangeBookings = seminarRepository.findAll().stream()
                         .filter(s -> s.getStartDate() != null && s.getEndDate() != null
-                                && s.getHallName() != null && s.getHallName().equalsIgnoreCase(hallNorm))
+                                && inHall(s, hallId))
                         .collect(Collectors.toList());
             }
         } else {
@@ -180,9 +269,9 @@ public class SeminarService {
 
         // 3) daySlots specific dates (map keys)
         // filter seminars that have daySlots and (optional) hall
-        List<Seminar> withDaySlots = seminarRepository.findAll().stream()
+        List<Seminar> withDaySlots = (hallId == null ? seminarRepository.findAll() : hallDaySlotBookings(hallId)).stream()
                 .filter(s -> s.getDaySlots() != null && !s.getDaySlots().isEmpty())
-                .filter(s -> hallNorm == null || (s.getHallName() != null && s.getHallName().equalsIgnoreCase(hallNorm)))
+                .filter(s -> hallId == null || inHall(s, hallId))
                 .collect(Collectors.toList());
 
         for (Seminar s : withDaySlots) {
@@ -196,7 +285,10 @@ public class SeminarService {
             }
         }
 
-        // Build final list
+        return daySummaries(start, end, counts);
+    }
+
+    private static List<CalendarDaySummary> daySummaries(LocalDate start, LocalDate end, Map<LocalDate, Integer> counts) {
         List<CalendarDaySummary> out = new ArrayList<>();
         LocalDate cursor = start;
         while (!cursor.isAfter(end)) {
@@ -207,6 +299,54 @@ public class SeminarService {
         return out;
     }
 
+    // hall filters arrive as names; bookings are keyed by hallId (null when no filter or unknown hall)
+    private String hallIdFor(String hallName) {
+        if (hallName == null) return null;
+        return referenceData.hallByName(hallName).map(SeminarHall::getId).orElse(null);
+    }
+
+    // ---------- hall-keyed lookups ----------
+    // Bookings are matched by hallId. Until the hallId migration has linked every booking,
+    // bookings still without one are also matched by the hall's name, so they keep blocking
+    // their slot and showing in the calendar.
+    private List<Seminar> hallBookingsOn(String hallId, String date) {
+        return withLegacy(seminarRepository.findByHallIdAndDate(hallId, date), hallId,
+                name -> seminarRepository.findByHallIdIsNullAndHallNameIgnoreCaseAndDate(name, date));
+    }
+
+    private List<Seminar> hallBookingsBetween(String hallId, String startDate, String endDate) {
+        Range<String> dates = Range.closed(startDate, endDate);
+        return withLegacy(seminarRepository.findByHallIdAndDateBetween(hallId, dates), hallId,
+                name -> seminarRepository.findByHallIdIsNullAndHallNameIgnoreCaseAndDateBetween(name, dates));
+    }
+
+    // day ranges with startDate <= startOnOrBefore and endDate >= endOnOrAfter
+    private List<Seminar> hallRangesCovering(String hallId, String startOnOrBefore, String endOnOrAfter) {
+        return withLegacy(seminarRepository.findByHallIdAndStartDateLessThanEqualAndEndDateGreaterThanEqual(hallId, startOnOrBefore, endOnOrAfter), hallId,
+                name -> seminarRepository.findByHallIdIsNullAndHallNameIgnoreCaseAndStartDateLessThanEqualAndEndDateGreaterThanEqual(name, startOnOrBefore, endOnOrAfter));
+    }
+
+    private List<Seminar> hallDaySlotBookings(String hallId) {
+        return withLegacy(seminarRepository.findByHallIdAndDaySlotsIsNotNull(hallId), hallId,
+                seminarRepository::findByHallIdIsNullAndHallNameIgnoreCaseAndDaySlotsIsNotNull);
+    }
+
+    private List<Seminar> withLegacy(List<Seminar> linked, String hallId, Function<String, List<Seminar>> byName) {
+        if (!hallReferences.legacyBookingsRemain()) return linked;
+        Optional<SeminarHall> hall = referenceData.hallById(hallId);
+        if (hall.isEmpty()) return linked;
+        List<Seminar> all = new ArrayList<>(linked);
+        all.addAll(byName.apply(hall.get().getName()));
+        return all;
+    }
+
+    private boolean inHall(Seminar s, String hallId) {
+        if (s.getHallId() != null) return hallId.equals(s.getHallId());
+        return s.getHallName() != null && referenceData.hallById(hallId)
+                .map(h -> h.getName().equalsIgnoreCase(s.getHallName().trim()))
+                .orElse(false);
+    }
+
     /**
      * Returns all seminars affecting a given date:
      * - exact date bookings (seminar.date == date)
@@ -217,26 +357,29 @@ public class SeminarService {
      * @param hallName optional hall filter
      */
     public List<Seminar> getSeminarsForDay(String date, String hallName) {
+        String hallNorm = (hallName == null || hallName.isBlank()) ? null : hallName.trim();
+        String hallId = hallIdFor(hallNorm);
+        if (hallNorm != null && hallId == null) return new ArrayList<>();
+
         // 1) time bookings exact
         List<Seminar> timeBookings;
-        if (hallName != null && !hallName.isBlank()) {
-            timeBookings = seminarRepository.findByDateAndHallName(date, hallName);
+        if (hallId != null) {
+            timeBookings = hallBookingsOn(hallId, date);
         } else {
             timeBookings = seminarRepository.findByDate(date);
         }
 
         // 2) day-range bookings that include date
         List<Seminar> dayRange;
-        String hallNorm = (hallName == null || hallName.isBlank()) ? null : hallName.trim();
         if (hallNorm != null) {
             // use repo method expecting startDate <= date && endDate >= date
             try {
-                dayRange = seminarRepository.findByHallNameAndStartDateLessThanEqualAndEndDateGreaterThanEqual(hallNorm, date, date);
+                dayRange = hallRangesCovering(hallId, date, date);
             } catch (Exception ex) {
                 dayRange = seminarRepository.findAll().stream()
                         .filter(s -> s.getStartDate() != null && s.getEndDate() != null
                                 && s.getStartDate().compareTo(date) <= 0 && s.getEndDate().compareTo(date) >= 0
-                                && s.getHallName() != null && s.getHallName().equalsIgnoreCase(hallNorm))
+                                && inHall(s, hallId))
                         .collect(Collectors.toList());
             }
         } else {
@@ -247,9 +390,9 @@ public class SeminarService {
         }
 
         // 3) daySlots containing this date
-        List<Seminar> daySlotMatches = seminarRepository.findAll().stream()
+        List<Seminar> daySlotMatches = (hallId == null ? seminarRepository.findAll() : hallDaySlotBookings(hallId)).stream()
                 .filter(s -> s.getDaySlots() != null && s.getDaySlots().containsKey(date))
-                .filter(s -> hallNorm == null || (s.getHallName() != null && s.getHallName().equalsIgnoreCase(hallNorm)))
+                .filter(s -> hallId == null || inHall(s, hallId))
                 .collect(Collectors.toList());
 
         // Merge without duplicates (use id)
@@ -266,13 +409,27 @@ public class SeminarService {
     // (existing code unchanged)
     // -------------------------
     public Seminar updateSeminar(String id, Seminar updatedSeminar) {
+        return updateTimer.record(() -> doUpdateSeminar(id, updatedSeminar));
+    }
+
+    private Seminar doUpdateSeminar(String id, Seminar updatedSeminar) {
         return seminarRepository.findById(id).map(existing -> {
+            Map<String, HallUsageService.Share> usageBefore = hallUsage.contribution(existing);
+            Map<String, String> auditBefore = audit.snapshot(existing);
             if (updatedSeminar.getCreatedBy() != null &&
                     !"ADMIN".equalsIgnoreCase(updatedSeminar.getCreatedBy().trim())) {
                 throw new RuntimeException("createdBy may only be set to 'ADMIN' by admin endpoints.");
             }
 
-            if (updatedSeminar.getHallName() != null) existing.setHallName(updatedSeminar.getHallName());
+            if (updatedSeminar.getHallId() != null && !updatedSeminar.getHallId().equals(existing.getHallId())) {
+                existing.setHallId(updatedSeminar.getHallId());
+                resolveHallOrThrow(existing);
+            } else if (updatedSeminar.getHallName() != null && !updatedSeminar.getHallName().equalsIgnoreCase(existing.getHallName())) {
+                existing.setHallId(null);
+                existing.setHallName(updatedSeminar.getHallName());
+            }
+            // also covers bookings not yet reached by the hallId migration
+            if (existing.getHallId() == null) resolveHallOrThrow(existing);
             if (updatedSeminar.getDate() != null) existing.setDate(updatedSeminar.getDate());
             if (updatedSeminar.getStartDate() != null) existing.setStartDate(updatedSeminar.getStartDate());
             if (updatedSeminar.getEndDate() != null) existing.setEndDate(updatedSeminar.getEndDate());
@@ -301,14 +458,23 @@ public class SeminarService {
             // Validate and check conflicts before save
             validateEmailPhoneOrThrow(existing);
             validatePayloadShapeOrThrow(existing);
-            checkTimeConflictsForUpdate(existing, id);
+            conflictUpdateTimer.record(() -> checkTimeConflictsForUpdate(existing, id));
 
-            return seminarRepository.save(existing);
+            existing.setUpdatedAt(Instant.now().toString());
+            Seminar saved = seminarRepository.save(existing);
+            hallUsage.apply(usageBefore, hallUsage.contribution(saved));
+            audit.record(BookingAuditService.UPDATED, id, auditBefore, saved);
+            return saved;
         }).orElse(null);
     }
 
     public void deleteSeminar(String id) {
+        Optional<Seminar> existing = seminarRepository.findById(id);
         seminarRepository.deleteById(id);
+        existing.ifPresent(s -> {
+            hallUsage.apply(hallUsage.contribution(s), Map.of());
+            audit.record(BookingAuditService.DELETED, id, audit.snapshot(s), null);
+        });
     }
 
     // -------------------------
@@ -316,6 +482,8 @@ public class SeminarService {
     // -------------------------
     public Seminar requestCancel(String id, String cancellationReason, String remarks) {
         return seminarRepository.findById(id).map(existing -> {
+            Map<String, HallUsageService.Share> usageBefore = hallUsage.contribution(existing);
+            Map<String, String> auditBefore = audit.snapshot(existing);
             existing.setStatus("CANCEL_REQUESTED");
 
             if (cancellationReason != null && !cancellationReason.isBlank()) {
@@ -329,7 +497,11 @@ public class SeminarService {
                 existing.setRemarks(prev);
             }
 
-            return seminarRepository.save(existing);
+            existing.setUpdatedAt(Instant.now().toString());
+            Seminar saved = seminarRepository.save(existing);
+            hallUsage.apply(usageBefore, hallUsage.contribution(saved));
+            audit.record(BookingAuditService.CANCEL_REQUESTED, id, auditBefore, saved);
+            return saved;
         }).orElse(null);
     }
 
@@ -343,6 +515,24 @@ public class SeminarService {
         }
     }
 
+    // hall must exist; hallId is the reference, hallName is refreshed to the hall's current name
+    private void resolveHallOrThrow(Seminar seminar) {
+        Optional<SeminarHall> hall;
+        String wanted;
+        if (seminar.getHallId() != null && !seminar.getHallId().isBlank()) {
+            wanted = seminar.getHallId();
+            hall = referenceData.loadHallById(wanted);
+        } else if (seminar.getHallName() != null && !seminar.getHallName().isBlank()) {
+            wanted = seminar.getHallName();
+            hall = referenceData.loadHallByName(wanted);
+        } else {
+            throw new RuntimeException("hallId or hallName is required");
+        }
+        SeminarHall resolved = hall.orElseThrow(() -> new RuntimeException("Hall not found: " + wanted));
+        seminar.setHallId(resolved.getId());
+        seminar.setHallName(resolved.getName());
+    }
+
     /**
      * Validate payload shape:
      * - Time booking requires date + startTime + endTime
@@ -433,6 +623,10 @@ public class SeminarService {
         if (hall.isBlank()) {
             throw new RuntimeException("Hall name is required for booking.");
         }
+        String hallId = seminar.getHallId();
+        if (hallId == null) {
+            throw new RuntimeException("Hall not found: " + hall);
+        }
 
         // ---- Time booking (single date + startTime/endTime) ----
         if (seminar.getDate() != null) {
@@ -449,11 +643,11 @@ public class SeminarService {
             // fetch existing time bookings for same hall+date (or all if no hall)
             List<Seminar> existingTimeBookings;
             try {
-                existingTimeBookings = seminarRepository.findByDateAndHallName(seminar.getDate(), hall);
+                existingTimeBookings = hallBookingsOn(hallId, seminar.getDate());
             } catch (Exception ex) {
                 existingTimeBookings = seminarRepository.findAll().stream()
                         .filter(s -> s.getDate() != null && s.getDate().equals(seminar.getDate())
-                                && s.getHallName() != null && s.getHallName().equalsIgnoreCase(hall))
+                                && inHall(s, hallId))
                         .collect(Collectors.toList());
             }
 
@@ -481,13 +675,13 @@ public class SeminarService {
             // Also check day-range bookings whose range covers this date (same hall)
             List<Seminar> dayRangeBookings;
             try {
-                dayRangeBookings = seminarRepository.findByHallNameAndStartDateLessThanEqualAndEndDateGreaterThanEqual(hall, seminar.getDate(), seminar.getDate());
+                dayRangeBookings = hallRangesCovering(hallId, seminar.getDate(), seminar.getDate());
             } catch (Exception ex) {
                 dayRangeBookings = seminarRepository.findAll().stream()
                         .filter(s -> s.getStartDate() != null && s.getEndDate() != null
                                 && s.getStartDate().compareTo(seminar.getDate()) <= 0
                                 && s.getEndDate().compareTo(seminar.getDate()) >= 0
-                                && s.getHallName() != null && s.getHallName().equalsIgnoreCase(hall))
+                                && inHall(s, hallId))
                         .collect(Collectors.toList());
             }
 
@@ -496,9 +690,9 @@ public class SeminarService {
             }
 
             // Also check daySlots map entries for same date
-            List<Seminar> daySlotsContainingDate = seminarRepository.findAll().stream()
+            List<Seminar> daySlotsContainingDate = hallDaySlotBookings(hallId).stream()
                     .filter(s -> s.getDaySlots() != null && s.getDaySlots().containsKey(seminar.getDate()))
-                    .filter(s -> s.getHallName() != null && s.getHallName().equalsIgnoreCase(hall))
+                    .filter(s -> inHall(s, hallId))
                     .collect(Collectors.toList());
             if (!daySlotsContainingDate.isEmpty()) {
                 throw new RuntimeException("❌ This day is already booked (daySlots) in " + hall + ". Please choose another date.");
@@ -539,10 +733,10 @@ public class SeminarService {
             // Fetch potentially conflicting seminars for this hall (narrow with repo if possible)
             List<Seminar> candidates;
             try {
-                candidates = seminarRepository.findByHallNameAndStartDateLessThanEqualAndEndDateGreaterThanEqual(hall, seminar.getEndDate(), seminar.getStartDate());
+                candidates = hallRangesCovering(hallId, seminar.getEndDate(), seminar.getStartDate());
             } catch (Exception ex) {
                 candidates = seminarRepository.findAll().stream()
-                        .filter(s -> s.getHallName() != null && s.getHallName().equalsIgnoreCase(hall))
+                        .filter(s -> inHall(s, hallId))
                         .collect(Collectors.toList());
             }
 
@@ -604,11 +798,11 @@ public class SeminarService {
                     // check time overlap with existing time bookings for that date
                     List<Seminar> timeOnDate;
                     try {
-                        timeOnDate = seminarRepository.findByDateAndHallName(key, hall);
+                        timeOnDate = hallBookingsOn(hallId, key);
                     } catch (Exception ex) {
                         timeOnDate = seminarRepository.findAll().stream()
                                 .filter(s -> s.getDate() != null && s.getDate().equals(key)
-                                        && s.getHallName() != null && s.getHallName().equalsIgnoreCase(hall))
+                                        && inHall(s, hallId))
                                 .collect(Collectors.toList());
                     }
 
@@ -621,9 +815,9 @@ public class SeminarService {
                     }
 
                     // also check existing daySlots on same date
-                    List<Seminar> existingDaySlots = seminarRepository.findAll().stream()
+                    List<Seminar> existingDaySlots = hallDaySlotBookings(hallId).stream()
                             .filter(s -> s.getDaySlots() != null && s.getDaySlots().containsKey(key))
-                            .filter(s -> s.getHallName() != null && s.getHallName().equalsIgnoreCase(hall))
+                            .filter(s -> inHall(s, hallId))
                             .collect(Collectors.toList());
                     if (!existingDaySlots.isEmpty()) {
                         throw new RuntimeException("❌ This day is already booked (daySlots) in " + hall + ". Please choose another date.");
@@ -652,6 +846,10 @@ public class SeminarService {
         if (hall.isBlank()) {
             throw new RuntimeException("Hall name is required for booking.");
         }
+        String hallId = seminar.getHallId();
+        if (hallId == null) {
+            throw new RuntimeException("Hall not found: " + hall);
+        }
 
         // Helper to filter out same id
         java.util.function.Predicate<Seminar> notSameId = s -> s != null && s.getId() != null && !s.getId().equals(id);
@@ -671,13 +869,13 @@ public class SeminarService {
             // fetch existing time bookings for same hall+date (or all if no hall) and exclude same id
             List<Seminar> existingTimeBookings;
             try {
-                existingTimeBookings = seminarRepository.findByDateAndHallName(seminar.getDate(), hall).stream()
+                existingTimeBookings = hallBookingsOn(hallId, seminar.getDate()).stream()
                         .filter(notSameId)
                         .collect(Collectors.toList());
             } catch (Exception ex) {
                 existingTimeBookings = seminarRepository.findAll().stream()
                         .filter(s -> s.getDate() != null && s.getDate().equals(seminar.getDate())
-                                && s.getHallName() != null && s.getHallName().equalsIgnoreCase(hall))
+                                && inHall(s, hallId))
                         .filter(notSameId)
                         .collect(Collectors.toList());
             }
@@ -706,7 +904,7 @@ public class SeminarService {
             // Also check day-range bookings whose range covers this date (same hall) excluding same id
             List<Seminar> dayRangeBookings;
             try {
-                dayRangeBookings = seminarRepository.findByHallNameAndStartDateLessThanEqualAndEndDateGreaterThanEqual(hall, seminar.getDate(), seminar.getDate()).stream()
+                dayRangeBookings = hallRangesCovering(hallId, seminar.getDate(), seminar.getDate()).stream()
                         .filter(notSameId)
                         .collect(Collectors.toList());
             } catch (Exception ex) {
@@ -714,7 +912,7 @@ public class SeminarService {
                         .filter(s -> s.getStartDate() != null && s.getEndDate() != null
                                 && s.getStartDate().compareTo(seminar.getDate()) <= 0
                                 && s.getEndDate().compareTo(seminar.getDate()) >= 0
-                                && s.getHallName() != null && s.getHallName().equalsIgnoreCase(hall))
+                                && inHall(s, hallId))
                         .filter(notSameId)
                         .collect(Collectors.toList());
             }
@@ -724,9 +922,9 @@ public class SeminarService {
             }
 
             // Also check daySlots map entries for same date (exclude same id)
-            List<Seminar> daySlotsContainingDate = seminarRepository.findAll().stream()
+            List<Seminar> daySlotsContainingDate = hallDaySlotBookings(hallId).stream()
                     .filter(s -> s.getDaySlots() != null && s.getDaySlots().containsKey(seminar.getDate()))
-                    .filter(s -> s.getHallName() != null && s.getHallName().equalsIgnoreCase(hall))
+                    .filter(s -> inHall(s, hallId))
                     .filter(notSameId)
                     .collect(Collectors.toList());
             if (!daySlotsContainingDate.isEmpty()) {
@@ -767,12 +965,12 @@ public class SeminarService {
             // Fetch potentially conflicting seminars for this hall (narrow with repo if possible)
             List<Seminar> candidates;
             try {
-                candidates = seminarRepository.findByHallNameAndStartDateLessThanEqualAndEndDateGreaterThanEqual(hall, seminar.getEndDate(), seminar.getStartDate()).stream()
+                candidates = hallRangesCovering(hallId, seminar.getEndDate(), seminar.getStartDate()).stream()
                         .filter(notSameId)
                         .collect(Collectors.toList());
             } catch (Exception ex) {
                 candidates = seminarRepository.findAll().stream()
-                        .filter(s -> s.getHallName() != null && s.getHallName().equalsIgnoreCase(hall))
+                        .filter(s -> inHall(s, hallId))
                         .filter(notSameId)
                         .collect(Collectors.toList());
             }
@@ -833,13 +1031,13 @@ public class SeminarService {
                     // check time overlap with existing time bookings for that date (excluding same id)
                     List<Seminar> timeOnDate;
                     try {
-                        timeOnDate = seminarRepository.findByDateAndHallName(key, hall).stream()
+                        timeOnDate = hallBookingsOn(hallId, key).stream()
                                 .filter(notSameId)
                                 .collect(Collectors.toList());
                     } catch (Exception ex) {
                         timeOnDate = seminarRepository.findAll().stream()
                                 .filter(s -> s.getDate() != null && s.getDate().equals(key)
-                                        && s.getHallName() != null && s.getHallName().equalsIgnoreCase(hall))
+                                        && inHall(s, hallId))
                                 .filter(notSameId)
                                 .collect(Collectors.toList());
                     }
@@ -853,9 +1051,9 @@ public class SeminarService {
                     }
 
                     // also check existing daySlots on same date excluding same id
-                    List<Seminar> existingDaySlots = seminarRepository.findAll().stream()
+                    List<Seminar> existingDaySlots = hallDaySlotBookings(hallId).stream()
                             .filter(s -> s.getDaySlots() != null && s.getDaySlots().containsKey(key))
-                            .filter(s -> s.getHallName() != null && s.getHallName().equalsIgnoreCase(hall))
+                            .filter(s -> inHall(s, hallId))
                             .filter(notSameId)
                             .collect(Collectors.toList());
                     if (!existingDaySlots.isEmpty()) {
@@ -866,6 +1064,27 @@ public class SeminarService {
         }
     }
 
+    // -------------------------
+    // Availability (hall recommender)
+    // -------------------------
+    /**
+     * Whether a hall is free on date for startTime..endTime (null times = the whole day),
+     * judged like the add-time conflict check but conservatively: a booking on that date
+     * without times counts as occupying it. Uses the hall-keyed indexed queries only.
+     */
+    public boolean isHallFree(String hallId, String date, String startTime, String endTime) {
+        boolean wholeDay = startTime == null || endTime == null;
+        for (Seminar s : hallBookingsOn(hallId, date)) {
+            if (wholeDay || s.getStartTime() == null || s.getEndTime() == null) return false;
+            if (isOverlapping(startTime, endTime, s.getStartTime(), s.getEndTime())) return false;
+        }
+        if (!hallRangesCovering(hallId, date, date).isEmpty()) {
+            return false;
+        }
+        return hallDaySlotBookings(hallId).stream()
+                .noneMatch(s -> s.getDaySlots().containsKey(date));
+    }
+
     // Simple overlap check (time strings HH:mm)
     private boolean isOverlapping(String start1, String end1, String start2, String end2) {
         if (start1 == null || end1 == null || start2 == null || end2 == null) return false;
@@ -891,4 +1110,17 @@ public class SeminarService {
         return seminarRepository.findByStatusIgnoreCase(status);
     }
 
+    public List<Seminar> getByStatus(String status, boolean includeArchived) {
+        List<Seminar> all = seminarRepository.findByStatusIgnoreCase(status);
+        return includeArchived ? withArchived(all, archive.findByStatus(status)) : all;
+    }
+
+    // a booking caught between archive copy and hot delete exists in both; the hot one wins
+    private static List<Seminar> withArchived(List<Seminar> hot, List<Seminar> archived) {
+        Map<String, Seminar> byId = new LinkedHashMap<>();
+        for (Seminar s : hot) byId.put(s.getId(), s);
+        for (Seminar s : archived) byId.putIfAbsent(s.getId(), s);
+        return new ArrayList<>(byId.values());
+    }
+
 }
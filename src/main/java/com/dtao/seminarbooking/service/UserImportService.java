@@ -0,0 +1,244 @@
+package com.dtao.seminarbooking.service;
+
+import com.dtao.seminarbooking.model.User;
+import com.dtao.seminarbooking.repo.UserRepository;
+import com.dtao.seminarbooking.security.PasswordHashingService;
+import com.dtao.seminarbooking.service.BrevoClient.MessageVersion;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Bulk provisioning of accounts (e.g. all department logins at the start of a semester).
+ *
+ * Rows are validated with the same rules as sign-up, checked against existing users
+ * with one {@code $in} query, hashed in parallel on the bulk-import hashing pool (never
+ * the login pool) and inserted with one unordered bulk write. Welcome mails for every created account go
+ * out as a single outbox batch. Bad rows are reported individually and never stop
+ * the others.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    // stays well below the bulk hashing pool's queue capacity (one full import)
+    private static final int HASH_CHUNK = 100;
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "email", "phone", "department", "role", "password");
+
+    public record RowError(int row, String email, String error) {}
+
+    public record ImportResult(List<User> created, List<RowError> errors) {}
+
+    private final UserService userService;
+    private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
+    private final PasswordHashingService passwordHashing;
+    private final EmailService emailService;
+    private final int maxRows;
+
+    public UserImportService(UserService userService, UserRepository userRepository, MongoTemplate mongoTemplate,
+                             PasswordHashingService passwordHashing, EmailService emailService,
+                             @Value("${app.users.bulk.max-rows:500}") int maxRows) {
+        this.userService = userService;
+        this.userRepository = userRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.passwordHashing = passwordHashing;
+        this.emailService = emailService;
+        this.maxRows = maxRows;
+    }
+
+    public ImportResult importUsers(List<User> rows, String createdBy) {
+        if (rows == null || rows.isEmpty()) throw new RuntimeException("No users to import");
+        if (rows.size() > maxRows) throw new RuntimeException("Too many rows (max " + maxRows + " per import)");
+
+        List<RowError> errors = new ArrayList<>();
+        List<Integer> rowNumbers = new ArrayList<>();
+        List<User> candidates = new ArrayList<>();
+
+        // 1. validate and drop duplicates inside the file itself
+        Set<String> seenEmails = new HashSet<>();
+        Set<String> seenPhones = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            User u = rows.get(i);
+            int rowNo = i + 1;
+            try {
+                if (u == null) throw new RuntimeException("Empty row");
+                userService.validateNewUser(u);
+                boolean emailDup = !seenEmails.add(u.getEmail());
+                boolean phoneDup = !seenPhones.add(u.getPhone());
+                if (emailDup || phoneDup) throw new RuntimeException("Duplicate in file: " + UserService.duplicateMessage(emailDup, phoneDup));
+                candidates.add(u);
+                rowNumbers.add(rowNo);
+            } catch (RuntimeException ex) {
+                errors.add(new RowError(rowNo, u == null ? null : u.getEmail(), ex.getMessage()));
+            }
+        }
+
+        // 2. one query for clashes with existing accounts
+        if (!candidates.isEmpty()) {
+            Set<String> takenEmails = new HashSet<>();
+            Set<String> takenPhones = new HashSet<>();
+            for (User existing : userRepository.findEmailOrPhoneClashesIn(
+                    candidates.stream().map(User::getEmail).toList(),
+                    candidates.stream().map(User::getPhone).toList())) {
+                if (existing.getEmail() != null) takenEmails.add(existing.getEmail());
+                if (existing.getPhone() != null) takenPhones.add(existing.getPhone());
+            }
+            for (int i = candidates.size() - 1; i >= 0; i--) {
+                User u = candidates.get(i);
+                boolean emailTaken = takenEmails.contains(u.getEmail());
+                boolean phoneTaken = takenPhones.contains(u.getPhone());
+                if (emailTaken || phoneTaken) {
+                    errors.add(new RowError(rowNumbers.get(i), u.getEmail(), UserService.duplicateMessage(emailTaken, phoneTaken)));
+                    candidates.remove(i);
+                    rowNumbers.remove(i);
+                }
+            }
+        }
+
+        // 3. hash in parallel on the bounded pool, a chunk at a time
+        Instant now = Instant.now();
+        for (int start = 0; start < candidates.size(); start += HASH_CHUNK) {
+            List<User> chunk = candidates.subList(start, Math.min(candidates.size(), start + HASH_CHUNK));
+            List<CompletableFuture<String>> hashes = chunk.stream()
+                    .map(u -> passwordHashing.encodeBulkAsync(u.getPassword()))
+                    .toList();
+            try {
+                CompletableFuture.allOf(hashes.toArray(CompletableFuture[]::new)).join();
+            } catch (CompletionException ex) {
+                throw new RuntimeException("Server busy hashing passwords, please retry shortly");
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                User u = chunk.get(i);
+                u.setPassword(hashes.get(i).join());
+                u.setId(new ObjectId().toHexString()); // ids assigned up front so bulk results map back to rows
+                if (u.getRole() == null || u.getRole().isBlank()) u.setRole("DEPARTMENT");
+                else u.setRole(u.getRole().trim().toUpperCase(Locale.ROOT));
+                u.setCreatedBy(createdBy);
+                u.setCreatedAt(now);
+                u.setActive(true);
+            }
+        }
+
+        // 4. one unordered bulk insert; rows lost to a concurrent sign-up are reported, the rest stay
+        List<User> created = new ArrayList<>(candidates);
+        if (!candidates.isEmpty()) {
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class).insert(candidates).execute();
+            } catch (BulkOperationException ex) {
+                Set<Integer> failed = new HashSet<>();
+                ex.getErrors().forEach(err -> {
+                    failed.add(err.getIndex());
+                    User u = candidates.get(err.getIndex());
+                    String msg = err.getCode() == 11000 ? UserService.duplicateKeyMessage(err.getMessage()) : err.getMessage();
+                    errors.add(new RowError(rowNumbers.get(err.getIndex()), u.getEmail(), msg));
+                });
+                created.clear();
+                for (int i = 0; i < candidates.size(); i++) if (!failed.contains(i)) created.add(candidates.get(i));
+            }
+        }
+
+        // 5. every welcome mail in one outbox entry
+        List<MessageVersion> welcome = new ArrayList<>();
+        for (User u : created) emailService.welcomeMessage(u).ifPresent(welcome::add);
+        if (!welcome.isEmpty()) {
+            try {
+                emailService.enqueueBatch("welcome-bulk:" + created.get(0).getId() + ":" + created.size(), welcome);
+            } catch (Exception ex) {
+                log.error("[UserImportService] welcome batch could not be queued: {}", ex.getMessage(), ex);
+            }
+        }
+
+        errors.sort((a, b) -> Integer.compare(a.row(), b.row()));
+        log.info("[UserImportService] imported {} user(s), {} row error(s), by {}", created.size(), errors.size(), createdBy);
+        return new ImportResult(created, errors);
+    }
+
+    /**
+     * Parses CSV with a header row naming the columns (any order, case-insensitive):
+     * name, email, phone, department, role, password. Quoted fields may contain commas
+     * and doubled quotes.
+     */
+    public List<User> parseCsv(String csv) {
+        if (csv == null || csv.isBlank()) throw new RuntimeException("CSV is empty");
+        List<String> lines = csv.lines().filter(l -> !l.isBlank()).toList();
+
+        List<String> header = parseCsvLine(lines.get(0)).stream()
+                .map(h -> h.trim().toLowerCase(Locale.ROOT))
+                .toList();
+        Map<String, Integer> column = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            if (CSV_COLUMNS.contains(header.get(i))) column.put(header.get(i), i);
+        }
+        for (String required : List.of("name", "email", "phone", "password")) {
+            if (!column.containsKey(required)) throw new RuntimeException("CSV header is missing column: " + required);
+        }
+
+        List<User> users = new ArrayList<>();
+        for (String line : lines.subList(1, lines.size())) {
+            List<String> cells = parseCsvLine(line);
+            User u = new User();
+            u.setName(cell(cells, column.get("name")));
+            u.setEmail(cell(cells, column.get("email")));
+            u.setPhone(cell(cells, column.get("phone")));
+            u.setDepartment(cell(cells, column.get("department")));
+            u.setRole(cell(cells, column.get("role")));
+            u.setPassword(cell(cells, column.get("password")));
+            users.add(u);
+        }
+        return users;
+    }
+
+    // -------------------- helpers --------------------
+    private static String cell(List<String> cells, Integer index) {
+        if (index == null || index >= cells.size()) return null;
+        String v = cells.get(index).trim();
+        return v.isEmpty() ? null : v;
+    }
+
+    private static List<String> parseCsvLine(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cur.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cur.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cur.toString());
+                cur.setLength(0);
+            } else {
+                cur.append(c);
+            }
+        }
+        cells.add(cur.toString());
+        return cells;
+    }
+}
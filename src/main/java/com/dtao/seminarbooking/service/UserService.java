@@ -2,12 +2,19 @@ package com.dtao.seminarbooking.service;
 
 import com.dtao.seminarbooking.model.User;
 import com.dtao.seminarbooking.repo.UserRepository;
+import com.dtao.seminarbooking.security.AuthUserCache;
+import com.dtao.seminarbooking.security.PasswordHashingService;
+import com.dtao.seminarbooking.security.TokenRevocationService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.regex.Pattern;
 
@@ -18,54 +25,74 @@ public class UserService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashing;
+
+    @Autowired
+    private AuthUserCache authUserCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
 
     private static final Pattern EMAIL_PATTERN =
             Pattern.compile("^[A-Za-z0-9._%+-]+@newhorizonindia\\.edu$");
 
+    private static final int MAX_DIRECTORY_PAGE_SIZE = 200;
+
     private static final Pattern PHONE_PATTERN =
             Pattern.compile("^[6-9][0-9]{9}$");
 
     public User addUser(User user) {
-        if (user.getName() == null || user.getName().trim().isEmpty()) {
-            throw new RuntimeException("Name is required!");
-        }
+        validateNewUser(user);
+
+        // one query for the friendly message; the unique indexes decide under concurrency
+        List<User> clashes = userRepository.findEmailOrPhoneClashes(user.getEmail(), user.getPhone());
+        boolean emailExists = clashes.stream().anyMatch(u -> user.getEmail().equals(u.getEmail()));
+        boolean phoneExists = clashes.stream().anyMatch(u -> user.getPhone().equals(u.getPhone()));
+        rejectDuplicate(emailExists, phoneExists);
+
+        // Hash the password before saving
+        user.setPassword(passwordHashing.encode(user.getPassword()));
 
-        if (!EMAIL_PATTERN.matcher(user.getEmail()).matches()) {
-            throw new RuntimeException("Invalid email! Must end with @newhorizonindia.edu");
+        if (user.getCreatedAt() == null) user.setCreatedAt(Instant.now());
+        user.setId(null); // always a new document, never an overwrite
+        try {
+            return userRepository.insert(user);
+        } catch (DuplicateKeyException ex) {
+            throw duplicateError(ex);
         }
+    }
 
-        if (!PHONE_PATTERN.matcher(user.getPhone()).matches()) {
-            throw new RuntimeException("Invalid phone number! Must be 10 digits starting with 6/7/8/9");
+    /**
+     * Normalizes email/phone in place and applies the sign-up rules that need no
+     * database access (shared with bulk import).
+     */
+    void validateNewUser(User user) {
+        if (user.getName() == null || user.getName().trim().isEmpty()) {
+            throw new UserValidationException("Name is required!");
         }
 
-        boolean emailExists = userRepository.findByEmail(user.getEmail()).isPresent();
-        boolean phoneExists = userRepository.findByPhone(user.getPhone()).isPresent();
+        user.setEmail(normalizeEmail(user.getEmail()));
+        user.setPhone(normalizePhone(user.getPhone()));
 
-        if (emailExists && phoneExists) {
-            throw new RuntimeException("Email and Phone already registered!");
-        } else if (emailExists) {
-            throw new RuntimeException("Email already registered!");
-        } else if (phoneExists) {
-            throw new RuntimeException("Phone already registered!");
+        if (user.getEmail() == null || !EMAIL_PATTERN.matcher(user.getEmail()).matches()) {
+            throw new UserValidationException("Invalid email! Must end with @newhorizonindia.edu");
         }
 
-        // Hash the password before saving
-        if (user.getPassword() == null || user.getPassword().trim().isEmpty()) {
-            throw new RuntimeException("Password required");
+        if (user.getPhone() == null || !PHONE_PATTERN.matcher(user.getPhone()).matches()) {
+            throw new UserValidationException("Invalid phone number! Must be 10 digits starting with 6/7/8/9");
         }
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
 
-        if (user.getCreatedAt() == null) user.setCreatedAt(Instant.now());
-        return userRepository.save(user);
+        if (user.getPassword() == null || user.getPassword().trim().isEmpty()) {
+            throw new UserValidationException("Password required");
+        }
     }
 
     public Optional<User> authenticateUser(String email, String rawPassword) {
         if (email == null || rawPassword == null) return Optional.empty();
-        Optional<User> maybe = userRepository.findByEmail(email);
+        Optional<User> maybe = userRepository.findByEmail(normalizeEmail(email));
         if (maybe.isEmpty()) return Optional.empty();
         User user = maybe.get();
-        if (passwordEncoder.matches(rawPassword, user.getPassword())) {
+        if (passwordHashing.matches(rawPassword, user.getPassword())) {
             return Optional.of(user);
         }
         return Optional.empty();
@@ -75,16 +102,28 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    /** One page of the admin user directory (name, email, department, role only), sorted by name. */
+    public Page<User> getUserDirectory(int page, int size) {
+        int safePage = Math.max(page, 0);
+        int safeSize = Math.min(Math.max(size, 1), MAX_DIRECTORY_PAGE_SIZE);
+        return userRepository.findDirectoryPage(PageRequest.of(safePage, safeSize, Sort.by("name", "id")));
+    }
+
     public Optional<User> getUserById(String id) {
         return userRepository.findById(id);
     }
 
     public Optional<User> getUserByEmail(String email) {
-        return userRepository.findByEmail(email);
+        return userRepository.findByEmail(normalizeEmail(email));
     }
 
     public void deleteUser(String id) {
+        Optional<User> existing = userRepository.findById(id);
         userRepository.deleteById(id);
+        existing.ifPresent(u -> {
+            authUserCache.invalidate(u.getEmail());
+            tokenRevocationService.revokeAllFor(u.getEmail());
+        });
     }
 
     // -------------------------
@@ -92,16 +131,63 @@ public class UserService {
     // -------------------------
     public Optional<User> updateUser(String id, User newData) {
         return userRepository.findById(id).map(existing -> {
+            String previousEmail = existing.getEmail();
             if (newData.getName() != null) existing.setName(newData.getName());
-            if (newData.getEmail() != null) existing.setEmail(newData.getEmail());
-            if (newData.getPhone() != null) existing.setPhone(newData.getPhone());
+            if (newData.getEmail() != null) existing.setEmail(normalizeEmail(newData.getEmail()));
+            if (newData.getPhone() != null) existing.setPhone(normalizePhone(newData.getPhone()));
             if (newData.getRole() != null) existing.setRole(newData.getRole());
             if (newData.getDepartment() != null) existing.setDepartment(newData.getDepartment());
             if (newData.getPassword() != null) {
                 // Hash password on update
-                existing.setPassword(passwordEncoder.encode(newData.getPassword()));
+                existing.setPassword(passwordHashing.encode(newData.getPassword()));
             }
-            return userRepository.save(existing);
+            User saved;
+            try {
+                saved = userRepository.save(existing);
+            } catch (DuplicateKeyException ex) {
+                throw duplicateError(ex);
+            }
+            // role / email changes must reach the JWT filter immediately
+            authUserCache.invalidate(previousEmail);
+            authUserCache.invalidate(saved.getEmail());
+            return saved;
         });
     }
+
+    // -------------------------
+    // Normalization & duplicates
+    // -------------------------
+    /** Emails are stored trimmed and lower-cased; the unique index relies on it. */
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Phones are stored as digits only ("+91 98450-12345" -> "9845012345"). */
+    public static String normalizePhone(String phone) {
+        if (phone == null) return null;
+        String digits = phone.replaceAll("\\D", "");
+        // accept an Indian country prefix on 10-digit mobiles
+        if (digits.length() == 12 && digits.startsWith("91")) digits = digits.substring(2);
+        return digits.isEmpty() ? null : digits;
+    }
+
+    private static void rejectDuplicate(boolean emailExists, boolean phoneExists) {
+        if (emailExists || phoneExists) throw new UserValidationException(duplicateMessage(emailExists, phoneExists));
+    }
+
+    static String duplicateMessage(boolean emailExists, boolean phoneExists) {
+        if (emailExists && phoneExists) return "Email and Phone already registered!";
+        return emailExists ? "Email already registered!" : "Phone already registered!";
+    }
+
+    // a concurrent sign-up won the race: same messages as the pre-check
+    private static UserValidationException duplicateError(DuplicateKeyException ex) {
+        return new UserValidationException(duplicateKeyMessage(ex.getMessage()));
+    }
+
+    /** Friendly message for a Mongo E11000 error, told apart by the violated index name. */
+    static String duplicateKeyMessage(String mongoError) {
+        boolean phone = mongoError != null && mongoError.contains("phone_unique");
+        return duplicateMessage(!phone, phone);
+    }
 }
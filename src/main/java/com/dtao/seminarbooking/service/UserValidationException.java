@@ -0,0 +1,12 @@
+package com.dtao.seminarbooking.service;
+
+/**
+ * A user record was rejected: a sign-up rule failed or the email/phone is already
+ * registered. The message is safe to show to the client.
+ */
+public class UserValidationException extends RuntimeException {
+
+    public UserValidationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,57 @@
+package com.dtao.seminarbooking.controller;
+
+import com.dtao.seminarbooking.model.Seminar;
+import com.dtao.seminarbooking.model.SeminarHall;
+import com.dtao.seminarbooking.repo.SeminarRepository;
+import com.dtao.seminarbooking.service.BookingNotificationService;
+import com.dtao.seminarbooking.service.HallReferenceService;
+import com.dtao.seminarbooking.service.ReferenceDataService;
+import com.dtao.seminarbooking.service.SeminarService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Range;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SeminarControllerCalendarTest {
+
+    private final SeminarRepository repository = mock(SeminarRepository.class);
+    private final ReferenceDataService referenceData = mock(ReferenceDataService.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SeminarController controller;
+
+    SeminarControllerCalendarTest() {
+        SeminarService service = new SeminarService();
+        ReflectionTestUtils.setField(service, "seminarRepository", repository);
+        ReflectionTestUtils.setField(service, "meterRegistry", registry);
+        ReflectionTestUtils.setField(service, "referenceData", referenceData);
+        ReflectionTestUtils.setField(service, "hallReferences", mock(HallReferenceService.class));
+        ReflectionTestUtils.invokeMethod(service, "initMetrics");
+        controller = new SeminarController(service, mock(BookingNotificationService.class));
+
+        SeminarHall main = new SeminarHall("Main Hall", 120);
+        main.setId("h1");
+        when(referenceData.hallByName("Main Hall")).thenReturn(Optional.of(main));
+    }
+
+    @Test
+    void calendarEndpointRecordsBuildTimeAndMongoCalls() {
+        Seminar booking = new Seminar();
+        booking.setHallId("h1");
+        booking.setDate("2026-03-10");
+        when(repository.findByHallIdAndDateBetween("h1", Range.closed("2026-03-01", "2026-03-31"))).thenReturn(List.of(booking));
+
+        ResponseEntity<?> resp = controller.getCalendarMonthSummary("Main Hall", 2026, 3);
+
+        assertEquals(200, resp.getStatusCode().value());
+        assertEquals(1, registry.get("booking.calendar.build").timer().count());
+        assertEquals(1, registry.get("booking.calendar.mongo.calls").summary().count());
+    }
+}
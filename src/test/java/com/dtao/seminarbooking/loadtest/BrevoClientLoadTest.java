@@ -0,0 +1,130 @@
+package com.dtao.seminarbooking.loadtest;
+
+import com.dtao.seminarbooking.service.BrevoClient;
+import com.dtao.seminarbooking.service.BrevoClient.MessageVersion;
+import com.dtao.seminarbooking.service.BrevoClient.SendResult;
+import com.dtao.seminarbooking.service.BrevoSendGuard;
+import com.dtao.seminarbooking.support.BrevoStandIn;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives BrevoClient + BrevoSendGuard against the local stand-in. Needs no database;
+ * run with {@code mvn -Pload-test test}.
+ */
+@Tag("load")
+class BrevoClientLoadTest {
+
+    private static final int CALLERS = 32;
+    private static final int SENDS_PER_CALLER = 25;
+    private static final int MAX_CONCURRENCY = 16;
+    private static final int MAX_ATTEMPTS = 40;
+    private static final long DEFER_SLEEP_MS = 25;
+
+    private BrevoStandIn standIn;
+    private BrevoSendGuard guard;
+    private BrevoClient client;
+
+    @BeforeEach
+    void start() throws Exception {
+        standIn = new BrevoStandIn();
+        guard = new BrevoSendGuard(1, MAX_CONCURRENCY, 4, 500, 5, 2000);
+        client = new BrevoClient(WebClient.builder(), "loadtest-key", standIn.baseUrl(), 5000,
+                guard, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void stop() {
+        standIn.close();
+    }
+
+    @Test
+    void healthyProviderThroughput() throws Exception {
+        standIn.latency(100, 50);
+
+        Map<SendResult.Status, Integer> results = run();
+
+        assertEquals(standIn.accepted(), results.getOrDefault(SendResult.Status.SENT, 0).longValue());
+        assertTrue(standIn.peakInFlight() <= MAX_CONCURRENCY, "guard must cap concurrency");
+        assertTrue(standIn.accepted() > 0);
+    }
+
+    @Test
+    void throttlingProviderShrinksConcurrency() throws Exception {
+        standIn.latency(100, 20).maxConcurrent(3);
+
+        run();
+
+        assertTrue(standIn.throttled() > 0, "stand-in should have throttled");
+        assertTrue(guard.limit() < MAX_CONCURRENCY, "AIMD should have backed off, limit=" + guard.limit());
+    }
+
+    @Test
+    void failingProviderOpensCircuitAndFailsFast() throws Exception {
+        standIn.errorRate(1.0);
+
+        Map<SendResult.Status, Integer> results = run();
+
+        assertEquals(BrevoSendGuard.State.OPEN, guard.state());
+        assertTrue(results.getOrDefault(SendResult.Status.DEFERRED, 0) > results.getOrDefault(SendResult.Status.FAILED, 0),
+                "most calls should be refused locally once the circuit is open: " + results);
+    }
+
+    private Map<SendResult.Status, Integer> run() throws Exception {
+        List<MessageVersion> batch = List.of(
+                new MessageVersion(List.of("requester@newhorizonindia.edu"), "Booking received", "<p>hello</p>"),
+                new MessageVersion(List.of("head1@gmail.com"), "New booking", "<p>head</p>"),
+                new MessageVersion(List.of("head2@gmail.com"), "New booking", "<p>head</p>"));
+
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        long started = System.nanoTime();
+        List<Future<List<SendResult.Status>>> futures = new ArrayList<>();
+        for (int c = 0; c < CALLERS; c++) {
+            futures.add(callers.submit(() -> {
+                List<SendResult.Status> out = new ArrayList<>();
+                for (int i = 0; i < SENDS_PER_CALLER; i++) {
+                    out.add(sendWithBackoff(batch));
+                }
+                return out;
+            }));
+        }
+        Map<SendResult.Status, Integer> results = new EnumMap<>(SendResult.Status.class);
+        for (Future<List<SendResult.Status>> f : futures) {
+            for (SendResult.Status s : f.get(5, TimeUnit.MINUTES)) results.merge(s, 1, Integer::sum);
+        }
+        callers.shutdownNow();
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("[load] %d sends in %.2fs -> %.1f req/s, %.1f recipients/s | results=%s | stand-in accepted=%d throttled=%d failed=%d peak=%d | guard limit=%d state=%s%n",
+                CALLERS * SENDS_PER_CALLER, seconds, standIn.accepted() / seconds, standIn.recipients() / seconds,
+                results, standIn.accepted(), standIn.throttled(), standIn.failed(), standIn.peakInFlight(),
+                guard.limit(), guard.state());
+        return results;
+    }
+
+    // callers back off briefly when the guard refuses, like the outbox dispatcher does
+    private SendResult.Status sendWithBackoff(List<MessageVersion> batch) throws InterruptedException {
+        SendResult.Status status = SendResult.Status.DEFERRED;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && status == SendResult.Status.DEFERRED; attempt++) {
+            status = client.send("Load Test", "noreply@example.com", batch).status();
+            if (status == SendResult.Status.DEFERRED) Thread.sleep(DEFER_SLEEP_MS);
+        }
+        return status;
+    }
+}
@@ -0,0 +1,108 @@
+package com.dtao.seminarbooking.loadtest;
+
+import com.dtao.seminarbooking.model.EmailOutbox;
+import com.dtao.seminarbooking.service.BrevoClient.MessageVersion;
+import com.dtao.seminarbooking.service.EmailService;
+import com.dtao.seminarbooking.support.BrevoStandIn;
+import com.mongodb.ConnectionString;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * End-to-end: enqueue booking notifications into the outbox and measure how fast the
+ * dispatcher drains them into the Brevo stand-in. Needs a reachable Mongo (MONGODB_URI);
+ * skipped otherwise. Runs against the "-loadtest" database of the loadtest profile and
+ * removes the outbox entries it created.
+ */
+@Tag("load")
+@ActiveProfiles("loadtest")
+@SpringBootTest
+class EmailOutboxPipelineLoadTest {
+
+    private static final int EVENTS = 500;
+
+    private static BrevoStandIn standIn;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final String run = UUID.randomUUID().toString().substring(0, 8);
+
+    @BeforeAll
+    static void startStandIn() throws Exception {
+        Assumptions.assumeTrue(mongoReachable(), "Mongo not reachable - skipping pipeline load test");
+        standIn = new BrevoStandIn().latency(150, 100).throttleRate(0.05, 1);
+    }
+
+    @AfterAll
+    static void stopStandIn() {
+        if (standIn != null) standIn.close();
+    }
+
+    @AfterEach
+    void removeOutboxEntries() {
+        mongoTemplate.remove(Query.query(Criteria.where("dedupKey").regex("^" + Pattern.quote("load:" + run + ":"))),
+                EmailOutbox.class);
+    }
+
+    @DynamicPropertySource
+    static void brevoBase(DynamicPropertyRegistry registry) {
+        registry.add("brevo.api.base", () -> standIn.baseUrl());
+    }
+
+    @Test
+    void drainsOutboxIntoBrevo() throws Exception {
+        long started = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++) {
+            emailService.enqueueBatch("load:" + run + ":" + i, List.of(
+                    new MessageVersion(List.of("requester" + i + "@newhorizonindia.edu"), "Booking " + i, "<p>" + i + "</p>"),
+                    new MessageVersion(List.of("head@gmail.com"), "New booking " + i, "<p>head " + i + "</p>")));
+        }
+        double enqueueSeconds = (System.nanoTime() - started) / 1e9;
+
+        long deadline = System.currentTimeMillis() + 300_000;
+        while (standIn.accepted() < EVENTS && System.currentTimeMillis() < deadline) {
+            Thread.sleep(200);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("[load] enqueued %d events in %.2fs; delivered %d in %.2fs -> %.1f events/s (throttled %d)%n",
+                EVENTS, enqueueSeconds, standIn.accepted(), seconds, standIn.accepted() / seconds, standIn.throttled());
+
+        assertEquals(EVENTS, standIn.accepted());
+    }
+
+    private static boolean mongoReachable() {
+        String uri = System.getenv().getOrDefault("MONGODB_URI", "mongodb://localhost:27017");
+        try (Socket socket = new Socket()) {
+            String host = new ConnectionString(uri).getHosts().get(0);
+            String[] parts = host.split(":");
+            socket.connect(new InetSocketAddress(parts[0], parts.length > 1 ? Integer.parseInt(parts[1]) : 27017), 1000);
+            return true;
+        } catch (Exception ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.dtao.seminarbooking.repo;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Range;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.query.ConvertingParameterAccessor;
+import org.springframework.data.mongodb.repository.query.MongoParametersParameterAccessor;
+import org.springframework.data.mongodb.repository.query.MongoQueryMethod;
+import org.springframework.data.mongodb.repository.query.PartTreeMongoQuery;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.repository.core.support.DefaultRepositoryMetadata;
+import org.springframework.data.repository.query.ValueExpressionDelegate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/** Checks the Mongo filters derived from repository method names, without a server. */
+class SeminarRepositoryQueryTest {
+
+    private final MongoMappingContext context = new MongoMappingContext();
+    private final MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+
+    @Test
+    void monthLookupByHallIdIncludesFirstAndLastDay() throws Exception {
+        Document filter = filterOf("findByHallIdAndDateBetween",
+                "h1", Range.closed("2026-03-01", "2026-03-31"));
+
+        assertEquals("h1", filter.get("hallId"));
+        assertEquals(new Document("$gte", "2026-03-01").append("$lte", "2026-03-31"), filter.get("date"));
+    }
+
+    @Test
+    void monthLookupOfUnlinkedBookingsIncludesFirstAndLastDay() throws Exception {
+        Document filter = filterOf("findByHallIdIsNullAndHallNameIgnoreCaseAndDateBetween",
+                "Main Hall", Range.closed("2026-03-01", "2026-03-31"));
+
+        assertEquals(new Document("$gte", "2026-03-01").append("$lte", "2026-03-31"), filter.get("date"));
+    }
+
+    private Document filterOf(String methodName, Object... args) throws Exception {
+        converter.afterPropertiesSet();
+        Method method = SeminarRepository.class.getMethod(methodName, String.class, Range.class);
+        MongoQueryMethod queryMethod = new MongoQueryMethod(method, new DefaultRepositoryMetadata(SeminarRepository.class),
+                new SpelAwareProxyProjectionFactory(), context);
+        ConvertingParameterAccessor accessor = new ConvertingParameterAccessor(converter,
+                new MongoParametersParameterAccessor(queryMethod, args));
+        MongoOperations operations = mock(MongoOperations.class);
+        when(operations.getConverter()).thenReturn(converter);
+        PartTreeMongoQuery derived = new PartTreeMongoQuery(queryMethod, operations, ValueExpressionDelegate.create());
+        Query query = ReflectionTestUtils.invokeMethod(derived, "createQuery", accessor);
+        return query.getQueryObject();
+    }
+}
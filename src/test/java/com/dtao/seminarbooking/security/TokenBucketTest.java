@@ -0,0 +1,37 @@
+package com.dtao.seminarbooking.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    @Test
+    void allowsABurstUpToCapacityThenReportsTheWait() {
+        TokenBucket bucket = new TokenBucket(3, MINUTE, 0);
+
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(0, bucket.tryConsume(0));
+
+        long wait = bucket.tryConsume(0);
+        assertEquals(MINUTE / 3, wait);
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        TokenBucket bucket = new TokenBucket(2, MINUTE, 0);
+        bucket.tryConsume(0);
+        bucket.tryConsume(0);
+        assertTrue(bucket.tryConsume(MINUTE / 4) > 0);
+
+        assertEquals(0, bucket.tryConsume(MINUTE / 2));
+        assertTrue(bucket.tryConsume(MINUTE / 2) > 0);
+        assertEquals(0, bucket.tryConsume(2 * MINUTE));
+    }
+}
@@ -0,0 +1,65 @@
+package com.dtao.seminarbooking.security;
+
+import com.dtao.seminarbooking.model.RevokedToken;
+import com.dtao.seminarbooking.repo.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+
+    private final RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+    private final TokenRevocationService service = new TokenRevocationService(repository, 1000, 0.01, 3600000);
+
+    TokenRevocationServiceTest() {
+        when(repository.save(any(RevokedToken.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    void revokedTokenIsRejectedAndOthersPass() {
+        Claims revoked = claims("jti-1", "a@x.com", Instant.now());
+        service.revoke(revoked);
+
+        assertTrue(service.isRevoked(revoked));
+        assertFalse(service.isRevoked(claims("jti-2", "a@x.com", Instant.now())));
+    }
+
+    @Test
+    void subjectCutoffRevokesOnlyTokensIssuedBeforeIt() {
+        Claims before = claims("jti-3", "b@x.com", Instant.now().minusSeconds(60));
+        service.revokeAllFor("B@x.com");
+
+        assertTrue(service.isRevoked(before));
+        assertFalse(service.isRevoked(claims("jti-4", "b@x.com", Instant.now().plusSeconds(2))));
+        assertFalse(service.isRevoked(claims("jti-5", "c@x.com", Instant.now().minusSeconds(60))));
+    }
+
+    @Test
+    void refreshPicksUpRevocationsFromOtherInstances() {
+        RevokedToken remote = RevokedToken.forToken("jti-6", "d@x.com", Instant.now().plusSeconds(600));
+        when(repository.findByRevokedAtGreaterThanEqualOrderByRevokedAtAsc(any())).thenReturn(List.of(remote));
+
+        Claims claims = claims("jti-6", "d@x.com", Instant.now());
+        assertFalse(service.isRevoked(claims));
+        service.refresh();
+        assertTrue(service.isRevoked(claims));
+    }
+
+    private static Claims claims(String jti, String subject, Instant issuedAt) {
+        return Jwts.claims()
+                .setId(jti)
+                .setSubject(subject)
+                .setIssuedAt(Date.from(issuedAt))
+                .setExpiration(Date.from(issuedAt.plusSeconds(3600)));
+    }
+}
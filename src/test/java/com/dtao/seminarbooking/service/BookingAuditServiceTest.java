@@ -0,0 +1,89 @@
+package com.dtao.seminarbooking.service;
+
+import com.dtao.seminarbooking.model.BookingAuditEvent;
+import com.dtao.seminarbooking.model.BookingAuditEvent.FieldChange;
+import com.dtao.seminarbooking.model.Seminar;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingAuditServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    BookingAuditServiceTest() {
+        when(mongoTemplate.collectionExists(BookingAuditEvent.class)).thenReturn(true);
+        when(mongoTemplate.indexOps(BookingAuditEvent.class)).thenReturn(mock(IndexOperations.class));
+    }
+
+    @Test
+    void diffListsOnlyChangedFields() {
+        Seminar before = booking("PENDING", "10:00");
+        Seminar after = booking("APPROVED", "11:00");
+
+        List<FieldChange> changes = BookingAuditService.diff(BookingAuditService.fields(before), BookingAuditService.fields(after));
+
+        assertEquals(2, changes.size());
+        assertEquals("startTime", changes.get(0).getField());
+        assertEquals("10:00", changes.get(0).getFrom());
+        assertEquals("11:00", changes.get(0).getTo());
+        assertEquals("status", changes.get(1).getField());
+        assertEquals("APPROVED", changes.get(1).getTo());
+    }
+
+    @Test
+    void failedFlushKeepsEventsForTheNextTick() {
+        List<Integer> written = new ArrayList<>();
+        when(mongoTemplate.insert(anyCollection(), eq(BookingAuditEvent.class)))
+                .thenThrow(new RuntimeException("mongo down"))
+                .thenAnswer(inv -> {
+                    written.add(((Collection<?>) inv.getArgument(0)).size());
+                    return List.of();
+                });
+        BookingAuditService service = new BookingAuditService(mongoTemplate, registry, 100, 10);
+        service.record(BookingAuditService.CREATED, "s1", Map.of(), booking("PENDING", "10:00"));
+        service.record(BookingAuditService.UPDATED, "s1", Map.of("status", "PENDING"), booking("APPROVED", "10:00"));
+
+        service.flush();
+        assertEquals(List.of(), written);
+        service.flush();
+        assertEquals(List.of(2), written);
+        assertEquals(0.0, registry.get("booking.audit.dropped").counter().count());
+        assertEquals(0.0, registry.get("booking.audit.buffered").gauge().value());
+    }
+
+    @Test
+    void fullBufferDropsAndCountsEvents() {
+        BookingAuditService service = new BookingAuditService(mongoTemplate, registry, 1, 10);
+        service.record(BookingAuditService.CREATED, "s1", Map.of(), booking("PENDING", "10:00"));
+        service.record(BookingAuditService.CREATED, "s2", Map.of(), booking("PENDING", "10:00"));
+
+        assertEquals(1.0, registry.get("booking.audit.dropped").counter().count());
+        assertEquals(1.0, registry.get("booking.audit.buffered").gauge().value());
+    }
+
+    private static Seminar booking(String status, String startTime) {
+        Seminar s = new Seminar();
+        s.setId("s1");
+        s.setHallId("h1");
+        s.setHallName("Main Hall");
+        s.setDate("2025-11-03");
+        s.setStartTime(startTime);
+        s.setEndTime("12:00");
+        s.setStatus(status);
+        return s;
+    }
+}
@@ -0,0 +1,60 @@
+package com.dtao.seminarbooking.service;
+
+import com.dtao.seminarbooking.model.Seminar;
+import com.dtao.seminarbooking.service.BrevoClient.MessageVersion;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingNotificationServiceTest {
+
+    private final EmailService emailService = mock(EmailService.class);
+    private final HallOperatorService hallOperatorService = mock(HallOperatorService.class);
+    private final BookingNotificationService service =
+            new BookingNotificationService(emailService, hallOperatorService, mock(OperatorDigestService.class));
+
+    BookingNotificationServiceTest() {
+        when(emailService.bookingView(any(Seminar.class))).thenAnswer(inv ->
+                new EmailService.BookingView(inv.getArgument(0), null, null, null, null));
+        when(emailService.statusNotificationMessage(anyString(), any(EmailService.BookingView.class), anyString(), any()))
+                .thenReturn(Optional.of(new MessageVersion(List.of("a@newhorizonindia.edu"), "Status", "<p>status</p>")));
+        when(hallOperatorService.findByHallName(anyString())).thenReturn(List.of());
+    }
+
+    @Test
+    void outboxKeyFollowsTheBookingRevisionNotTheClock() {
+        Seminar booking = booking("2026-03-10T09:00:00Z");
+        service.statusChanged(booking, "APPROVED", null);
+        service.statusChanged(booking, "APPROVED", null); // retried request, same revision
+        booking.setUpdatedAt("2026-03-10T09:00:20Z");
+        service.statusChanged(booking, "APPROVED", null); // approved again after a rejection
+
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        verify(emailService, times(3)).enqueueBatch(keys.capture(), anyList());
+        assertEquals(keys.getAllValues().get(0), keys.getAllValues().get(1));
+        assertNotEquals(keys.getAllValues().get(0), keys.getAllValues().get(2));
+        verify(emailService, times(2)).enqueueBatch(eq("statusChanged(APPROVED):s1@2026-03-10T09:00:00Z"), anyList());
+    }
+
+    private static Seminar booking(String updatedAt) {
+        Seminar s = new Seminar();
+        s.setId("s1");
+        s.setHallName("Main Hall");
+        s.setEmail("a@newhorizonindia.edu");
+        s.setUpdatedAt(updatedAt);
+        return s;
+    }
+}
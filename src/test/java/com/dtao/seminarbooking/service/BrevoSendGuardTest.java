@@ -0,0 +1,69 @@
+package com.dtao.seminarbooking.service;
+
+import com.dtao.seminarbooking.service.BrevoSendGuard.Permit;
+import com.dtao.seminarbooking.service.BrevoSendGuard.Signal;
+import com.dtao.seminarbooking.service.BrevoSendGuard.State;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BrevoSendGuardTest {
+
+    @Test
+    void opensAfterConsecutiveFailuresAndClosesAfterSuccessfulProbe() throws InterruptedException {
+        BrevoSendGuard guard = new BrevoSendGuard(1, 8, 4, 2000, 2, 50);
+
+        guard.release(guard.tryAcquire(), Signal.FAILURE, null);
+        guard.release(guard.tryAcquire(), Signal.FAILURE, null);
+        assertEquals(State.OPEN, guard.state());
+        assertNull(guard.tryAcquire());
+        assertEquals(0, guard.available());
+
+        Thread.sleep(80);
+        Permit probe = guard.tryAcquire();
+        assertNotNull(probe);
+        assertTrue(probe.probe());
+        assertNull(guard.tryAcquire(), "only one probe while half-open");
+
+        guard.release(probe, Signal.SUCCESS, null);
+        assertEquals(State.CLOSED, guard.state());
+    }
+
+    @Test
+    void throttlingHalvesTheLimitAndHonoursRetryAfter() {
+        BrevoSendGuard guard = new BrevoSendGuard(1, 8, 8, 2000, 5, 30000);
+
+        guard.release(guard.tryAcquire(), Signal.THROTTLED, Duration.ofSeconds(5));
+        assertEquals(4, guard.limit());
+        assertEquals(State.OPEN, guard.state());
+        assertTrue(guard.retryDelay().toMillis() > 4000);
+    }
+
+    @Test
+    void concurrencyIsCappedAtTheCurrentLimit() {
+        BrevoSendGuard guard = new BrevoSendGuard(1, 2, 2, 2000, 5, 30000);
+
+        assertNotNull(guard.tryAcquire());
+        assertNotNull(guard.tryAcquire());
+        assertNull(guard.tryAcquire());
+        assertEquals(2, guard.inFlight());
+    }
+
+    @Test
+    void priorityCallsMayUseTheHeadroomAboveTheLimit() {
+        BrevoSendGuard guard = new BrevoSendGuard(1, 2, 2, 2000, 5, 30000);
+
+        assertNotNull(guard.tryAcquire());
+        assertNotNull(guard.tryAcquire());
+        assertNull(guard.tryAcquire());
+        assertEquals(0, guard.available());
+        assertNotNull(guard.tryAcquire(true));
+        assertNotNull(guard.tryAcquire(true));
+        assertNull(guard.tryAcquire(true), "headroom is bounded too");
+    }
+}
@@ -0,0 +1,36 @@
+package com.dtao.seminarbooking.service;
+
+import com.dtao.seminarbooking.service.EmailTemplateEngine.Html;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EmailTemplateEngineTest {
+
+    private final EmailTemplateEngine engine = new EmailTemplateEngine(
+            Map.of(
+                    "_footer", "<p>{{app.company}}</p>",
+                    "_static", "<hr/>",
+                    "page", "<h1>{{title}}</h1>{{{body}}}{{> _footer}}"),
+            Map.of("app.company", "A&B"));
+
+    @Test
+    void escapesValuesAndBakesSettingsIntoPartials() {
+        String html = engine.render("page", Map.of("title", "<b>'x'</b>", "body", new Html("<i>ok</i>")));
+        assertEquals("<h1>&lt;b&gt;&#39;x&#39;&lt;/b&gt;</h1><i>ok</i><p>A&amp;B</p>", html);
+    }
+
+    @Test
+    void staticTemplateIsReturnedWithoutCopying() {
+        assertSame(engine.render("_static", Map.of()), engine.render("_static", Map.of()));
+    }
+
+    @Test
+    void unknownTemplateIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> engine.render("missing", Map.of()));
+    }
+}
@@ -0,0 +1,76 @@
+package com.dtao.seminarbooking.service;
+
+import com.dtao.seminarbooking.model.Seminar;
+import com.dtao.seminarbooking.model.SeminarHall;
+import com.dtao.seminarbooking.service.HallReferenceService.MigrationResult;
+import com.mongodb.bulk.BulkWriteResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HallReferenceServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ReferenceDataService referenceData = mock(ReferenceDataService.class);
+    private final BulkOperations bulk = mock(BulkOperations.class);
+    private final HallReferenceService service =
+            new HallReferenceService(mongoTemplate, referenceData, mock(HallOperatorService.class));
+
+    @Test
+    void migrationLinksResolvableBookingsAndReportsTheRest() {
+        SeminarHall main = new SeminarHall("Main Hall", 120);
+        main.setId("h1");
+        when(referenceData.hallByName("main hall ")).thenReturn(Optional.of(main));
+        when(referenceData.hallByName("Old Annex")).thenReturn(Optional.empty());
+        when(mongoTemplate.find(any(Query.class), eq(Seminar.class)))
+                .thenReturn(List.of(booking("s1", "main hall "), booking("s2", "Old Annex")));
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Seminar.class))).thenReturn(bulk);
+        BulkWriteResult written = mock(BulkWriteResult.class);
+        when(written.getModifiedCount()).thenReturn(1);
+        when(bulk.execute()).thenReturn(written);
+        when(mongoTemplate.exists(any(Query.class), eq(Seminar.class))).thenReturn(true);
+
+        assertTrue(service.legacyBookingsRemain(), "unknown until the first run");
+        MigrationResult result = service.migrateHallIds();
+
+        assertEquals(2, result.scanned());
+        assertEquals(1, result.linked());
+        assertEquals(1, result.unresolved());
+        assertEquals(List.of("s2"), result.unresolvedIds());
+        verify(bulk, times(1)).updateOne(any(Query.class), any(Update.class));
+        assertTrue(service.legacyBookingsRemain(), "s2 is still unlinked");
+    }
+
+    @Test
+    void nameFallbackIsSwitchedOffOnceEveryBookingIsLinked() {
+        when(mongoTemplate.find(any(Query.class), eq(Seminar.class))).thenReturn(List.of());
+        when(mongoTemplate.exists(any(Query.class), eq(Seminar.class))).thenReturn(false);
+
+        MigrationResult result = service.migrateHallIds();
+
+        assertEquals(0, result.scanned());
+        assertFalse(service.legacyBookingsRemain());
+    }
+
+    private static Seminar booking(String id, String hallName) {
+        Seminar s = new Seminar();
+        s.setId(id);
+        s.setHallName(hallName);
+        return s;
+    }
+}
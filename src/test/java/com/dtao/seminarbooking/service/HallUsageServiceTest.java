@@ -0,0 +1,45 @@
+package com.dtao.seminarbooking.service;
+
+import com.dtao.seminarbooking.model.Seminar;
+import com.dtao.seminarbooking.model.Seminar.DaySlot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HallUsageServiceTest {
+
+    @Test
+    void timeBookingCountsItsSpanAndSlotBookingsFallBackToTheSlot() {
+        Seminar timed = new Seminar();
+        timed.setDate("2025-10-20");
+        timed.setStartTime("10:00");
+        timed.setEndTime("11:30");
+        assertEquals(Map.of(LocalDate.of(2025, 10, 20), 90L), HallUsageService.minutesByDay(timed, 540));
+
+        Seminar morning = new Seminar();
+        morning.setDate("2025-10-20");
+        morning.setSlot("Morning");
+        assertEquals(Map.of(LocalDate.of(2025, 10, 20), 270L), HallUsageService.minutesByDay(morning, 540));
+    }
+
+    @Test
+    void dayRangeUsesDaySlotsWhereGivenAndFullDaysOtherwise() {
+        Seminar range = new Seminar();
+        range.setStartDate("2025-10-26");
+        range.setEndDate("2025-10-27");
+        DaySlot monday = new DaySlot();
+        monday.setStartTime("09:00");
+        monday.setEndTime("13:00");
+        range.setDaySlots(Map.of("2025-10-27", monday));
+
+        Map<LocalDate, Long> minutes = HallUsageService.minutesByDay(range, 540);
+        assertEquals(540L, minutes.get(LocalDate.of(2025, 10, 26)));
+        assertEquals(240L, minutes.get(LocalDate.of(2025, 10, 27)));
+        // Sunday and Monday fall in different ISO weeks
+        assertEquals("2025-W43", HallUsageService.isoWeek(LocalDate.of(2025, 10, 26)));
+        assertEquals("2025-W44", HallUsageService.isoWeek(LocalDate.of(2025, 10, 27)));
+    }
+}
@@ -0,0 +1,99 @@
+package com.dtao.seminarbooking.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MediaVariantCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void concurrentRequestsForOneVariantGenerateItOnce() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            MediaVariantCache cache = new MediaVariantCache(dir, 1_000_000, pool);
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicInteger generated = new AtomicInteger();
+            MediaVariantCache.VariantWriter writer = target -> {
+                generated.incrementAndGet();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                Files.write(target, new byte[100]);
+            };
+
+            CompletableFuture<Path> first = cache.get("abc/w320.jpg", writer);
+            CompletableFuture<Path> second = cache.get("abc/w320.jpg", writer);
+            assertSame(first, second);
+            release.countDown();
+
+            Path file = first.get(5, TimeUnit.SECONDS);
+            assertTrue(Files.isRegularFile(file));
+            assertEquals(file, cache.get("abc/w320.jpg", writer).get(5, TimeUnit.SECONDS));
+            assertEquals(1, generated.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedOverBudget() throws Exception {
+        MediaVariantCache cache = new MediaVariantCache(dir, 250, Runnable::run);
+        MediaVariantCache.VariantWriter hundredBytes = target -> Files.write(target, new byte[100]);
+
+        Path a = cache.get("a/w160.jpg", hundredBytes).get();
+        Path b = cache.get("b/w160.jpg", hundredBytes).get();
+        cache.get("a/w160.jpg", hundredBytes).get(); // touch a, so b is now eldest
+        cache.get("c/w160.jpg", hundredBytes).get();
+
+        assertTrue(Files.exists(a));
+        assertFalse(Files.exists(b));
+        assertEquals(2, cache.size());
+        assertEquals(200, cache.totalBytes());
+    }
+
+    @Test
+    void evictPrefixDropsEveryVariantOfOnePhoto() throws Exception {
+        MediaVariantCache cache = new MediaVariantCache(dir, 1_000, Runnable::run);
+        MediaVariantCache.VariantWriter tenBytes = target -> Files.write(target, new byte[10]);
+        Path small = cache.get("a/w160.jpg", tenBytes).get();
+        Path large = cache.get("a/w640.jpg", tenBytes).get();
+        Path other = cache.get("ab/w160.jpg", tenBytes).get();
+
+        assertEquals(2, cache.evictPrefix("a/"));
+
+        assertFalse(Files.exists(small));
+        assertFalse(Files.exists(large));
+        assertTrue(Files.exists(other));
+        assertEquals(1, cache.size());
+        assertEquals(10, cache.totalBytes());
+    }
+
+    @Test
+    void rebuildsIndexFromDisk() throws Exception {
+        MediaVariantCache cache = new MediaVariantCache(dir, 1_000, Runnable::run);
+        cache.get("a/w160.jpg", target -> Files.write(target, new byte[40])).get();
+
+        MediaVariantCache reopened = new MediaVariantCache(dir, 1_000, Runnable::run);
+        reopened.load();
+        assertEquals(1, reopened.size());
+        assertEquals(40, reopened.totalBytes());
+    }
+}
@@ -0,0 +1,73 @@
+package com.dtao.seminarbooking.service;
+
+import com.dtao.seminarbooking.model.OperatorDigestEvent;
+import com.dtao.seminarbooking.repo.OperatorDigestEventRepository;
+import com.dtao.seminarbooking.service.BrevoClient.MessageVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OperatorDigestServiceTest {
+
+    private static final Instant WINDOW = Instant.parse("2026-03-10T09:00:00Z");
+
+    private final OperatorDigestEventRepository repository = mock(OperatorDigestEventRepository.class);
+    private final EmailService emailService = mock(EmailService.class);
+    private final EmailOutboxService outboxService = mock(EmailOutboxService.class);
+    private final OperatorDigestService service = new OperatorDigestService(repository, emailService, outboxService);
+
+    OperatorDigestServiceTest() {
+        ReflectionTestUtils.setField(service, "windowMinutes", 60L);
+        when(emailService.operatorDigestMessage(anyString(), any(), any(), anyList()))
+                .thenReturn(Optional.of(new MessageVersion(List.of("op@newhorizonindia.edu"), "Digest", "<p>digest</p>")));
+        when(outboxService.enqueueUnique(anyString(), anyList())).thenReturn(true);
+    }
+
+    @Test
+    void fullPageHoldsBackItsLastGroup() {
+        List<OperatorDigestEvent> page = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) page.add(event("op-a", i));
+        for (int i = 0; i < 500; i++) page.add(event("op-b", i)); // op-b may have more events past the cut
+        when(repository.findTop2000ByWindowStartLessThanOrderByWindowStartAscOperatorIdAscIdAsc(any())).thenReturn(page);
+
+        service.flushClosedWindows();
+
+        verify(outboxService, times(1)).enqueueUnique(startsWith("digest:op-a:"), anyList());
+        verify(outboxService, never()).enqueueUnique(startsWith("digest:op-b:"), anyList());
+        verify(repository).deleteAll(eq(page.subList(0, 1500)));
+    }
+
+    @Test
+    void partialPageSendsEveryGroup() {
+        List<OperatorDigestEvent> page = List.of(event("op-a", 1), event("op-b", 1));
+        when(repository.findTop2000ByWindowStartLessThanOrderByWindowStartAscOperatorIdAscIdAsc(any())).thenReturn(page);
+
+        service.flushClosedWindows();
+
+        verify(outboxService, times(2)).enqueueUnique(startsWith("digest:op-"), anyList());
+    }
+
+    private static OperatorDigestEvent event(String operatorId, int n) {
+        OperatorDigestEvent e = new OperatorDigestEvent();
+        e.setId(operatorId + "-" + n);
+        e.setOperatorId(operatorId);
+        e.setOperatorEmail(operatorId + "@newhorizonindia.edu");
+        e.setWindowStart(WINDOW);
+        return e;
+    }
+}
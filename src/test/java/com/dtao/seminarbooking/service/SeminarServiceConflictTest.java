@@ -0,0 +1,98 @@
+package com.dtao.seminarbooking.service;
+
+import com.dtao.seminarbooking.model.Seminar;
+import com.dtao.seminarbooking.model.SeminarHall;
+import com.dtao.seminarbooking.repo.SeminarRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SeminarServiceConflictTest {
+
+    private static final String DATE = LocalDate.now().plusDays(3).toString();
+
+    private final SeminarRepository repository = mock(SeminarRepository.class);
+    private final ReferenceDataService referenceData = mock(ReferenceDataService.class);
+    private final HallReferenceService hallReferences = mock(HallReferenceService.class);
+    private final SeminarService service = new SeminarService();
+
+    SeminarServiceConflictTest() {
+        ReflectionTestUtils.setField(service, "seminarRepository", repository);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "referenceData", referenceData);
+        ReflectionTestUtils.setField(service, "hallUsage", mock(HallUsageService.class));
+        ReflectionTestUtils.setField(service, "archive", mock(SeminarArchiveService.class));
+        ReflectionTestUtils.setField(service, "audit", mock(BookingAuditService.class));
+        ReflectionTestUtils.setField(service, "hallReferences", hallReferences);
+        service.initMetrics();
+
+        SeminarHall main = new SeminarHall("Main Hall", 120);
+        main.setId("h1");
+        when(referenceData.hallById("h1")).thenReturn(Optional.of(main));
+        when(referenceData.hallByName("Main Hall")).thenReturn(Optional.of(main));
+        when(referenceData.loadHallByName("Main Hall")).thenReturn(Optional.of(main));
+        when(repository.save(any(Seminar.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    void unlinkedBookingBlocksTheSlotWhileTheMigrationIsPending() {
+        when(hallReferences.legacyBookingsRemain()).thenReturn(true);
+        when(repository.findByHallIdIsNullAndHallNameIgnoreCaseAndDate("Main Hall", DATE))
+                .thenReturn(List.of(legacy("10:00", "12:00")));
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> service.addSeminar(request("11:00", "13:00")));
+        assertTrue(ex.getMessage().contains("overlaps"));
+        assertFalse(service.isHallFree("h1", DATE, "11:00", "13:00"));
+        assertEquals(1, service.getByHallAndDate(DATE, "Main Hall").size());
+    }
+
+    @Test
+    void nameLookupsStopOnceEveryBookingIsLinked() {
+        when(hallReferences.legacyBookingsRemain()).thenReturn(false);
+
+        Seminar saved = service.addSeminar(request("11:00", "13:00"));
+
+        assertEquals("h1", saved.getHallId());
+        verify(repository, never()).findByHallIdIsNullAndHallNameIgnoreCaseAndDate(anyString(), anyString());
+    }
+
+    private static Seminar legacy(String start, String end) {
+        Seminar s = new Seminar();
+        s.setId("old-1");
+        s.setHallName("main hall");
+        s.setDate(DATE);
+        s.setStartTime(start);
+        s.setEndTime(end);
+        return s;
+    }
+
+    private static Seminar request(String start, String end) {
+        Seminar s = new Seminar();
+        s.setHallName("Main Hall");
+        s.setDate(DATE);
+        s.setStartTime(start);
+        s.setEndTime(end);
+        s.setSlotTitle("Talk");
+        s.setBookingName("Dr. A");
+        s.setEmail("a.b@newhorizonindia.edu");
+        s.setDepartment("CSE");
+        s.setPhone("9845012345");
+        s.setStatus("PENDING");
+        return s;
+    }
+}
@@ -0,0 +1,125 @@
+package com.dtao.seminarbooking.service;
+
+import com.dtao.seminarbooking.model.User;
+import com.dtao.seminarbooking.repo.UserRepository;
+import com.dtao.seminarbooking.security.PasswordHashingService;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserImportServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final PasswordHashingService passwordHashing = mock(PasswordHashingService.class);
+    private final EmailService emailService = mock(EmailService.class);
+    private final UserImportService service = new UserImportService(
+            new UserService(), userRepository, mongoTemplate, passwordHashing, emailService, 500);
+
+    UserImportServiceTest() {
+        when(passwordHashing.encodeBulkAsync(anyString())).thenAnswer(inv -> CompletableFuture.completedFuture("hash:" + inv.getArgument(0)));
+        when(emailService.welcomeMessage(any(User.class))).thenReturn(Optional.empty());
+        when(userRepository.findEmailOrPhoneClashesIn(anyCollection(), anyCollection())).thenReturn(List.of());
+    }
+
+    @Test
+    void parsesColumnsInAnyOrderWithQuotedCells() {
+        String csv = """
+                Email,NAME,phone,password,department
+                a@newhorizonindia.edu,"Rao, Anita",9845012345,"pa""ss",
+
+                b@newhorizonindia.edu,Ben,9845012346,secret,CSE
+                """;
+
+        List<User> users = service.parseCsv(csv);
+
+        assertEquals(2, users.size());
+        assertEquals("Rao, Anita", users.get(0).getName());
+        assertEquals("pa\"ss", users.get(0).getPassword());
+        assertNull(users.get(0).getDepartment());
+        assertNull(users.get(0).getRole());
+        assertEquals("CSE", users.get(1).getDepartment());
+    }
+
+    @Test
+    void rejectsHeaderWithoutRequiredColumn() {
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> service.parseCsv("name,email,phone\nA,a@newhorizonindia.edu,9845012345"));
+        assertEquals("CSV header is missing column: password", ex.getMessage());
+    }
+
+    @Test
+    void badRowsAreReportedByRowNumberAndTheRestAreCreated() {
+        User existing = new User();
+        existing.setEmail("taken@newhorizonindia.edu");
+        when(userRepository.findEmailOrPhoneClashesIn(anyCollection(), anyCollection())).thenReturn(List.of(existing));
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulk);
+        when(bulk.insert(anyList())).thenReturn(bulk);
+
+        UserImportService.ImportResult result = service.importUsers(List.of(
+                user("ok@newhorizonindia.edu", "9845012345"),
+                user("bad@gmail.com", "9845012346"),
+                user("OK@newhorizonindia.edu", "9845012347"),
+                user("taken@newhorizonindia.edu", "9845012348")), "admin");
+
+        assertEquals(1, result.created().size());
+        assertEquals("hash:pw", result.created().get(0).getPassword());
+        assertEquals("DEPARTMENT", result.created().get(0).getRole());
+        assertEquals(List.of(2, 3, 4), result.errors().stream().map(UserImportService.RowError::row).toList());
+        assertTrue(result.errors().get(0).error().startsWith("Invalid email"));
+        assertEquals("Duplicate in file: Email already registered!", result.errors().get(1).error());
+        assertEquals("Email already registered!", result.errors().get(2).error());
+    }
+
+    @Test
+    void bulkWriteConflictsMapBackToTheirRows() {
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulk);
+        when(bulk.insert(anyList())).thenReturn(bulk);
+        BulkWriteError dup = new BulkWriteError(11000,
+                "E11000 duplicate key error collection: users index: phone_unique", new BsonDocument(), 1);
+        when(bulk.execute()).thenThrow(new BulkOperationException("bulk failed", new MongoBulkWriteException(
+                BulkWriteResult.unacknowledged(), List.of(dup), null, new ServerAddress(), Set.of())));
+
+        UserImportService.ImportResult result = service.importUsers(List.of(
+                user("a@newhorizonindia.edu", "9845012345"),
+                user("b@newhorizonindia.edu", "9845012346")), "admin");
+
+        assertEquals(List.of("a@newhorizonindia.edu"), result.created().stream().map(User::getEmail).toList());
+        assertEquals(1, result.errors().size());
+        assertEquals(2, result.errors().get(0).row());
+        assertEquals("Phone already registered!", result.errors().get(0).error());
+    }
+
+    private static User user(String email, String phone) {
+        User u = new User();
+        u.setName("Test");
+        u.setEmail(email);
+        u.setPhone(phone);
+        u.setPassword("pw");
+        return u;
+    }
+}
@@ -0,0 +1,219 @@
+package com.dtao.seminarbooking.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for Brevo's {@code POST /smtp/email} so the email pipeline can be
+ * load-tested without sending real mail. Point {@code brevo.api.base} at {@link #baseUrl()}.
+ *
+ * Behaviour is adjustable while running: fixed latency plus jitter, a 5xx error rate,
+ * a 429 rate (with Retry-After), and a cap on concurrently served requests beyond which
+ * every request gets 429, like a real provider under pressure. Accepted payloads are
+ * recorded for assertions.
+ *
+ * Run {@link #main} to keep one up for a locally started app ({@code --spring.profiles.active=loadtest}).
+ */
+public class BrevoStandIn implements AutoCloseable {
+
+    private static final Pattern EMAIL = Pattern.compile("\"email\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final HttpServer server;
+    private final ExecutorService workers;
+
+    private volatile long latencyMs;
+    private volatile long jitterMs;
+    private volatile double errorRate;
+    private volatile double throttleRate;
+    private volatile int retryAfterSeconds = 1;
+    private volatile int maxConcurrent = Integer.MAX_VALUE;
+    private volatile boolean requireApiKey = true;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder recipients = new LongAdder();
+    private final ConcurrentLinkedQueue<String> payloads = new ConcurrentLinkedQueue<>();
+
+    public BrevoStandIn() throws IOException {
+        this(0);
+    }
+
+    public BrevoStandIn(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 256);
+        workers = Executors.newFixedThreadPool(64);
+        server.setExecutor(workers);
+        server.createContext("/smtp/email", this::handle);
+        server.start();
+    }
+
+    // -------------------- configuration --------------------
+    public BrevoStandIn latency(long fixedMs, long jitterMs) {
+        this.latencyMs = fixedMs;
+        this.jitterMs = jitterMs;
+        return this;
+    }
+
+    public BrevoStandIn errorRate(double rate) {
+        this.errorRate = rate;
+        return this;
+    }
+
+    public BrevoStandIn throttleRate(double rate, int retryAfterSeconds) {
+        this.throttleRate = rate;
+        this.retryAfterSeconds = retryAfterSeconds;
+        return this;
+    }
+
+    /** Requests above this concurrency are answered with 429. */
+    public BrevoStandIn maxConcurrent(int max) {
+        this.maxConcurrent = max;
+        return this;
+    }
+
+    public BrevoStandIn requireApiKey(boolean require) {
+        this.requireApiKey = require;
+        return this;
+    }
+
+    // -------------------- observations --------------------
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public long accepted() { return accepted.sum(); }
+
+    public long throttled() { return throttled.sum(); }
+
+    public long failed() { return failed.sum(); }
+
+    /** Recipients across all accepted requests (one per messageVersion / "to" entry). */
+    public long recipients() { return recipients.sum(); }
+
+    public int peakInFlight() { return peakInFlight.get(); }
+
+    public List<String> payloads() { return new ArrayList<>(payloads); }
+
+    public void reset() {
+        accepted.reset();
+        throttled.reset();
+        failed.reset();
+        recipients.reset();
+        payloads.clear();
+        peakInFlight.set(0);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        workers.shutdownNow();
+    }
+
+    // -------------------- handler --------------------
+    private void handle(HttpExchange exchange) throws IOException {
+        int now = inFlight.incrementAndGet();
+        peakInFlight.accumulateAndGet(now, Math::max);
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "{\"code\":\"method_not_allowed\"}");
+                return;
+            }
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            if (requireApiKey && (exchange.getRequestHeaders().getFirst("api-key") == null)) {
+                respond(exchange, 401, "{\"code\":\"unauthorized\",\"message\":\"Key not found\"}");
+                return;
+            }
+
+            sleep(latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0));
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (now > maxConcurrent || random.nextDouble() < throttleRate) {
+                throttled.increment();
+                exchange.getResponseHeaders().add("Retry-After", String.valueOf(retryAfterSeconds));
+                respond(exchange, 429, "{\"code\":\"too_many_requests\"}");
+                return;
+            }
+            if (random.nextDouble() < errorRate) {
+                failed.increment();
+                respond(exchange, 500, "{\"code\":\"internal_error\"}");
+                return;
+            }
+
+            accepted.increment();
+            payloads.add(body);
+            int count = countRecipients(body);
+            recipients.add(count);
+            respond(exchange, 201, messageIds(body.contains("\"messageVersions\"") ? count : 1));
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    // sender email is matched too; subtract it
+    private static int countRecipients(String body) {
+        Matcher m = EMAIL.matcher(body);
+        int n = 0;
+        while (m.find()) n++;
+        return Math.max(0, n - 1);
+    }
+
+    private static String messageIds(int count) {
+        if (count == 1) return "{\"messageId\":\"<" + UUID.randomUUID() + "@standin>\"}";
+        StringBuilder ids = new StringBuilder("{\"messageIds\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) ids.append(',');
+            ids.append("\"<").append(UUID.randomUUID()).append("@standin>\"");
+        }
+        return ids.append("]}").toString();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long ms) {
+        if (ms <= 0) return;
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Standalone: {@code BrevoStandIn [port] [latencyMs] [errorRate] [throttleRate]}.
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8099;
+        BrevoStandIn standIn = new BrevoStandIn(port)
+                .latency(args.length > 1 ? Long.parseLong(args[1]) : 150, 50)
+                .errorRate(args.length > 2 ? Double.parseDouble(args[2]) : 0.0)
+                .throttleRate(args.length > 3 ? Double.parseDouble(args[3]) : 0.0, 1);
+        System.out.println("Brevo stand-in listening on " + standIn.baseUrl());
+        Runtime.getRuntime().addShutdownHook(new Thread(standIn::close));
+        Thread.currentThread().join();
+    }
+}